@@ -0,0 +1,65 @@
+package com.igorfragadev.juniemvc.mappers;
+
+import com.igorfragadev.juniemvc.entities.BeerOrder;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of mapping a whole order graph (customer, lines and each line's beer) in both directions,
+ * at order sizes from a single line to a large wholesale order.
+ * Run with -prof gc to also get the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerOrderMapperBenchmark {
+
+    @Param({"1", "50", "500"})
+    int lineCount;
+
+    AnnotationConfigApplicationContext context;
+    BeerOrderMapper beerOrderMapper;
+    BeerOrder beerOrder;
+    BeerOrderDto beerOrderDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = MapperBenchmarkFixtures.mapperContext();
+        beerOrderMapper = context.getBean(BeerOrderMapper.class);
+        beerOrder = MapperBenchmarkFixtures.beerOrder(lineCount);
+        beerOrderDto = beerOrderMapper.beerOrderToBeerOrderDto(beerOrder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerOrderDto beerOrderToBeerOrderDto() {
+        return beerOrderMapper.beerOrderToBeerOrderDto(beerOrder);
+    }
+
+    @Benchmark
+    public BeerOrder beerOrderDtoToBeerOrder() {
+        return beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDto);
+    }
+}
@@ -0,0 +1,116 @@
+package com.igorfragadev.juniemvc.mappers;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
+import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the single-entity mappers in both directions, the per-request cost of the beer,
+ * customer and shipment endpoints. Run with -prof gc to also get the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    AnnotationConfigApplicationContext context;
+    BeerMapper beerMapper;
+    BeerOrderLineMapper beerOrderLineMapper;
+    CustomerMapper customerMapper;
+    BeerOrderShipmentMapper beerOrderShipmentMapper;
+
+    Beer beer;
+    BeerDto beerDto;
+    BeerOrderLine beerOrderLine;
+    BeerOrderLineDto beerOrderLineDto;
+    Customer customer;
+    CustomerDto customerDto;
+    BeerOrderShipment shipment;
+    BeerOrderShipmentDto shipmentDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = MapperBenchmarkFixtures.mapperContext();
+        beerMapper = context.getBean(BeerMapper.class);
+        beerOrderLineMapper = context.getBean(BeerOrderLineMapper.class);
+        customerMapper = context.getBean(CustomerMapper.class);
+        beerOrderShipmentMapper = context.getBean(BeerOrderShipmentMapper.class);
+
+        beer = MapperBenchmarkFixtures.beer(1);
+        beerDto = beerMapper.beerToBeerDto(beer);
+        beerOrderLine = MapperBenchmarkFixtures.beerOrder(1).getBeerOrderLines().get(0);
+        beerOrderLineDto = beerOrderLineMapper.beerOrderLineToBeerOrderLineDto(beerOrderLine);
+        customer = MapperBenchmarkFixtures.customer();
+        customerDto = customerMapper.customerToCustomerDto(customer);
+        shipment = MapperBenchmarkFixtures.shipment(MapperBenchmarkFixtures.beerOrder(0));
+        shipmentDto = beerOrderShipmentMapper.beerOrderShipmentToBeerOrderShipmentDto(shipment);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerDto beerToBeerDto() {
+        return beerMapper.beerToBeerDto(beer);
+    }
+
+    @Benchmark
+    public Beer beerDtoToBeer() {
+        return beerMapper.beerDtoToBeer(beerDto);
+    }
+
+    @Benchmark
+    public BeerOrderLineDto beerOrderLineToBeerOrderLineDto() {
+        return beerOrderLineMapper.beerOrderLineToBeerOrderLineDto(beerOrderLine);
+    }
+
+    @Benchmark
+    public BeerOrderLine beerOrderLineDtoToBeerOrderLine() {
+        return beerOrderLineMapper.beerOrderLineDtoToBeerOrderLine(beerOrderLineDto);
+    }
+
+    @Benchmark
+    public CustomerDto customerToCustomerDto() {
+        return customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public Customer customerDtoToCustomer() {
+        return customerMapper.customerDtoToCustomer(customerDto);
+    }
+
+    @Benchmark
+    public BeerOrderShipmentDto beerOrderShipmentToBeerOrderShipmentDto() {
+        return beerOrderShipmentMapper.beerOrderShipmentToBeerOrderShipmentDto(shipment);
+    }
+
+    @Benchmark
+    public BeerOrderShipment beerOrderShipmentDtoToBeerOrderShipment() {
+        return beerOrderShipmentMapper.beerOrderShipmentDtoToBeerOrderShipment(shipmentDto);
+    }
+}
@@ -0,0 +1,109 @@
+package com.igorfragadev.juniemvc.mappers;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.BeerOrder;
+import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
+import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the mappers the way the application wires them, and entity graphs shaped like production data.
+ */
+final class MapperBenchmarkFixtures {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 12, 0);
+
+    private MapperBenchmarkFixtures() {
+    }
+
+    /**
+     * Create a context holding only the generated mapper implementations, so nested mappers are injected
+     * exactly as they are in the application
+     * @return The started context; close it in the benchmark's tear-down
+     */
+    static AnnotationConfigApplicationContext mapperContext() {
+        return new AnnotationConfigApplicationContext(MapperBenchmarkFixtures.class.getPackageName());
+    }
+
+    static Beer beer(int id) {
+        return Beer.builder()
+                .id(id)
+                .version(1)
+                .beerName("Benchmark Beer " + id)
+                .beerStyle("IPA")
+                .upc("0631234200" + id)
+                .quantityOnHand(100 + id)
+                .price(new BigDecimal("12.99"))
+                .imageUrl("https://example.com/beers/" + id + ".png")
+                .createdDate(NOW)
+                .updatedDate(NOW)
+                .build();
+    }
+
+    static Customer customer() {
+        return Customer.builder()
+                .id(1)
+                .version(1)
+                .name("Benchmark Customer")
+                .email("customer@example.com")
+                .phone("555-0100")
+                .addressLine1("1 Main Street")
+                .addressLine2("Suite 2")
+                .city("Springfield")
+                .state("IL")
+                .postalCode("62701")
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .build();
+    }
+
+    static BeerOrderShipment shipment(BeerOrder beerOrder) {
+        return BeerOrderShipment.builder()
+                .id(1)
+                .version(1)
+                .beerOrder(beerOrder)
+                .shipmentDate(LocalDate.of(2025, 1, 16))
+                .carrier("UPS")
+                .trackingNumber("1Z999AA10123456784")
+                .createdDate(NOW)
+                .updatedDate(NOW)
+                .build();
+    }
+
+    /**
+     * Create an order with a customer and the given number of lines, each line for a different beer
+     * @param lineCount The number of order lines
+     * @return The beer order
+     */
+    static BeerOrder beerOrder(int lineCount) {
+        BeerOrder beerOrder = BeerOrder.builder()
+                .id(1)
+                .version(1)
+                .customer(customer())
+                .customerRef("BENCH-REF-001")
+                .paymentAmount(new BigDecimal("129.90"))
+                .status(BeerOrderStatus.NEW)
+                .createdDate(NOW)
+                .updatedDate(NOW)
+                .build();
+        for (int i = 1; i <= lineCount; i++) {
+            beerOrder.addBeerOrderLine(BeerOrderLine.builder()
+                    .id(i)
+                    .version(1)
+                    .beer(beer(i))
+                    .orderQuantity(2)
+                    .quantityAllocated(2)
+                    .status("ALLOCATED")
+                    .createdDate(NOW)
+                    .updatedDate(NOW)
+                    .build());
+        }
+        return beerOrder;
+    }
+}
@@ -0,0 +1,168 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import com.igorfragadev.juniemvc.JuniemvcApplication;
+import com.igorfragadev.juniemvc.entities.BeerOrder;
+import com.igorfragadev.juniemvc.mappers.BeerMapper;
+import com.igorfragadev.juniemvc.mappers.BeerOrderMapper;
+import com.igorfragadev.juniemvc.mappers.CustomerMapper;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.services.BeerOrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Latency and allocation of the list paths when they load managed entities and when they select record views.
+ * Each call runs in a read-only transaction, as it does behind the services. Run with {@code -prof gc} to see
+ * the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProjectionBenchmark {
+
+    private static final int BEER_COUNT = 10_000;
+    private static final int CUSTOMER_COUNT = 1_000;
+    private static final int BEER_ORDER_COUNT = 10_000;
+    private static final int LINES_PER_ORDER = 3;
+    private static final int PAGE_SIZE = 50;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, PAGE_SIZE);
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate readOnly;
+    BeerRepository beerRepository;
+    CustomerRepository customerRepository;
+    BeerOrderRepository beerOrderRepository;
+    BeerMapper beerMapper;
+    CustomerMapper customerMapper;
+    BeerOrderMapper beerOrderMapper;
+    BeerOrderService beerOrderService;
+    EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JuniemvcApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as command-line arguments, which take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:projection-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--juniemvc.beer-search.engine=database",
+                        "--logging.level.root=WARN");
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        beerRepository = context.getBean(BeerRepository.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        beerOrderRepository = context.getBean(BeerOrderRepository.class);
+        beerMapper = context.getBean(BeerMapper.class);
+        customerMapper = context.getBean(CustomerMapper.class);
+        beerOrderMapper = context.getBean(BeerOrderMapper.class);
+        beerOrderService = context.getBean(BeerOrderService.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.batchUpdate(
+                "insert into beer (id, version, beer_name, beer_style, upc, quantity_on_hand, price, created_date, "
+                        + "updated_date) values (?, 0, ?, 'IPA', ?, 100, ?, ?, ?)",
+                IntStream.rangeClosed(1, BEER_COUNT).mapToObj(i -> new Object[]{i, "Beer " + i, "upc-" + i,
+                        new BigDecimal("9.99"), now, now}).toList());
+        jdbcTemplate.batchUpdate(
+                "insert into customer (id, version, name, email, address_line1, city, state, postal_code, "
+                        + "created_at, updated_at) values (?, 0, ?, ?, '1 Main St', 'Springfield', 'IL', '62701', ?, ?)",
+                IntStream.rangeClosed(1, CUSTOMER_COUNT).mapToObj(i -> new Object[]{i, "Customer " + i,
+                        "customer" + i + "@example.com", now, now}).toList());
+        jdbcTemplate.batchUpdate(
+                "insert into beer_order (id, version, customer_id, customer_ref, payment_amount, status, created_date, "
+                        + "updated_date) values (?, 0, ?, ?, ?, 'NEW', ?, ?)",
+                IntStream.rangeClosed(1, BEER_ORDER_COUNT).mapToObj(i -> new Object[]{i, i % CUSTOMER_COUNT + 1,
+                        "REF-" + i, new BigDecimal("29.97"), Timestamp.valueOf(LocalDateTime.now().minusMinutes(i)),
+                        now}).toList());
+        jdbcTemplate.batchUpdate(
+                "insert into beer_order_line (id, version, beer_order_id, beer_id, order_quantity, quantity_allocated, "
+                        + "status, created_date, updated_date) values (?, 0, ?, ?, 3, 0, 'NEW', ?, ?)",
+                IntStream.range(0, BEER_ORDER_COUNT * LINES_PER_ORDER).mapToObj(i -> new Object[]{i + 1,
+                        i / LINES_PER_ORDER + 1, i % BEER_COUNT + 1, now, now}).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerDto> entityBeerPage() {
+        return readOnly.execute(status -> beerRepository.findAll(FIRST_PAGE)
+                .map(beerMapper::beerToBeerDto).getContent());
+    }
+
+    @Benchmark
+    public List<BeerDto> viewBeerPage() {
+        return readOnly.execute(status -> beerRepository.findViewsBy(FIRST_PAGE)
+                .map(beerMapper::beerViewToBeerDto).getContent());
+    }
+
+    @Benchmark
+    public List<CustomerDto> entityCustomerList() {
+        return readOnly.execute(status -> customerRepository.findAll().stream()
+                .map(customerMapper::customerToCustomerDto).toList());
+    }
+
+    @Benchmark
+    public List<CustomerDto> viewCustomerList() {
+        return readOnly.execute(status -> customerRepository.findViewsBy().stream()
+                .map(customerMapper::customerViewToCustomerDto).toList());
+    }
+
+    @Benchmark
+    public List<BeerOrderDto> entityBeerOrderPage() {
+        return readOnly.execute(status -> {
+            List<Integer> ids = beerOrderRepository.findKeysetIds(Limit.of(PAGE_SIZE + 1)).subList(0, PAGE_SIZE);
+            return entityManager.createQuery("select distinct bo from BeerOrder bo left join fetch bo.customer "
+                            + "left join fetch bo.beerOrderLines l left join fetch l.beer where bo.id in :ids",
+                            BeerOrder.class)
+                    .setParameter("ids", ids)
+                    .getResultList().stream()
+                    .map(beerOrderMapper::beerOrderToBeerOrderDto).toList();
+        });
+    }
+
+    @Benchmark
+    public List<BeerOrderDto> viewBeerOrderPage() {
+        return beerOrderService.getBeerOrders(null, PAGE_SIZE).getContent();
+    }
+}
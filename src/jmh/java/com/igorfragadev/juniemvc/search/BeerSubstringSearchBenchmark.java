@@ -0,0 +1,121 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.JuniemvcApplication;
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of a first-page substring search, answered by the repository's LIKE queries against H2
+ * and by the n-gram index followed by loading the page's beers by ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class BeerSubstringSearchBenchmark {
+
+    private static final String[] WORDS = {"mango", "galaxy", "cat", "hazy", "juicy", "imperial", "session",
+            "citra", "mosaic", "amber", "golden", "midnight", "river", "mountain", "harvest", "smoked"};
+    private static final String[] STYLES = {"IPA", "PALE ALE", "STOUT", "PORTER", "LAGER", "PILSNER", "SOUR", "WHEAT"};
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({"100000", "1000000"})
+    int beerCount;
+
+    ConfigurableApplicationContext context;
+    BeerRepository beerRepository;
+    NgramBeerSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JuniemvcApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as command-line arguments, which take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:substring-search-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--juniemvc.beer-search.engine=database",
+                        "--logging.level.root=WARN");
+        beerRepository = context.getBean(BeerRepository.class);
+
+        List<BeerSearchView> beers = IntStream.rangeClosed(1, beerCount).mapToObj(i -> new BeerSearchView(
+                i,
+                WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i,
+                STYLES[i % STYLES.length])).toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "insert into beer (id, version, beer_name, beer_style, upc, quantity_on_hand, price, created_date, "
+                        + "updated_date) values (?, 0, ?, ?, ?, 100, ?, ?, ?)",
+                beers.stream().map(beer -> new Object[]{beer.id(), beer.beerName(), beer.beerStyle(),
+                        "upc-" + beer.id(), new BigDecimal("9.99"), now, now}).toList());
+
+        index = new NgramBeerSearchIndex();
+        index.rebuild(beers.stream());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Beer> repositoryShortName() {
+        return beerRepository.findAllByBeerNameContainingIgnoreCase("zy", FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Beer> ngramShortName() {
+        return beerRepository.findAllById(index.search("zy", null, FIRST_PAGE).beerIds());
+    }
+
+    @Benchmark
+    public Page<Beer> repositoryLongName() {
+        return beerRepository.findAllByBeerNameContainingIgnoreCase("o mount", FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Beer> ngramLongName() {
+        return beerRepository.findAllById(index.search("o mount", null, FIRST_PAGE).beerIds());
+    }
+
+    @Benchmark
+    public Page<Beer> repositoryNameAndStyle() {
+        return beerRepository.findAllByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+                "citra", "pale", FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Beer> ngramNameAndStyle() {
+        return beerRepository.findAllById(index.search("citra", "pale", FIRST_PAGE).beerIds());
+    }
+}
@@ -0,0 +1,73 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of a first-page catalog search against an index of up to a million beers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class LuceneBeerSearchIndexBenchmark {
+
+    private static final String[] WORDS = {"mango", "galaxy", "cat", "hazy", "juicy", "imperial", "session",
+            "citra", "mosaic", "amber", "golden", "midnight", "river", "mountain", "harvest", "smoked"};
+    private static final String[] STYLES = {"IPA", "PALE ALE", "STOUT", "PORTER", "LAGER", "PILSNER", "SOUR", "WHEAT"};
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({"100000", "1000000"})
+    int beerCount;
+
+    LuceneBeerSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        index = new LuceneBeerSearchIndex();
+        index.rebuild(IntStream.range(0, beerCount).mapToObj(i -> new BeerSearchView(
+                i,
+                WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i,
+                STYLES[i % STYLES.length])));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Benchmark
+    public BeerSearchHits wordSearch() {
+        return index.search("mango cat", null, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public BeerSearchHits prefixSearch() {
+        return index.search("mou", null, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public BeerSearchHits nameAndStyleSearch() {
+        return index.search("hazy", "pale", FIRST_PAGE);
+    }
+}
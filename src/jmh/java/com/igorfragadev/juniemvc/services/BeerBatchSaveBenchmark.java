@@ -0,0 +1,99 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.JuniemvcApplication;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Time to create a thousand beers one at a time through {@link BeerService#saveBeer(BeerDto)}, one transaction
+ * and one insert per beer, and through {@link BeerService#saveBeers(List)}, which saves chunks in one transaction
+ * each with batched inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BeerBatchSaveBenchmark {
+
+    private static final int BEER_COUNT = 1_000;
+
+    private final AtomicInteger upcs = new AtomicInteger();
+
+    ConfigurableApplicationContext context;
+    BeerService beerService;
+    JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JuniemvcApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as command-line arguments, which take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:beer-batch-save-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--juniemvc.beer-search.engine=database",
+                        "--logging.level.root=WARN");
+        beerService = context.getBean(BeerService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteBeers() {
+        jdbcTemplate.update("delete from beer");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerDto> saveBeerOneAtATime() {
+        return beers().stream()
+                .map(beerService::saveBeer)
+                .toList();
+    }
+
+    @Benchmark
+    public List<BeerDto> saveBeers() {
+        return beerService.saveBeers(beers());
+    }
+
+    private List<BeerDto> beers() {
+        return IntStream.range(0, BEER_COUNT)
+                .mapToObj(i -> {
+                    int upc = upcs.incrementAndGet();
+                    return BeerDto.builder()
+                            .beerName("Beer " + upc)
+                            .beerStyle("IPA")
+                            .upc("upc-" + upc)
+                            .price(new BigDecimal("9.99"))
+                            .quantityOnHand(10)
+                            .build();
+                })
+                .toList();
+    }
+}
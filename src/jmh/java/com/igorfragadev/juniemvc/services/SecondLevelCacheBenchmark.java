@@ -0,0 +1,131 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.JuniemvcApplication;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of listing and creating beer orders with the Hibernate second-level cache enabled and disabled.
+ * Listing reads each page's customers and beers by ID; creating an order reads its beers by ID before
+ * allocating stock for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class SecondLevelCacheBenchmark {
+
+    private static final int BEER_COUNT = 10_000;
+    private static final int CUSTOMER_COUNT = 1_000;
+    private static final int BEER_ORDER_COUNT = 10_000;
+    private static final int LINES_PER_ORDER = 3;
+    private static final int PAGE_SIZE = 50;
+    /**
+     * New orders are spread over this many beers, as they would be over a catalog's best sellers
+     */
+    private static final int POPULAR_BEER_COUNT = 100;
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    ConfigurableApplicationContext context;
+    BeerOrderService beerOrderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JuniemvcApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as command-line arguments, which take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:second-level-cache-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                        "--juniemvc.beer-search.engine=database",
+                        "--logging.level.root=WARN");
+        beerOrderService = context.getBean(BeerOrderService.class);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.batchUpdate(
+                "insert into beer (id, version, beer_name, beer_style, upc, quantity_on_hand, price, created_date, "
+                        + "updated_date) values (?, 0, ?, 'IPA', ?, 1000000, ?, ?, ?)",
+                IntStream.rangeClosed(1, BEER_COUNT).mapToObj(i -> new Object[]{i, "Beer " + i, "upc-" + i,
+                        new BigDecimal("9.99"), now, now}).toList());
+        jdbcTemplate.batchUpdate(
+                "insert into customer (id, version, name, email, address_line1, city, state, postal_code, "
+                        + "created_at, updated_at) values (?, 0, ?, ?, '1 Main St', 'Springfield', 'IL', '62701', ?, ?)",
+                IntStream.rangeClosed(1, CUSTOMER_COUNT).mapToObj(i -> new Object[]{i, "Customer " + i,
+                        "customer" + i + "@example.com", now, now}).toList());
+        jdbcTemplate.batchUpdate(
+                "insert into beer_order (id, version, customer_id, customer_ref, payment_amount, status, created_date, "
+                        + "updated_date) values (?, 0, ?, ?, ?, 'NEW', ?, ?)",
+                IntStream.rangeClosed(1, BEER_ORDER_COUNT).mapToObj(i -> new Object[]{i, i % CUSTOMER_COUNT + 1,
+                        "REF-" + i, new BigDecimal("29.97"), Timestamp.valueOf(LocalDateTime.now().minusMinutes(i)),
+                        now}).toList());
+        jdbcTemplate.batchUpdate(
+                "insert into beer_order_line (id, version, beer_order_id, beer_id, order_quantity, quantity_allocated, "
+                        + "status, created_date, updated_date) values (?, 0, ?, ?, 3, 0, 'NEW', ?, ?)",
+                IntStream.range(0, BEER_ORDER_COUNT * LINES_PER_ORDER).mapToObj(i -> new Object[]{i + 1,
+                        i / LINES_PER_ORDER + 1, i % BEER_COUNT + 1, now, now}).toList());
+        // Restart the sequences a block above the seeded IDs, as V6 does, so created orders and lines can't collide
+        jdbcTemplate.execute("alter sequence beer_order_seq restart with " + (BEER_ORDER_COUNT + 50));
+        jdbcTemplate.execute("alter sequence beer_order_line_seq restart with "
+                + (BEER_ORDER_COUNT * LINES_PER_ORDER + 50));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerOrderDto> beerOrderPage() {
+        return beerOrderService.getBeerOrders(null, PAGE_SIZE).getContent();
+    }
+
+    @Benchmark
+    public BeerOrderDto createBeerOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<BeerOrderLineDto> lines = IntStream.range(0, LINES_PER_ORDER)
+                .mapToObj(i -> BeerOrderLineDto.builder()
+                        .beerId(random.nextInt(POPULAR_BEER_COUNT) + 1)
+                        .orderQuantity(1)
+                        .build())
+                .toList();
+        return beerOrderService.saveBeerOrder(BeerOrderDto.builder()
+                .customerRef("REF-new")
+                .paymentAmount(new BigDecimal("29.97"))
+                .status(BeerOrderStatus.NEW)
+                .beerOrderLines(lines)
+                .build());
+    }
+}
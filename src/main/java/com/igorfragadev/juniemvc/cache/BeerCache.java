@@ -0,0 +1,122 @@
+package com.igorfragadev.juniemvc.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.igorfragadev.juniemvc.config.BeerCacheProperties;
+import com.igorfragadev.juniemvc.events.BeerDeletedEvent;
+import com.igorfragadev.juniemvc.events.BeerPatchedEvent;
+import com.igorfragadev.juniemvc.events.BeerSavedEvent;
+import com.igorfragadev.juniemvc.events.BeerStockChangedEvent;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of beers by ID.
+ * <p>
+ * Writes reach the cache only after their transaction commits. A saved beer replaces the cached
+ * entry unless the cached entry already holds a newer version, so a slow reader that loaded the
+ * previous row can never overwrite the committed one. Stock changes made by bulk updates evict the
+ * entry instead. Loads and updates of the same ID are atomic, which means an eviction issued while
+ * a load is in flight waits for it and then removes its result.
+ * <p>
+ * Hits, misses, loads and evictions are exposed as the {@code cache.*} meters tagged {@code cache=beers}.
+ */
+@Component
+public class BeerCache implements MeterBinder {
+
+    private final Cache<Integer, BeerDto> cache;
+
+    public BeerCache(BeerCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a beer from the cache, loading and caching it on a miss
+     * @param id The beer ID
+     * @param loader Loads the beer from the database; an empty result is not cached
+     * @return Optional containing the beer if found
+     */
+    public Optional<BeerDto> get(Integer id, Function<Integer, Optional<BeerDto>> loader) {
+        return Optional.ofNullable(cache.get(id, beerId -> loader.apply(beerId).orElse(null)));
+    }
+
+    /**
+     * Get a beer from the cache without loading it on a miss
+     * @param id The beer ID
+     * @return Optional containing the beer if it is cached
+     */
+    public Optional<BeerDto> getIfPresent(Integer id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    /**
+     * Evict a beer from the cache
+     * @param id The beer ID
+     */
+    public void evict(Integer id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Hit, miss, load and eviction counters since startup
+     * @return The cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Number of beers currently cached
+     * @return The approximate number of entries
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "beers");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onBeerSaved(BeerSavedEvent event) {
+        BeerDto beer = event.beer();
+        cache.asMap().merge(beer.getId(), beer, (cached, saved) -> isNewer(cached, saved) ? cached : saved);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onBeerDeleted(BeerDeletedEvent event) {
+        cache.invalidate(event.beerId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onBeerPatched(BeerPatchedEvent event) {
+        cache.invalidate(event.beerId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onBeerStockChanged(BeerStockChangedEvent event) {
+        // Bulk stock updates don't produce a DTO to merge, so the next read reloads the beer
+        cache.invalidate(event.beerId());
+    }
+
+    private static boolean isNewer(BeerDto beer, BeerDto other) {
+        return versionOf(beer) > versionOf(other);
+    }
+
+    private static int versionOf(BeerDto beer) {
+        return beer.getVersion() == null ? -1 : beer.getVersion();
+    }
+}
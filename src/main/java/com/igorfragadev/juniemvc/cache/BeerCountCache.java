@@ -0,0 +1,59 @@
+package com.igorfragadev.juniemvc.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.igorfragadev.juniemvc.config.BeerCountCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of the number of beers matching a name and style filter.
+ * <p>
+ * Totals are not updated when beers are written; they expire after the configured time to live, so a
+ * cached total can be off by the beers created or deleted since it was counted. Filters are compared
+ * ignoring case, the same way the searches match them.
+ * <p>
+ * Hits and misses are exposed as the {@code cache.*} meters tagged {@code cache=beer-counts}.
+ */
+@Component
+public class BeerCountCache implements MeterBinder {
+
+    private final Cache<Filter, Long> cache;
+
+    public BeerCountCache(BeerCountCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the number of beers matching a filter, counting and caching it on a miss
+     * @param beerName The beer name filter (can be null)
+     * @param beerStyle The beer style filter (can be null)
+     * @param counter Counts the matching beers in the database
+     * @return The cached or freshly counted total
+     */
+    public long get(String beerName, String beerStyle, LongSupplier counter) {
+        return cache.get(new Filter(normalize(beerName), normalize(beerStyle)), filter -> counter.getAsLong());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "beer-counts");
+    }
+
+    private static String normalize(String text) {
+        return StringUtils.hasText(text) ? text.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private record Filter(String beerName, String beerStyle) {
+    }
+}
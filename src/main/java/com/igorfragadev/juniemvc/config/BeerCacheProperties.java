@@ -0,0 +1,21 @@
+package com.igorfragadev.juniemvc.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the in-process beer cache.
+ *
+ * @param maximumSize the maximum number of beers kept in the cache
+ * @param timeToLive how long a cached beer is served before it is read again from the database
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.beer-cache")
+public record BeerCacheProperties(
+        @Positive long maximumSize,
+        @NotNull Duration timeToLive) {
+}
@@ -0,0 +1,21 @@
+package com.igorfragadev.juniemvc.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the cache of beer search totals.
+ *
+ * @param maximumSize the maximum number of distinct searches whose total is kept
+ * @param timeToLive how long a total is reused before the beers are counted again
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.beer-count-cache")
+public record BeerCountCacheProperties(
+        @Positive long maximumSize,
+        @NotNull Duration timeToLive) {
+}
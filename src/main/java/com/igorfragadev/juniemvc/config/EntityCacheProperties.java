@@ -0,0 +1,21 @@
+package com.igorfragadev.juniemvc.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the Hibernate second-level cache regions.
+ *
+ * @param maximumSize the maximum number of entries kept in each entity region and in the query results region
+ * @param timeToLive how long an entry is served before it is read again from the database
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.entity-cache")
+public record EntityCacheProperties(
+        @Positive long maximumSize,
+        @NotNull Duration timeToLive) {
+}
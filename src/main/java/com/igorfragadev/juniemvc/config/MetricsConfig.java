@@ -0,0 +1,25 @@
+package com.igorfragadev.juniemvc.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Timers for service calls. Services annotated with {@code @Timed} record every public method call as the
+ * {@code juniemvc.service} timer, tagged with the class and method; repository calls, HTTP requests, the
+ * Hibernate statistics and the connection pool are instrumented by Spring Boot.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    /**
+     * Name of the timer recorded for every service call
+     */
+    public static final String SERVICE_TIMER = "juniemvc.service";
+
+    @Bean
+    TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
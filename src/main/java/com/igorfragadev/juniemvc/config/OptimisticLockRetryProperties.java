@@ -0,0 +1,30 @@
+package com.igorfragadev.juniemvc.config;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Retries of service calls that lose an optimistic-locking race, and tracking of the rows they lose it on.
+ *
+ * @param maxAttempts the number of times a call is made, including the first, before the conflict is returned
+ * @param initialBackoff the upper bound of the random wait before the first retry
+ * @param maxBackoff the upper bound of the random wait before any retry
+ * @param multiplier the factor the upper bound grows by with each retry
+ * @param trackedRows the maximum number of rows whose conflicts are counted, the hottest being kept
+ * @param trackedRowTimeToLive how long a row's conflict count is kept after its last conflict
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.optimistic-lock-retry")
+public record OptimisticLockRetryProperties(
+        @Positive int maxAttempts,
+        @NotNull Duration initialBackoff,
+        @NotNull Duration maxBackoff,
+        @DecimalMin("1.0") double multiplier,
+        @Positive long trackedRows,
+        @NotNull Duration trackedRowTimeToLive) {
+}
@@ -0,0 +1,68 @@
+package com.igorfragadev.juniemvc.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.Customer;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Caffeine-backed JCache regions for the Hibernate second-level cache.
+ * <p>
+ * Every region Hibernate uses is created here, bounded by {@link EntityCacheProperties}; Hibernate is set to
+ * fail on startup rather than create an unbounded region for a cached entity that is missing from this list.
+ * The update timestamps region is never bounded or expired, since a dropped timestamp would let the query
+ * cache serve results older than the tables they were read from.
+ * <p>
+ * {@code @DataJpaTest} slices import this configuration through
+ * {@code META-INF/spring/...AutoConfigureDataJpa.imports} in the test resources, since Hibernate can't start
+ * without the regions.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(EntityCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    CacheManager entityCacheManager(EntityCacheProperties properties) {
+        // Each application context gets its own manager; the provider would otherwise share one per URI
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("juniemvc-entity-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(Beer.class.getName(), bounded(properties));
+        cacheManager.createCache(Customer.class.getName(), bounded(properties));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(properties));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer entityCacheManagerCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate caches immutable disassembled state, so the JCache default of copying every entry by
+        // serialization on each read and write buys nothing
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(EntityCacheProperties properties) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumSize(OptionalLong.of(properties.maximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.timeToLive().toNanos()));
+        return configuration;
+    }
+}
@@ -0,0 +1,52 @@
+package com.igorfragadev.juniemvc.config;
+
+import com.igorfragadev.juniemvc.sql.SqlAccountingFilter;
+import com.igorfragadev.juniemvc.sql.SqlAccountingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request SQL accounting, in place of {@code spring.jpa.show-sql}: the data source is wrapped in a proxy
+ * that reports each statement and fetched row to {@link SqlAccountingListener}, and {@link SqlAccountingFilter}
+ * collects the totals of each request.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SqlAccountingConfig {
+
+    @Bean
+    SqlAccountingListener sqlAccountingListener() {
+        return new SqlAccountingListener();
+    }
+
+    @Bean
+    static BeanPostProcessor sqlAccountingDataSourcePostProcessor(
+            ObjectProvider<SqlAccountingListener> sqlAccountingListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    // The pool still unwraps from the proxy, so its metrics and health check keep working
+                    SqlAccountingListener listener = sqlAccountingListener.getObject();
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .jdbcProxyFactory(listener.jdbcProxyFactory())
+                            .listener(listener)
+                            .proxyResultSet(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    SqlAccountingFilter sqlAccountingFilter(SqlAccountingListener sqlAccountingListener,
+                                            SqlAccountingProperties properties) {
+        return new SqlAccountingFilter(sqlAccountingListener, properties);
+    }
+}
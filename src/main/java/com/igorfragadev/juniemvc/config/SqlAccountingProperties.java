@@ -0,0 +1,19 @@
+package com.igorfragadev.juniemvc.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Per-request SQL accounting.
+ *
+ * @param debugHeaders whether a request sending {@code X-Sql-Debug: true} gets its SQL totals as response headers
+ * @param logSampleRate the fraction of requests, from 0 to 1, whose SQL totals are logged
+ */
+@Validated
+@ConfigurationProperties(prefix = "juniemvc.sql-accounting")
+public record SqlAccountingProperties(
+        boolean debugHeaders,
+        @DecimalMin("0.0") @DecimalMax("1.0") double logSampleRate) {
+}
@@ -1,26 +1,60 @@
 package com.igorfragadev.juniemvc.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorfragadev.juniemvc.exceptions.BatchTooLargeException;
+import com.igorfragadev.juniemvc.exceptions.BeerBatchSaveException;
+import com.igorfragadev.juniemvc.models.BeerBatchErrorDto;
+import com.igorfragadev.juniemvc.models.BeerBatchResultDto;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CountMode;
+import com.igorfragadev.juniemvc.models.SliceDto;
 import com.igorfragadev.juniemvc.services.BeerService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/beers")
 public class BeerController {
 
+    /**
+     * Largest number of beers one batch request can create
+     */
+    static final int MAX_BATCH_SIZE = 5_000;
+
+    private static final Logger log = LoggerFactory.getLogger(BeerController.class);
+
     private final BeerService beerService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
-    public BeerController(BeerService beerService) {
+    public BeerController(BeerService beerService, ObjectMapper objectMapper, Validator validator) {
         this.beerService = beerService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     @GetMapping
@@ -38,10 +72,75 @@ public class BeerController {
         return new ResponseEntity<>(beerService.getAllBeers(beerName, beerStyle, pageable), HttpStatus.OK);
     }
 
+    /**
+     * Get one page of beers without the count query that a full page runs.
+     * The response says whether another page follows, and carries a total only when one is requested.
+     *
+     * @param beerName The beer name to filter by (optional)
+     * @param beerStyle The beer style to filter by (optional)
+     * @param page The zero-based page number
+     * @param size The page size
+     * @param count NONE to leave out the total, CACHED to reuse a recently counted one, EXACT to count it now
+     * @return ResponseEntity with the page of beers
+     */
+    @GetMapping(params = {"page", "size", "count"})
+    public ResponseEntity<SliceDto<BeerDto>> getBeerSlice(
+            @RequestParam(required = false) String beerName,
+            @RequestParam(required = false) String beerStyle,
+            @RequestParam int page,
+            @RequestParam int size,
+            @RequestParam CountMode count) {
+        Pageable pageable = PageRequest.of(page, size);
+        return new ResponseEntity<>(beerService.getBeerSlice(beerName, beerStyle, pageable, count), HttpStatus.OK);
+    }
+
+    /**
+     * Export the whole beer catalog as newline-delimited JSON, one beer per line.
+     * Beers are written to the response as they are read, so the catalog is never held in memory.
+     *
+     * @return ResponseEntity streaming the beers as NDJSON
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            // Lines are separated explicitly below, so no separator between root values
+            generator.setRootValueSeparator(null);
+            beerService.exportBeers(beer -> {
+                try {
+                    generator.writeObject(beer);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Get a beer by ID, tagged with an ETag built from its ID and version.
+     * When If-None-Match still holds the current ETag, the beer is neither loaded nor sent.
+     *
+     * @param beerId The beer ID
+     * @param ifNoneMatch The ETags of the copies the client already has (optional)
+     * @return ResponseEntity with the beer, NOT_MODIFIED if the client's copy is current, or NOT_FOUND
+     */
     @GetMapping("/{beerId}")
-    public ResponseEntity<BeerDto> getBeerById(@PathVariable("beerId") Integer beerId) {
+    public ResponseEntity<BeerDto> getBeerById(
+            @PathVariable("beerId") Integer beerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = beerService.getBeerVersion(beerId).map(version -> EntityTags.of(beerId, version));
+            if (eTag.isPresent() && EntityTags.matchesAny(ifNoneMatch, eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         return beerService.getBeerById(beerId)
-                .map(beer -> new ResponseEntity<>(beer, HttpStatus.OK))
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -51,16 +150,97 @@ public class BeerController {
         return new ResponseEntity<>(savedBeer, HttpStatus.CREATED);
     }
 
+    /**
+     * Create many beers in one request. Each beer is validated on its own; invalid beers are reported
+     * by their index in the request array and the valid ones are still created. IDs and versions in the request
+     * are ignored. The beers are saved in chunks of their own transactions, so if a chunk fails after earlier ones
+     * were committed, the beers it and the later chunks hold are reported as not saved.
+     *
+     * @param beerDtos The beers to create, at most {@link #MAX_BATCH_SIZE}
+     * @return ResponseEntity with the created beers and the per-item errors: CREATED when every beer was created,
+     * MULTI_STATUS when only some were, BAD_REQUEST when none were
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BeerBatchResultDto> createBeers(@RequestBody List<BeerDto> beerDtos) {
+        if (beerDtos.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("A batch can hold at most " + MAX_BATCH_SIZE + " beers");
+        }
+        List<BeerDto> validBeers = new ArrayList<>(beerDtos.size());
+        List<Integer> validIndexes = new ArrayList<>(beerDtos.size());
+        List<BeerBatchErrorDto> errors = new ArrayList<>();
+        for (int index = 0; index < beerDtos.size(); index++) {
+            BeerDto beerDto = beerDtos.get(index);
+            if (beerDto == null) {
+                errors.add(new BeerBatchErrorDto(index, Map.of("beer", "Beer is required")));
+                continue;
+            }
+            Set<ConstraintViolation<BeerDto>> violations = validator.validate(beerDto);
+            if (violations.isEmpty()) {
+                validBeers.add(beerDto);
+                validIndexes.add(index);
+            } else {
+                Map<String, String> fieldErrors = new HashMap<>();
+                violations.forEach(violation ->
+                        fieldErrors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                errors.add(new BeerBatchErrorDto(index, fieldErrors));
+            }
+        }
+
+        List<BeerDto> createdBeers;
+        try {
+            createdBeers = validBeers.isEmpty() ? List.of() : beerService.saveBeers(validBeers);
+        } catch (BeerBatchSaveException e) {
+            log.warn("Batch beer save failed after {} of {} beers", e.getSavedBeers().size(), validBeers.size(), e);
+            createdBeers = e.getSavedBeers();
+            for (int i = createdBeers.size(); i < validBeers.size(); i++) {
+                errors.add(new BeerBatchErrorDto(validIndexes.get(i), Map.of("beer", "Beer could not be saved")));
+            }
+            errors.sort(Comparator.comparingInt(BeerBatchErrorDto::getIndex));
+        }
+
+        HttpStatus status;
+        if (errors.isEmpty()) {
+            status = HttpStatus.CREATED;
+        } else if (createdBeers.isEmpty()) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.MULTI_STATUS;
+        }
+        return new ResponseEntity<>(new BeerBatchResultDto(createdBeers, errors), status);
+    }
+
+    /**
+     * Update a beer. With If-Match, the update only applies to the version that ETag names.
+     *
+     * @param beerId The beer ID
+     * @param beerDto The updated beer data
+     * @param ifMatch The ETag of the version the client last read (optional)
+     * @return ResponseEntity with the updated beer and its new ETag, NOT_FOUND, or PRECONDITION_FAILED
+     */
     @PutMapping("/{beerId}")
-    public ResponseEntity<BeerDto> updateBeer(@PathVariable("beerId") Integer beerId, @Valid @RequestBody BeerDto beerDto) {
-        return beerService.updateBeer(beerId, beerDto)
-                .map(updatedBeer -> new ResponseEntity<>(updatedBeer, HttpStatus.OK))
+    public ResponseEntity<BeerDto> updateBeer(
+            @PathVariable("beerId") Integer beerId,
+            @Valid @RequestBody BeerDto beerDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer expectedVersion = EntityTags.expectedVersion(ifMatch, beerId, beerService::getBeerVersion);
+        return beerService.updateBeer(beerId, beerDto, expectedVersion)
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Delete a beer. With If-Match, only the version that ETag names is deleted.
+     *
+     * @param beerId The beer ID
+     * @param ifMatch The ETag of the version the client last read (optional)
+     * @return ResponseEntity with NO_CONTENT, NOT_FOUND, or PRECONDITION_FAILED
+     */
     @DeleteMapping("/{beerId}")
-    public ResponseEntity<Void> deleteBeer(@PathVariable("beerId") Integer beerId) {
-        if (beerService.deleteBeer(beerId)) {
+    public ResponseEntity<Void> deleteBeer(
+            @PathVariable("beerId") Integer beerId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer expectedVersion = EntityTags.expectedVersion(ifMatch, beerId, beerService::getBeerVersion);
+        if (beerService.deleteBeer(beerId, expectedVersion)) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -68,16 +248,38 @@ public class BeerController {
     }
 
     /**
-     * Partially update a beer with the provided data
+     * Partially update a beer with the provided data. With If-Match, the update only applies to the version
+     * that ETag names, and a request that also sends {@code Prefer: return=minimal} gets no body back, only the
+     * new ETag, so the beer need not be read.
      * 
      * @param beerId The beer ID
      * @param beerPathDto The partial beer data to update
-     * @return ResponseEntity with the updated beer if found, or NOT_FOUND
+     * @param ifMatch The ETag of the version the client last read (optional)
+     * @param prefer The Prefer header (optional)
+     * @return ResponseEntity with the updated beer and its new ETag if found, NO_CONTENT and the new ETag for a
+     * minimal response, NOT_FOUND, or PRECONDITION_FAILED
      */
     @PatchMapping("/{beerId}")
-    public ResponseEntity<BeerDto> patchBeer(@PathVariable("beerId") Integer beerId, @RequestBody BeerPathDto beerPathDto) {
-        return beerService.patchBeer(beerId, beerPathDto)
-                .map(updatedBeer -> new ResponseEntity<>(updatedBeer, HttpStatus.OK))
+    public ResponseEntity<BeerDto> patchBeer(
+            @PathVariable("beerId") Integer beerId,
+            @RequestBody BeerPathDto beerPathDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = Preferences.PREFER, required = false) String prefer) {
+        Integer expectedVersion = EntityTags.expectedVersion(ifMatch, beerId, beerService::getBeerVersion);
+        if (expectedVersion != null && Preferences.returnMinimal(prefer)) {
+            return beerService.patchBeerAtVersion(beerId, beerPathDto, expectedVersion)
+                    .map(version -> ResponseEntity.noContent()
+                            .eTag(EntityTags.of(beerId, version))
+                            .header(Preferences.PREFERENCE_APPLIED, Preferences.RETURN_MINIMAL)
+                            .<BeerDto>build())
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+        return beerService.patchBeer(beerId, beerPathDto, expectedVersion)
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
+
+    private ResponseEntity<BeerDto> withETag(BeerDto beer) {
+        return ResponseEntity.ok().eTag(EntityTags.of(beer.getId(), beer.getVersion())).body(beer);
+    }
 }
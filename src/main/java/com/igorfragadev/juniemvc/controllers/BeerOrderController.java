@@ -1,8 +1,12 @@
 package com.igorfragadev.juniemvc.controllers;
 
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionResultDto;
+import com.igorfragadev.juniemvc.models.CursorPageDto;
 import com.igorfragadev.juniemvc.services.BeerOrderService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,10 +15,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/beer-orders")
@@ -31,10 +38,41 @@ public class BeerOrderController {
         return new ResponseEntity<>(beerOrderService.getAllBeerOrders(), HttpStatus.OK);
     }
 
+    /**
+     * Get one page of beer orders, newest first
+     *
+     * @param cursor The next-cursor token returned with the previous page; omit for the first page
+     * @param size The requested page size, capped at the server maximum
+     * @return ResponseEntity with the page of beer orders and the cursor of the next page
+     */
+    @GetMapping(params = "size")
+    public ResponseEntity<CursorPageDto<BeerOrderDto>> getBeerOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam int size) {
+        return new ResponseEntity<>(beerOrderService.getBeerOrders(cursor, size), HttpStatus.OK);
+    }
+
+    /**
+     * Get a beer order by ID, tagged with an ETag built from its ID and version.
+     * When If-None-Match still holds the current ETag, the order is neither loaded nor sent.
+     *
+     * @param orderId The beer order ID
+     * @param ifNoneMatch The ETags of the copies the client already has (optional)
+     * @return ResponseEntity with the beer order, NOT_MODIFIED if the client's copy is current, or NOT_FOUND
+     */
     @GetMapping("/{orderId}")
-    public ResponseEntity<BeerOrderDto> getBeerOrderById(@PathVariable("orderId") Integer orderId) {
+    public ResponseEntity<BeerOrderDto> getBeerOrderById(
+            @PathVariable("orderId") Integer orderId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = beerOrderService.getBeerOrderVersion(orderId)
+                    .map(version -> EntityTags.of(orderId, version));
+            if (eTag.isPresent() && EntityTags.matchesAny(ifNoneMatch, eTag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+            }
+        }
         return beerOrderService.getBeerOrderById(orderId)
-                .map(order -> new ResponseEntity<>(order, HttpStatus.OK))
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -44,21 +82,59 @@ public class BeerOrderController {
         return new ResponseEntity<>(savedOrder, HttpStatus.CREATED);
     }
 
+    /**
+     * Move beer orders from one status to another in bulk
+     *
+     * @param transition The from and to statuses and the IDs of the beer orders to move
+     * @return ResponseEntity with the IDs moved and skipped, or CONFLICT if the from status cannot change to the
+     * to status
+     */
+    @PostMapping("/status-transitions")
+    public ResponseEntity<BeerOrderStatusTransitionResultDto> transitionBeerOrderStatus(
+            @Valid @RequestBody BeerOrderStatusTransitionDto transition) {
+        return new ResponseEntity<>(beerOrderService.transitionBeerOrderStatus(transition), HttpStatus.OK);
+    }
+
+    /**
+     * Update a beer order. With If-Match, the update only applies to the version that ETag names.
+     *
+     * @param orderId The beer order ID
+     * @param beerOrderDto The updated beer order data
+     * @param ifMatch The ETag of the version the client last read (optional)
+     * @return ResponseEntity with the updated beer order and its new ETag, NOT_FOUND, PRECONDITION_FAILED, or
+     * CONFLICT if the order's status cannot change to the new status
+     */
     @PutMapping("/{orderId}")
     public ResponseEntity<BeerOrderDto> updateBeerOrder(
             @PathVariable("orderId") Integer orderId,
-            @Valid @RequestBody BeerOrderDto beerOrderDto) {
-        return beerOrderService.updateBeerOrder(orderId, beerOrderDto)
-                .map(updatedOrder -> new ResponseEntity<>(updatedOrder, HttpStatus.OK))
+            @Valid @RequestBody BeerOrderDto beerOrderDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer expectedVersion = EntityTags.expectedVersion(ifMatch, orderId, beerOrderService::getBeerOrderVersion);
+        return beerOrderService.updateBeerOrder(orderId, beerOrderDto, expectedVersion)
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Delete a beer order. With If-Match, only the version that ETag names is deleted.
+     *
+     * @param orderId The beer order ID
+     * @param ifMatch The ETag of the version the client last read (optional)
+     * @return ResponseEntity with NO_CONTENT, NOT_FOUND, or PRECONDITION_FAILED
+     */
     @DeleteMapping("/{orderId}")
-    public ResponseEntity<Void> deleteBeerOrder(@PathVariable("orderId") Integer orderId) {
-        if (beerOrderService.deleteBeerOrder(orderId)) {
+    public ResponseEntity<Void> deleteBeerOrder(
+            @PathVariable("orderId") Integer orderId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer expectedVersion = EntityTags.expectedVersion(ifMatch, orderId, beerOrderService::getBeerOrderVersion);
+        if (beerOrderService.deleteBeerOrder(orderId, expectedVersion)) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+
+    private ResponseEntity<BeerOrderDto> withETag(BeerOrderDto beerOrder) {
+        return ResponseEntity.ok().eTag(EntityTags.of(beerOrder.getId(), beerOrder.getVersion())).body(beerOrder);
+    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.igorfragadev.juniemvc.controllers;
 
 import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
 import com.igorfragadev.juniemvc.services.CustomerService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,10 +26,16 @@ public class CustomerController {
         return new ResponseEntity<>(customerService.getAllCustomers(), HttpStatus.OK);
     }
 
+    /**
+     * Get a customer by ID, tagged with an ETag built from its ID and version
+     *
+     * @param customerId The customer ID
+     * @return ResponseEntity with the customer and its ETag if found, or NOT_FOUND
+     */
     @GetMapping("/{customerId}")
     public ResponseEntity<CustomerDto> getCustomerById(@PathVariable("customerId") Integer customerId) {
         return customerService.getCustomerById(customerId)
-                .map(customer -> new ResponseEntity<>(customer, HttpStatus.OK))
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -37,10 +45,49 @@ public class CustomerController {
         return new ResponseEntity<>(savedCustomer, HttpStatus.CREATED);
     }
 
+    /**
+     * Update a customer
+     *
+     * @param customerId The customer ID
+     * @param customerDto The customer data
+     * @return ResponseEntity with the updated customer and its new ETag if found, or NOT_FOUND
+     */
     @PutMapping("/{customerId}")
     public ResponseEntity<CustomerDto> updateCustomer(@PathVariable("customerId") Integer customerId, @Valid @RequestBody CustomerDto customerDto) {
         return customerService.updateCustomer(customerId, customerDto)
-                .map(updatedCustomer -> new ResponseEntity<>(updatedCustomer, HttpStatus.OK))
+                .map(this::withETag)
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Partially update a customer with the provided data. With If-Match, the update only applies to the version
+     * that ETag names, and a request that also sends {@code Prefer: return=minimal} gets no body back, only the
+     * new ETag, so the customer need not be read.
+     *
+     * @param customerId The customer ID
+     * @param customerPatchDto The partial customer data to update
+     * @param ifMatch The ETag of the version the client last read (optional)
+     * @param prefer The Prefer header (optional)
+     * @return ResponseEntity with the updated customer and its new ETag if found, NO_CONTENT and the new ETag for
+     * a minimal response, NOT_FOUND, or PRECONDITION_FAILED
+     */
+    @PatchMapping("/{customerId}")
+    public ResponseEntity<CustomerDto> patchCustomer(
+            @PathVariable("customerId") Integer customerId,
+            @Valid @RequestBody CustomerPatchDto customerPatchDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = Preferences.PREFER, required = false) String prefer) {
+        Integer expectedVersion = EntityTags.expectedVersion(ifMatch, customerId, customerService::getCustomerVersion);
+        if (expectedVersion != null && Preferences.returnMinimal(prefer)) {
+            return customerService.patchCustomerAtVersion(customerId, customerPatchDto, expectedVersion)
+                    .map(version -> ResponseEntity.noContent()
+                            .eTag(EntityTags.of(customerId, version))
+                            .header(Preferences.PREFERENCE_APPLIED, Preferences.RETURN_MINIMAL)
+                            .<CustomerDto>build())
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+        return customerService.patchCustomer(customerId, customerPatchDto, expectedVersion)
+                .map(this::withETag)
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -52,4 +99,10 @@ public class CustomerController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+
+    private ResponseEntity<CustomerDto> withETag(CustomerDto customer) {
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(customer.getId(), customer.getVersion()))
+                .body(customer);
+    }
 }
\ No newline at end of file
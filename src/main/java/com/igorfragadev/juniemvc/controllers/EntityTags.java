@@ -0,0 +1,87 @@
+package com.igorfragadev.juniemvc.controllers;
+
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong entity tags of the form {@code "<id>-<version>"}. Every write to an entity increments its version,
+ * so the tag changes exactly when the entity does and can be checked without loading it.
+ */
+final class EntityTags {
+
+    private static final Pattern ENTITY_TAG = Pattern.compile("\"(\\d{1,9})-(\\d{1,9})\"");
+
+    private EntityTags() {
+    }
+
+    /**
+     * Build the entity tag of an entity
+     * @param id The entity ID
+     * @param version The entity version
+     * @return The quoted entity tag
+     */
+    static String of(Integer id, Integer version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Check an If-None-Match header against the current entity tag, comparing weakly as RFC 9110 requires
+     * @param ifNoneMatch The If-None-Match header value
+     * @param eTag The current entity tag
+     * @return true if the header lists the tag or is "*", so the client's copy is still current
+     */
+    static boolean matchesAny(String ifNoneMatch, String eTag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag) || trimmed.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the version an If-Match header requires the entity to have; weak tags never satisfy If-Match.
+     * When the strong tags name more than one version of the entity, the current version is read and required
+     * if it is one of them. The write is still conditional on that version, so a change in between fails it.
+     * @param ifMatch The If-Match header value, or null when the request didn't send one
+     * @param id The entity ID
+     * @param currentVersion Reads the current version of an entity by ID, empty if it doesn't exist
+     * @return The required version, or null when any version will do
+     * @throws PreconditionFailedException if no tag in the header names the current version of the entity
+     */
+    static Integer expectedVersion(String ifMatch, Integer id, Function<Integer, Optional<Integer>> currentVersion) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Integer> versions = new LinkedHashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            Matcher matcher = ENTITY_TAG.matcher(tag.trim());
+            if (matcher.matches() && matcher.group(1).equals(String.valueOf(id))) {
+                versions.add(Integer.valueOf(matcher.group(2)));
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match names no version of " + id);
+        }
+        Integer firstVersion = versions.iterator().next();
+        if (versions.size() == 1) {
+            return firstVersion;
+        }
+        // A missing entity is left for the write to report as not found
+        return currentVersion.apply(id)
+                .map(version -> {
+                    if (!versions.contains(version)) {
+                        throw new PreconditionFailedException("If-Match names no current version of " + id);
+                    }
+                    return version;
+                })
+                .orElse(firstVersion);
+    }
+}
@@ -0,0 +1,33 @@
+package com.igorfragadev.juniemvc.controllers;
+
+import java.util.Locale;
+
+/**
+ * The RFC 7240 {@code Prefer} request header. Only the {@code return} preference is honored.
+ */
+final class Preferences {
+
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RETURN_MINIMAL = "return=minimal";
+
+    private Preferences() {
+    }
+
+    /**
+     * Check whether a Prefer header asks for a minimal response, without the representation in the body
+     * @param prefer The Prefer header value, or null when the request didn't send one
+     * @return true if the header lists {@code return=minimal}
+     */
+    static boolean returnMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().toLowerCase(Locale.ROOT).replace(" ", "").equals(RETURN_MINIMAL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,8 +1,11 @@
 package com.igorfragadev.juniemvc.entities;
 
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -10,6 +13,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -34,7 +38,8 @@ import java.util.List;
 public class BeerOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_order_seq")
+    @SequenceGenerator(name = "beer_order_seq", sequenceName = "beer_order_seq", allocationSize = 50)
     private Integer id;
 
     @Version
@@ -49,16 +54,17 @@ public class BeerOrder {
     @Column(precision = 19, scale = 2)
     private BigDecimal paymentAmount;
 
-    private String status;
+    @Enumerated(EnumType.STRING)
+    private BeerOrderStatus status;
 
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdDate;
 
     @UpdateTimestamp
     private LocalDateTime updatedDate;
 
-    @OneToMany(mappedBy = "beerOrder", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "beerOrder", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private List<BeerOrderLine> beerOrderLines = new ArrayList<>();
 
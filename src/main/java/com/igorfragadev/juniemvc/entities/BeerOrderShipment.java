@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
@@ -31,7 +32,8 @@ import java.time.LocalDateTime;
 public class BeerOrderShipment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_order_shipment_seq")
+    @SequenceGenerator(name = "beer_order_shipment_seq", sequenceName = "beer_order_shipment_seq", allocationSize = 50)
     private Integer id;
 
     @Version
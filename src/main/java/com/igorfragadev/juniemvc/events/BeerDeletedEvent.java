@@ -0,0 +1,9 @@
+package com.igorfragadev.juniemvc.events;
+
+/**
+ * Published when a beer is deleted.
+ *
+ * @param beerId the ID of the deleted beer
+ */
+public record BeerDeletedEvent(Integer beerId) {
+}
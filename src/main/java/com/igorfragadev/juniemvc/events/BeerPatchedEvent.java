@@ -0,0 +1,10 @@
+package com.igorfragadev.juniemvc.events;
+
+/**
+ * Published when a beer is patched by a conditional update that bypasses the entity, so no DTO of the patched
+ * beer is loaded.
+ *
+ * @param beerId the ID of the patched beer
+ */
+public record BeerPatchedEvent(Integer beerId) {
+}
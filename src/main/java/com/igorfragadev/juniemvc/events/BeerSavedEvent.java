@@ -0,0 +1,11 @@
+package com.igorfragadev.juniemvc.events;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+
+/**
+ * Published when a beer is created or modified. The beer carries the version written to the database.
+ *
+ * @param beer the beer as saved
+ */
+public record BeerSavedEvent(BeerDto beer) {
+}
@@ -0,0 +1,9 @@
+package com.igorfragadev.juniemvc.events;
+
+/**
+ * Published when a beer's quantity on hand is changed by a bulk update that bypasses the entity.
+ *
+ * @param beerId the ID of the beer whose stock changed
+ */
+public record BeerStockChangedEvent(Integer beerId) {
+}
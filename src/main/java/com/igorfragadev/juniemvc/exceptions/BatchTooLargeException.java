@@ -0,0 +1,11 @@
+package com.igorfragadev.juniemvc.exceptions;
+
+/**
+ * Thrown when a batch request holds more items than one request may create.
+ */
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
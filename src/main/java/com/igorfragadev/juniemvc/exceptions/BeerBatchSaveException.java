@@ -0,0 +1,27 @@
+package com.igorfragadev.juniemvc.exceptions;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+
+import java.util.List;
+
+/**
+ * Thrown when a chunk of a batch beer save fails after earlier chunks were committed. The failed chunk is rolled
+ * back and the chunks after it are not attempted.
+ */
+public class BeerBatchSaveException extends RuntimeException {
+
+    private final List<BeerDto> savedBeers;
+
+    public BeerBatchSaveException(List<BeerDto> savedBeers, Throwable cause) {
+        super("Saved " + savedBeers.size() + " beers before a chunk failed", cause);
+        this.savedBeers = List.copyOf(savedBeers);
+    }
+
+    /**
+     * Get the beers committed before the failure, which are the first ones of the batch
+     * @return The saved beers, in the order given
+     */
+    public List<BeerDto> getSavedBeers() {
+        return savedBeers;
+    }
+}
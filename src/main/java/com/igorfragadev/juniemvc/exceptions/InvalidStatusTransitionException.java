@@ -0,0 +1,13 @@
+package com.igorfragadev.juniemvc.exceptions;
+
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+
+/**
+ * Thrown when a write would move a beer order to a status its current status does not lead to.
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(BeerOrderStatus from, BeerOrderStatus to) {
+        super("Beer order status cannot change from " + from + " to " + to);
+    }
+}
@@ -0,0 +1,11 @@
+package com.igorfragadev.juniemvc.exceptions;
+
+/**
+ * Thrown when a write names a version of an entity, through If-Match, that is no longer its current version.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
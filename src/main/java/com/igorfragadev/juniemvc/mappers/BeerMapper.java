@@ -3,6 +3,7 @@ package com.igorfragadev.juniemvc.mappers;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.repositories.projections.BeerView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -13,6 +14,8 @@ public interface BeerMapper {
     @Mapping(target = "imageUrl", source = "imageUrl")
     BeerDto beerToBeerDto(Beer beer);
 
+    BeerDto beerViewToBeerDto(BeerView beerView);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "updatedDate", ignore = true)
@@ -2,6 +2,7 @@ package com.igorfragadev.juniemvc.mappers;
 
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
 import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderLineView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -9,6 +10,9 @@ import org.mapstruct.Mapping;
 public interface BeerOrderLineMapper {
     @Mapping(target = "beerId", source = "beer.id")
     BeerOrderLineDto beerOrderLineToBeerOrderLineDto(BeerOrderLine beerOrderLine);
+
+    @Mapping(target = "beer", ignore = true)
+    BeerOrderLineDto beerOrderLineViewToBeerOrderLineDto(BeerOrderLineView beerOrderLineView);
     
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "beer", ignore = true)
@@ -2,16 +2,23 @@ package com.igorfragadev.juniemvc.mappers;
 
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.NullValueCheckStrategy;
 
 @Mapper(componentModel = "spring", uses = {BeerOrderLineMapper.class, CustomerMapper.class})
 public interface BeerOrderMapper {
     BeerOrderDto beerOrderToBeerOrderDto(BeerOrder beerOrder);
 
+    @Mapping(target = "customer", ignore = true)
+    @Mapping(target = "beerOrderLines", ignore = true)
+    BeerOrderDto beerOrderViewToBeerOrderDto(BeerOrderView beerOrderView);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdDate", ignore = true)
     @Mapping(target = "updatedDate", ignore = true)
     @Mapping(target = "customer", ignore = true)
+    @Mapping(target = "beerOrderLines", nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
     BeerOrder beerOrderDtoToBeerOrder(BeerOrderDto beerOrderDto);
 }
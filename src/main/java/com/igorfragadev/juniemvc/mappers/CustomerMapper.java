@@ -2,15 +2,22 @@ package com.igorfragadev.juniemvc.mappers;
 
 import com.igorfragadev.juniemvc.entities.Customer;
 import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
+import com.igorfragadev.juniemvc.repositories.projections.CustomerView;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 @Mapper(componentModel = "spring")
 public interface CustomerMapper {
     @Mapping(target = "beerOrders", ignore = true)
     CustomerDto customerToCustomerDto(Customer customer);
 
+    @Mapping(target = "beerOrders", ignore = true)
+    CustomerDto customerViewToCustomerDto(CustomerView customerView);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
@@ -22,4 +29,18 @@ public interface CustomerMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "beerOrders", ignore = true)
     void updateCustomerFromDto(CustomerDto customerDto, @MappingTarget Customer customer);
+
+    /**
+     * Updates a Customer entity with non-null values from a CustomerPatchDto.
+     *
+     * @param customerPatchDto the DTO containing the updated values
+     * @param customer the Customer entity to update
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "beerOrders", ignore = true)
+    void updateCustomerFromCustomerPatchDto(CustomerPatchDto customerPatchDto, @MappingTarget Customer customer);
 }
@@ -0,0 +1,26 @@
+package com.igorfragadev.juniemvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validation errors of one rejected element of a beer batch.
+ * The index is the element's position in the submitted array.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BeerBatchErrorDto {
+    private int index;
+
+    @Builder.Default
+    private Map<String, String> errors = new HashMap<>();
+}
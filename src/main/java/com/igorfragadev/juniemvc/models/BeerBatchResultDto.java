@@ -0,0 +1,27 @@
+package com.igorfragadev.juniemvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch beer creation.
+ * Created beers keep the relative order of the submitted array; rejected elements are listed by index.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BeerBatchResultDto {
+    @Builder.Default
+    private List<BeerDto> created = new ArrayList<>();
+
+    @Builder.Default
+    private List<BeerBatchErrorDto> errors = new ArrayList<>();
+}
@@ -1,5 +1,6 @@
 package com.igorfragadev.juniemvc.models;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -11,7 +12,6 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Getter
@@ -34,13 +34,14 @@ public class BeerOrderDto {
     @Positive(message = "Payment amount must be positive")
     private BigDecimal paymentAmount;
 
-    private String status;
+    private BeerOrderStatus status;
 
     //read only
     private LocalDateTime createdDate;
     //read only
     private LocalDateTime updatedDate;
 
-    @Builder.Default
-    private List<BeerOrderLineDto> beerOrderLines = new ArrayList<>();
+    // Null when the request leaves the lines out, so that an update keeps the order's lines as they are
+    @Valid
+    private List<BeerOrderLineDto> beerOrderLines;
 }
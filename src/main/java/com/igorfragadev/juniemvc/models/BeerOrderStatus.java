@@ -0,0 +1,53 @@
+package com.igorfragadev.juniemvc.models;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of a beer order. New orders start as {@link #NEW}; {@link #DELIVERED} and {@link #CANCELLED}
+ * are final.
+ */
+public enum BeerOrderStatus {
+    /**
+     * Placed and waiting to be picked
+     */
+    NEW,
+    /**
+     * Picked in the warehouse and waiting to be shipped
+     */
+    PICKED,
+    /**
+     * Handed to a carrier
+     */
+    SHIPPED,
+    /**
+     * Received by the customer
+     */
+    DELIVERED,
+    /**
+     * Cancelled before it was shipped
+     */
+    CANCELLED;
+
+    /**
+     * Get the statuses an order in this status may move to
+     * @return The allowed next statuses, empty for a final status
+     */
+    public Set<BeerOrderStatus> nextStatuses() {
+        return switch (this) {
+            case NEW -> EnumSet.of(PICKED, CANCELLED);
+            case PICKED -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(BeerOrderStatus.class);
+        };
+    }
+
+    /**
+     * Check whether an order in this status may move to the given status
+     * @param status The status to move to
+     * @return true if the transition is allowed
+     */
+    public boolean canTransitionTo(BeerOrderStatus status) {
+        return nextStatuses().contains(status);
+    }
+}
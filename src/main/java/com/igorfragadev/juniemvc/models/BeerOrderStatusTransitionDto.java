@@ -0,0 +1,35 @@
+package com.igorfragadev.juniemvc.models;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request to move a set of beer orders from one status to another.
+ * Only the orders that are still in the {@code from} status are moved.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BeerOrderStatusTransitionDto {
+    @NotNull(message = "From status is required")
+    private BeerOrderStatus from;
+
+    @NotNull(message = "To status is required")
+    private BeerOrderStatus to;
+
+    @NotEmpty(message = "Beer order IDs are required")
+    @Size(max = 10000, message = "At most 10000 beer orders can be moved at once")
+    @Builder.Default
+    private List<@NotNull Integer> beerOrderIds = new ArrayList<>();
+}
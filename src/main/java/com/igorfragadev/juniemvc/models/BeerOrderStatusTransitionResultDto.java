@@ -0,0 +1,31 @@
+package com.igorfragadev.juniemvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk status transition. Both lists keep the order of the submitted IDs, without duplicates;
+ * skipped orders do not exist or were not in the {@code from} status.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BeerOrderStatusTransitionResultDto {
+    private BeerOrderStatus from;
+
+    private BeerOrderStatus to;
+
+    @Builder.Default
+    private List<Integer> transitioned = new ArrayList<>();
+
+    @Builder.Default
+    private List<Integer> skipped = new ArrayList<>();
+}
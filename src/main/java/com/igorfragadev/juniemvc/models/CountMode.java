@@ -0,0 +1,19 @@
+package com.igorfragadev.juniemvc.models;
+
+/**
+ * How the total number of matching items is reported alongside a {@link SliceDto}.
+ */
+public enum CountMode {
+    /**
+     * No total, only whether another page follows
+     */
+    NONE,
+    /**
+     * A total that is reused for a short time and may lag behind recent writes
+     */
+    CACHED,
+    /**
+     * A total counted for this request
+     */
+    EXACT
+}
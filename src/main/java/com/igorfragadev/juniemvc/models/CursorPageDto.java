@@ -0,0 +1,30 @@
+package com.igorfragadev.juniemvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * The nextCursor token is opaque to clients and is only present when hasNext is true.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    @Builder.Default
+    private List<T> content = new ArrayList<>();
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+}
@@ -0,0 +1,42 @@
+package com.igorfragadev.juniemvc.models;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO for PATCH operations on Customer entity.
+ * Contains the writable properties of the Customer entity; null properties are left unchanged.
+ * Properties that {@link CustomerDto} requires may be left out, but not set blank.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerPatchDto {
+    static final String NOT_BLANK = "(?s).*\\S.*";
+
+    @Pattern(regexp = NOT_BLANK, message = "Name must not be blank")
+    private String name;
+
+    private String email;
+    private String phone;
+
+    @Pattern(regexp = NOT_BLANK, message = "Address line 1 must not be blank")
+    private String addressLine1;
+
+    private String addressLine2;
+
+    @Pattern(regexp = NOT_BLANK, message = "City must not be blank")
+    private String city;
+
+    @Pattern(regexp = NOT_BLANK, message = "State must not be blank")
+    private String state;
+
+    @Pattern(regexp = NOT_BLANK, message = "Postal code must not be blank")
+    private String postalCode;
+}
@@ -0,0 +1,32 @@
+package com.igorfragadev.juniemvc.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of an offset-paginated listing that reports whether another page follows instead of always counting.
+ * The totalElements field is only present when a count was requested.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SliceDto<T> {
+    @Builder.Default
+    private List<T> content = new ArrayList<>();
+
+    private int page;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private Long totalElements;
+}
@@ -1,9 +1,44 @@
 package com.igorfragadev.juniemvc.repositories;
 
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.repositories.projections.BeerAllocationView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderLineView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface BeerOrderLineRepository extends JpaRepository<BeerOrderLine, Integer> {
     // Spring Data JPA will automatically implement CRUD operations
-    // Add custom query methods as needed
-}
\ No newline at end of file
+
+    /**
+     * Find views of the order lines of the given beer orders, ordered by ID
+     * @param beerOrderIds The beer order IDs
+     * @return List of order line views, which are not managed by the persistence context
+     */
+    @Query("select new com.igorfragadev.juniemvc.repositories.projections.BeerOrderLineView(l.id, l.version, "
+            + "l.beerOrder.id, l.beer.id, l.orderQuantity, l.quantityAllocated, l.status, l.createdDate, l.updatedDate) "
+            + "from BeerOrderLine l where l.beerOrder.id in :beerOrderIds order by l.id")
+    List<BeerOrderLineView> findViewsByBeerOrderIdIn(Collection<Integer> beerOrderIds);
+
+    /**
+     * Find the stock the lines of a beer order hold, summed per beer and ordered by beer ID
+     * @param beerOrderId The beer order ID
+     * @return One view per beer the order holds stock of; beers with nothing allocated are left out
+     */
+    @Query("select new com.igorfragadev.juniemvc.repositories.projections.BeerAllocationView(l.beer.id, "
+            + "sum(l.quantityAllocated)) from BeerOrderLine l where l.beerOrder.id = :beerOrderId "
+            + "and l.quantityAllocated > 0 group by l.beer.id order by l.beer.id")
+    List<BeerAllocationView> findAllocationsByBeerOrderId(Integer beerOrderId);
+
+    /**
+     * Delete the order lines of a beer order with one statement, without loading them
+     * @param beerOrderId The beer order ID
+     * @return The number of order lines deleted
+     */
+    @Modifying
+    @Query("delete from BeerOrderLine l where l.beerOrder.id = :beerOrderId")
+    int bulkDeleteByBeerOrderId(Integer beerOrderId);
+}
@@ -1,9 +1,112 @@
 package com.igorfragadev.juniemvc.repositories;
 
 import com.igorfragadev.juniemvc.entities.BeerOrder;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface BeerOrderRepository extends JpaRepository<BeerOrder, Integer> {
     // Spring Data JPA will automatically implement CRUD operations
-    // Add custom query methods as needed
-}
\ No newline at end of file
+
+    String BEER_ORDER_VIEW_SELECT = "select new com.igorfragadev.juniemvc.repositories.projections.BeerOrderView("
+            + "bo.id, bo.version, bo.customer.id, bo.customerRef, bo.paymentAmount, bo.status, bo.createdDate, "
+            + "bo.updatedDate) from BeerOrder bo";
+
+    /**
+     * Find a beer order by ID, fetching customer, order lines and each line's beer in a single query
+     * @param id The beer order ID
+     * @return Optional containing the beer order with its associations initialized
+     */
+    @EntityGraph(attributePaths = {"customer", "beerOrderLines", "beerOrderLines.beer"})
+    Optional<BeerOrder> findWithBeerOrderLinesById(Integer id);
+
+    /**
+     * Read the current version of a beer order without loading it
+     * @param id The beer order ID
+     * @return Optional containing the version if the beer order exists
+     */
+    @Query("select bo.version from BeerOrder bo where bo.id = :id")
+    Optional<Integer> findVersionById(Integer id);
+
+    /**
+     * Delete a beer order with one statement, without loading it, if it still has the given version.
+     * Its order lines and shipments must be deleted first.
+     * @param id The beer order ID
+     * @param version The version the beer order must have
+     * @return 1 if the beer order was deleted, 0 if it does not exist or has another version
+     */
+    @Modifying
+    @Query("delete from BeerOrder bo where bo.id = :id and bo.version = :version")
+    int bulkDeleteByIdAndVersion(Integer id, Integer version);
+
+    /**
+     * Find which of the given beer orders are in a status, locking their rows until the transaction ends
+     * so they stay in that status until they are updated
+     * @param ids The beer order IDs
+     * @param status The status the beer orders must be in
+     * @return List of the IDs of the matching beer orders, in no particular order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select bo.id from BeerOrder bo where bo.id in :ids and bo.status = :status")
+    List<Integer> lockIdsByIdInAndStatus(Collection<Integer> ids, BeerOrderStatus status);
+
+    /**
+     * Move the given beer orders that are in one status to another with one statement, without loading them.
+     * Bumps the version like an entity update would, so writes based on an earlier read of these orders fail.
+     * @param ids The beer order IDs
+     * @param from The status the beer orders must be in
+     * @param to The new status
+     * @return The number of beer orders updated
+     */
+    @Modifying
+    @Query("update versioned BeerOrder bo set bo.status = :to, bo.updatedDate = local datetime "
+            + "where bo.id in :ids and bo.status = :from")
+    int bulkUpdateStatus(Collection<Integer> ids, BeerOrderStatus from, BeerOrderStatus to);
+
+    /**
+     * Find views of all beer orders; customers and order lines are loaded through their own views
+     * @return List of beer order views, which are not managed by the persistence context
+     */
+    @Query(BEER_ORDER_VIEW_SELECT)
+    List<BeerOrderView> findAllViews();
+
+    /**
+     * Find views of the beer orders with the given IDs; customers and order lines are loaded through their own views
+     * @param ids The beer order IDs
+     * @return List of the matching beer order views, in no particular order
+     */
+    @Query(BEER_ORDER_VIEW_SELECT + " where bo.id in :ids")
+    List<BeerOrderView> findViewsByIdIn(Collection<Integer> ids);
+
+    /**
+     * Find the IDs of the newest beer orders, ordered by created date and ID descending
+     * @param limit The maximum number of IDs to return
+     * @return List of beer order IDs
+     */
+    @Query("select bo.id from BeerOrder bo order by bo.createdDate desc, bo.id desc")
+    List<Integer> findKeysetIds(Limit limit);
+
+    /**
+     * Find the IDs of the beer orders that come after the given keyset position,
+     * ordered by created date and ID descending
+     * @param createdDate The created date of the last beer order already returned
+     * @param id The ID of the last beer order already returned
+     * @param limit The maximum number of IDs to return
+     * @return List of beer order IDs
+     */
+    @Query("select bo.id from BeerOrder bo "
+            + "where bo.createdDate < :createdDate or (bo.createdDate = :createdDate and bo.id < :id) "
+            + "order by bo.createdDate desc, bo.id desc")
+    List<Integer> findKeysetIdsAfter(LocalDateTime createdDate, Integer id, Limit limit);
+}
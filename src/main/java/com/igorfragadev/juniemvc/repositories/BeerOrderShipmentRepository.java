@@ -2,10 +2,21 @@ package com.igorfragadev.juniemvc.repositories;
 
 import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface BeerOrderShipmentRepository extends JpaRepository<BeerOrderShipment, Integer> {
     // Find shipments by beer order ID
     List<BeerOrderShipment> findByBeerOrderId(Integer beerOrderId);
+
+    /**
+     * Delete the shipments of a beer order with one statement, without loading them
+     * @param beerOrderId The beer order ID
+     * @return The number of shipments deleted
+     */
+    @Modifying
+    @Query("delete from BeerOrderShipment s where s.beerOrder.id = :beerOrderId")
+    int bulkDeleteByBeerOrderId(Integer beerOrderId);
 }
\ No newline at end of file
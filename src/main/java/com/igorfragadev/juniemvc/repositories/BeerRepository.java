@@ -1,11 +1,25 @@
 package com.igorfragadev.juniemvc.repositories;
 
 import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerStockView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface BeerRepository extends JpaRepository<Beer, Integer> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BeerRepository extends JpaRepository<Beer, Integer>, BeerRepositoryCustom {
     // Spring Data JPA will automatically implement CRUD operations
     // No additional methods needed for basic CRUD
 
@@ -41,4 +55,187 @@ public interface BeerRepository extends JpaRepository<Beer, Integer> {
      * @return A page of beers
      */
     Page<Beer> findAll(Pageable pageable);
+
+    /**
+     * Find views of all beers
+     * @return List of beer views, which are not managed by the persistence context
+     */
+    List<BeerView> findViewsBy();
+
+    /**
+     * Find views of the beers with the given IDs
+     * @param ids The beer IDs
+     * @return List of the matching beer views, in no particular order
+     */
+    List<BeerView> findViewsByIdIn(Collection<Integer> ids);
+
+    // Catalog searches below are kept in the query cache; any write to the beer table invalidates all of them
+
+    /**
+     * Find a page of beer views filtered by beer name
+     * @param beerName The beer name to filter by
+     * @param pageable The pagination information
+     * @return A page of beer views
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<BeerView> findViewsByBeerNameContainingIgnoreCase(String beerName, Pageable pageable);
+
+    /**
+     * Find a page of beer views filtered by beer style
+     * @param beerStyle The beer style to filter by
+     * @param pageable The pagination information
+     * @return A page of beer views
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<BeerView> findViewsByBeerStyleContainingIgnoreCase(String beerStyle, Pageable pageable);
+
+    /**
+     * Find a page of beer views filtered by beer name and beer style
+     * @param beerName The beer name to filter by
+     * @param beerStyle The beer style to filter by
+     * @param pageable The pagination information
+     * @return A page of beer views
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<BeerView> findViewsByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+            String beerName, String beerStyle, Pageable pageable);
+
+    /**
+     * Find a page of all beer views
+     * @param pageable The pagination information
+     * @return A page of beer views
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<BeerView> findViewsBy(Pageable pageable);
+
+    /**
+     * Find a slice of beer views filtered by beer name, without counting the matches
+     * @param beerName The beer name to filter by
+     * @param pageable The pagination information
+     * @return A slice of beer views that knows whether another slice follows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<BeerView> findSliceByBeerNameContainingIgnoreCase(String beerName, Pageable pageable);
+
+    /**
+     * Find a slice of beer views filtered by beer style, without counting the matches
+     * @param beerStyle The beer style to filter by
+     * @param pageable The pagination information
+     * @return A slice of beer views that knows whether another slice follows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<BeerView> findSliceByBeerStyleContainingIgnoreCase(String beerStyle, Pageable pageable);
+
+    /**
+     * Find a slice of beer views filtered by beer name and beer style, without counting the matches
+     * @param beerName The beer name to filter by
+     * @param beerStyle The beer style to filter by
+     * @param pageable The pagination information
+     * @return A slice of beer views that knows whether another slice follows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<BeerView> findSliceByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+            String beerName, String beerStyle, Pageable pageable);
+
+    /**
+     * Find a slice of all beer views, without counting them
+     * @param pageable The pagination information
+     * @return A slice of beer views that knows whether another slice follows
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<BeerView> findSliceBy(Pageable pageable);
+
+    /**
+     * Count the beers whose name contains the given text, ignoring case
+     * @param beerName The beer name to filter by
+     * @return The number of matching beers
+     */
+    long countByBeerNameContainingIgnoreCase(String beerName);
+
+    /**
+     * Count the beers whose style contains the given text, ignoring case
+     * @param beerStyle The beer style to filter by
+     * @return The number of matching beers
+     */
+    long countByBeerStyleContainingIgnoreCase(String beerStyle);
+
+    /**
+     * Count the beers whose name and style contain the given texts, ignoring case
+     * @param beerName The beer name to filter by
+     * @param beerStyle The beer style to filter by
+     * @return The number of matching beers
+     */
+    long countByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(String beerName, String beerStyle);
+
+    /**
+     * Stream the searchable fields of all beers ordered by ID through a forward-only cursor, fetching rows in chunks.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return A stream of beer search views, which are not managed by the persistence context
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.igorfragadev.juniemvc.repositories.projections.BeerSearchView(b.id, b.beerName, "
+            + "b.beerStyle) from Beer b order by b.id")
+    Stream<BeerSearchView> streamSearchViewsBy();
+
+    /**
+     * Stream views of all beers ordered by ID through a forward-only cursor, fetching rows in chunks.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return A stream of beer views, which are not managed by the persistence context
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.igorfragadev.juniemvc.repositories.projections.BeerView(b.id, b.version, b.beerName, "
+            + "b.beerStyle, b.upc, b.quantityOnHand, b.price, b.imageUrl, b.createdDate, b.updatedDate) "
+            + "from Beer b order by b.id")
+    Stream<BeerView> streamViewsBy();
+
+    /**
+     * Atomically take stock of a beer, only if enough is on hand.
+     * Leaves the version alone: the quantity guard keeps concurrent orders from overselling, and orders must not
+     * make clients' copies of the catalog entry stale. Managed copies of the beer are not updated.
+     * @param beerId The beer ID
+     * @param quantity The quantity to take, must be positive
+     * @return 1 if the stock was taken, 0 if the beer does not exist or has less than the quantity on hand
+     */
+    @Modifying
+    @Query("update Beer b set b.quantityOnHand = b.quantityOnHand - :quantity, b.updatedDate = local datetime "
+            + "where b.id = :beerId and b.quantityOnHand >= :quantity")
+    int decrementQuantityOnHand(Integer beerId, int quantity);
+
+    /**
+     * Atomically return stock to a beer.
+     * Leaves the version alone, like {@link #decrementQuantityOnHand(Integer, int)}. Managed copies of the beer
+     * are not updated.
+     * @param beerId The beer ID
+     * @param quantity The quantity to return, must be positive
+     * @return 1 if the stock was returned, 0 if the beer does not exist
+     */
+    @Modifying
+    @Query("update Beer b set b.quantityOnHand = b.quantityOnHand + :quantity, b.updatedDate = local datetime "
+            + "where b.id = :beerId")
+    int incrementQuantityOnHand(Integer beerId, int quantity);
+
+    /**
+     * Read the current quantity on hand of a beer straight from the database
+     * @param beerId The beer ID
+     * @return Optional containing the quantity on hand if the beer exists
+     */
+    @Query("select b.quantityOnHand from Beer b where b.id = :beerId")
+    Optional<Integer> findQuantityOnHandById(Integer beerId);
+
+    /**
+     * Read the current quantity on hand of beers straight from the database
+     * @param beerIds The beer IDs
+     * @return One view per beer that exists, in no particular order
+     */
+    @Query("select new com.igorfragadev.juniemvc.repositories.projections.BeerStockView(b.id, b.quantityOnHand) "
+            + "from Beer b where b.id in :beerIds")
+    List<BeerStockView> findStockByIdIn(Collection<Integer> beerIds);
+
+    /**
+     * Read the current version of a beer without loading it
+     * @param beerId The beer ID
+     * @return Optional containing the version if the beer exists
+     */
+    @Query("select b.version from Beer b where b.id = :beerId")
+    Optional<Integer> findVersionById(Integer beerId);
 }
@@ -0,0 +1,28 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface BeerRepositoryCustom {
+
+    /**
+     * Find beers by IDs, taking each one from the persistence context or the second-level cache when it is there
+     * and loading the rest with a single query
+     * @param ids The beer IDs
+     * @return List of the beers found, in the order of the IDs; IDs that don't exist are skipped
+     */
+    List<Beer> findAllCachedById(Collection<Integer> ids);
+
+    /**
+     * Update attributes of a beer if it still has the expected version, with a single UPDATE of those columns
+     * that doesn't load the beer. The version is incremented and the update timestamp set.
+     * @param id The beer ID
+     * @param expectedVersion The version the beer must still have
+     * @param changes The new attribute values by attribute name
+     * @return The number of beers updated, 0 if the beer doesn't exist or has another version
+     */
+    int updateAtVersion(Integer id, Integer expectedVersion, Map<String, ?> changes);
+}
@@ -0,0 +1,39 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class BeerRepositoryCustomImpl implements BeerRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    BeerRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Beer> findAllCachedById(Collection<Integer> ids) {
+        // Unlike findAllById, which always runs an IN query, a multi-load checks the caches first; it only
+        // checks the second-level cache when given a cache mode, which it doesn't take from the session
+        Session session = entityManager.unwrap(Session.class);
+        return session.byMultipleIds(Beer.class)
+                .with(session.getCacheMode())
+                .multiLoad(List.copyOf(ids)).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int updateAtVersion(Integer id, Integer expectedVersion, Map<String, ?> changes) {
+        return VersionedUpdates.updateAtVersion(entityManager, Beer.class, "updatedDate", id, expectedVersion, changes);
+    }
+}
@@ -1,9 +1,27 @@
 package com.igorfragadev.juniemvc.repositories;
 
 import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.repositories.projections.CustomerView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerRepository extends JpaRepository<Customer, Integer>, CustomerRepositoryCustom {
     // Spring Data JPA will automatically implement CRUD operations
-    // No additional methods needed for basic CRUD
-}
\ No newline at end of file
+
+    /**
+     * Find views of all customers
+     * @return List of customer views, which are not managed by the persistence context
+     */
+    List<CustomerView> findViewsBy();
+
+    /**
+     * Read the current version of a customer without loading it
+     * @param customerId The customer ID
+     * @return Optional containing the version if the customer exists
+     */
+    @Query("select c.version from Customer c where c.id = :customerId")
+    Optional<Integer> findVersionById(Integer customerId);
+}
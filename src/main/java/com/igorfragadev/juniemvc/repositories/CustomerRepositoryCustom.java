@@ -0,0 +1,28 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import com.igorfragadev.juniemvc.entities.Customer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Find customers by IDs, taking each one from the persistence context or the second-level cache when it is there
+     * and loading the rest with a single query
+     * @param ids The customer IDs
+     * @return List of the customers found, in the order of the IDs; IDs that don't exist are skipped
+     */
+    List<Customer> findAllCachedById(Collection<Integer> ids);
+
+    /**
+     * Update attributes of a customer if it still has the expected version, with a single UPDATE of those columns
+     * that doesn't load the customer. The version is incremented and the update timestamp set.
+     * @param id The customer ID
+     * @param expectedVersion The version the customer must still have
+     * @param changes The new attribute values by attribute name
+     * @return The number of customers updated, 0 if the customer doesn't exist or has another version
+     */
+    int updateAtVersion(Integer id, Integer expectedVersion, Map<String, ?> changes);
+}
@@ -0,0 +1,39 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import com.igorfragadev.juniemvc.entities.Customer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    CustomerRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Customer> findAllCachedById(Collection<Integer> ids) {
+        // Unlike findAllById, which always runs an IN query, a multi-load checks the caches first; it only
+        // checks the second-level cache when given a cache mode, which it doesn't take from the session
+        Session session = entityManager.unwrap(Session.class);
+        return session.byMultipleIds(Customer.class)
+                .with(session.getCacheMode())
+                .multiLoad(List.copyOf(ids)).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int updateAtVersion(Integer id, Integer expectedVersion, Map<String, ?> changes) {
+        return VersionedUpdates.updateAtVersion(entityManager, Customer.class, "updatedAt", id, expectedVersion, changes);
+    }
+}
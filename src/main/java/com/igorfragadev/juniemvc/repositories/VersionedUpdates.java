@@ -0,0 +1,44 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Partial updates of versioned entities that don't load the entity first. Each one is a single UPDATE of the
+ * given columns, conditional on the version, that increments the version and sets the update timestamp as an
+ * update through the entity would.
+ */
+final class VersionedUpdates {
+
+    private VersionedUpdates() {
+    }
+
+    /**
+     * Update attributes of an entity if it still has the expected version
+     * @param entityManager The entity manager to run the update with
+     * @param entityClass The entity class, which has an {@code id} and a {@code version} attribute
+     * @param updatedAttribute The name of the entity's update timestamp attribute
+     * @param id The entity ID
+     * @param expectedVersion The version the entity must still have
+     * @param changes The new attribute values by attribute name
+     * @return The number of entities updated, 0 if the entity doesn't exist or has another version
+     */
+    static <T> int updateAtVersion(EntityManager entityManager, Class<T> entityClass, String updatedAttribute,
+                                   Integer id, Integer expectedVersion, Map<String, ?> changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityClass);
+        Root<T> root = update.from(entityClass);
+        changes.forEach(update::set);
+        Path<Integer> version = root.get("version");
+        update.set(version, cb.sum(version, 1));
+        update.set(root.<LocalDateTime>get(updatedAttribute), cb.localDateTime());
+        update.where(cb.equal(root.get("id"), id), cb.equal(version, expectedVersion));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
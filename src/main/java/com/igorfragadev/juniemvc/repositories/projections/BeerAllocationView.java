@@ -0,0 +1,9 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+/**
+ * Read-only view of the stock one beer order holds of one beer, summed over the order's lines for that beer.
+ */
+public record BeerAllocationView(
+        Integer beerId,
+        Long quantityAllocated) {
+}
@@ -0,0 +1,18 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a beer order line row for list queries; the order and beer are referenced by ID.
+ */
+public record BeerOrderLineView(
+        Integer id,
+        Integer version,
+        Integer beerOrderId,
+        Integer beerId,
+        Integer orderQuantity,
+        Integer quantityAllocated,
+        String status,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate) {
+}
@@ -0,0 +1,21 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a beer order row for list queries; the customer and order lines are referenced by ID
+ * and loaded through their own views.
+ */
+public record BeerOrderView(
+        Integer id,
+        Integer version,
+        Integer customerId,
+        String customerRef,
+        BigDecimal paymentAmount,
+        BeerOrderStatus status,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate) {
+}
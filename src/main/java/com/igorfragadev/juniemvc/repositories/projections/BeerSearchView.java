@@ -0,0 +1,10 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+/**
+ * Read-only view of the searchable fields of a beer, used to build the search index.
+ */
+public record BeerSearchView(
+        Integer id,
+        String beerName,
+        String beerStyle) {
+}
@@ -0,0 +1,9 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+/**
+ * Read-only view of the stock of a beer.
+ */
+public record BeerStockView(
+        Integer beerId,
+        Integer quantityOnHand) {
+}
@@ -0,0 +1,21 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a beer row for list and search queries.
+ * Selected through a constructor expression, so it is never managed or dirty-checked.
+ */
+public record BeerView(
+        Integer id,
+        Integer version,
+        String beerName,
+        String beerStyle,
+        String upc,
+        Integer quantityOnHand,
+        BigDecimal price,
+        String imageUrl,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate) {
+}
@@ -0,0 +1,22 @@
+package com.igorfragadev.juniemvc.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a customer row for list queries.
+ * Selected through a constructor expression, so it is never managed or dirty-checked.
+ */
+public record CustomerView(
+        Integer id,
+        Integer version,
+        String name,
+        String email,
+        String phone,
+        String addressLine1,
+        String addressLine2,
+        String city,
+        String state,
+        String postalCode,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,34 @@
+package com.igorfragadev.juniemvc.retry;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Serves the rows with the most optimistic-locking conflicts at {@code /actuator/contention}.
+ */
+@Component
+@Endpoint(id = "contention")
+public class ContentionEndpoint {
+
+    static final int DEFAULT_LIMIT = 20;
+
+    private final ContentionTracker contentionTracker;
+
+    public ContentionEndpoint(ContentionTracker contentionTracker) {
+        this.contentionTracker = contentionTracker;
+    }
+
+    /**
+     * Get the rows with the most conflicts
+     * @param limit The maximum number of rows to return, 20 if not given
+     * @return The rows, the one with the most conflicts first
+     */
+    @ReadOperation
+    public List<ContentionTracker.HotRow> hottestRows(@Nullable Integer limit) {
+        return contentionTracker.hottestRows(limit == null ? DEFAULT_LIMIT : limit);
+    }
+}
@@ -0,0 +1,89 @@
+package com.igorfragadev.juniemvc.retry;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.igorfragadev.juniemvc.config.OptimisticLockRetryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts optimistic-locking conflicts. Each entity type gets a {@code juniemvc.optimistic.lock.conflicts}
+ * counter, tagged with whether the call was retried or gave up; single rows would be too many series, so they
+ * are counted here instead and served by {@link ContentionEndpoint}. The count of a row that stops conflicting
+ * is dropped after a while, and when more rows are tracked than configured the coldest are dropped first.
+ */
+@Component
+public class ContentionTracker {
+
+    /**
+     * Name of the counter of conflicts by entity type
+     */
+    public static final String CONFLICTS = "juniemvc.optimistic.lock.conflicts";
+
+    private static final String UNKNOWN_ENTITY = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<Row, LongAdder> rows;
+
+    public ContentionTracker(MeterRegistry meterRegistry, OptimisticLockRetryProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.rows = Caffeine.newBuilder()
+                .maximumSize(properties.trackedRows())
+                .expireAfterAccess(properties.trackedRowTimeToLive())
+                .build();
+    }
+
+    /**
+     * Count a conflict
+     * @param conflict The failure of the call that lost the race
+     * @param retried Whether the call is made again, or the conflict is returned to the caller
+     */
+    public void conflict(OptimisticLockingFailureException conflict, boolean retried) {
+        String entity = UNKNOWN_ENTITY;
+        Object id = null;
+        if (conflict instanceof ObjectOptimisticLockingFailureException objectConflict
+                && objectConflict.getPersistentClassName() != null) {
+            String className = objectConflict.getPersistentClassName();
+            entity = className.substring(className.lastIndexOf('.') + 1);
+            id = objectConflict.getIdentifier();
+        }
+        meterRegistry.counter(CONFLICTS, "entity", entity, "outcome", retried ? "retried" : "gave_up").increment();
+        // A conflict over a set of rows doesn't say which of them was hot
+        if (id != null && !(id instanceof Collection<?>)) {
+            rows.get(new Row(entity, id.toString()), row -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Get the rows with the most conflicts
+     * @param limit The maximum number of rows to return
+     * @return The rows, the one with the most conflicts first
+     */
+    public List<HotRow> hottestRows(int limit) {
+        return rows.asMap().entrySet().stream()
+                .map(entry -> new HotRow(entry.getKey().entity(), entry.getKey().id(), entry.getValue().sum()))
+                .sorted(Comparator.comparingLong(HotRow::conflicts).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * A row with conflicts
+     *
+     * @param entity the simple name of the entity class
+     * @param id the entity ID
+     * @param conflicts the number of conflicts counted on the row
+     */
+    public record HotRow(String entity, String id, long conflicts) {
+    }
+
+    private record Row(String entity, String id) {
+    }
+}
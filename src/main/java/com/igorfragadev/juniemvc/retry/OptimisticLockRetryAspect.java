@@ -0,0 +1,73 @@
+package com.igorfragadev.juniemvc.retry;
+
+import com.igorfragadev.juniemvc.config.OptimisticLockRetryProperties;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Calls a {@link RetryOnConflict} method again when it fails with an {@link OptimisticLockingFailureException},
+ * up to the configured number of attempts. Before each retry it waits a random time up to a bound that grows
+ * exponentially ("full jitter"), so that the callers that collided don't collide again in lockstep.
+ * <p>
+ * The aspect is ordered before the transaction interceptor, so each attempt runs in a transaction of its own.
+ * A method called within a transaction that is already active is not retried: that transaction is marked for
+ * rollback by the conflict, and only its outermost caller can start again.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticLockRetryAspect {
+
+    private final OptimisticLockRetryProperties properties;
+    private final ContentionTracker contentionTracker;
+
+    public OptimisticLockRetryAspect(OptimisticLockRetryProperties properties, ContentionTracker contentionTracker) {
+        this.properties = properties;
+        this.contentionTracker = contentionTracker;
+    }
+
+    @Around("@annotation(com.igorfragadev.juniemvc.retry.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                boolean retry = attempt < properties.maxAttempts();
+                contentionTracker.conflict(e, retry);
+                if (!retry) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a random wait before a retry
+     * @param attempt The number of the attempt that failed, from 1
+     * @return A wait between zero and the initial backoff times the multiplier to the power of attempt - 1,
+     * capped at the maximum backoff
+     */
+    Duration backoff(int attempt) {
+        double bound = properties.initialBackoff().toNanos() * Math.pow(properties.multiplier(), attempt - 1);
+        long boundNanos = (long) Math.min(bound, properties.maxBackoff().toNanos());
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(boundNanos + 1));
+    }
+}
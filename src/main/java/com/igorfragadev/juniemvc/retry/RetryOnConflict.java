@@ -0,0 +1,21 @@
+package com.igorfragadev.juniemvc.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that {@link OptimisticLockRetryAspect} calls again, in a new transaction,
+ * when it fails because another transaction changed the same rows first.
+ * <p>
+ * Only for idempotent operations: ones that set state rather than add to it, such as updates, patches and
+ * deletes, so that running them again against the rows as they now are still does what the caller asked.
+ * Creates are left out.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+}
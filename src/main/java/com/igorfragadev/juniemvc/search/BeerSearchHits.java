@@ -0,0 +1,12 @@
+package com.igorfragadev.juniemvc.search;
+
+import java.util.List;
+
+/**
+ * One page of beer search results.
+ *
+ * @param beerIds the IDs of the matching beers on the requested page, in the index's result order
+ * @param totalHits the number of matching beers across all pages
+ */
+public record BeerSearchHits(List<Integer> beerIds, long totalHits) {
+}
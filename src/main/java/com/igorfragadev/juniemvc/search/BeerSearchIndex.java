@@ -0,0 +1,50 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.springframework.data.domain.Pageable;
+
+import java.util.stream.Stream;
+
+/**
+ * In-memory text index over beer names and styles, kept in sync with the database by {@link BeerSearchIndexer}.
+ * The index only holds IDs and searchable text; callers load the beers themselves.
+ * Implementations are selected with the {@code juniemvc.beer-search.engine} property.
+ */
+public interface BeerSearchIndex {
+
+    /**
+     * Whether the index has been built and can answer searches
+     * @return true once the first rebuild has completed
+     */
+    boolean isReady();
+
+    /**
+     * Replace the contents of the index with the given beers and mark it ready
+     * @param beers All beers in the catalog
+     */
+    void rebuild(Stream<BeerSearchView> beers);
+
+    /**
+     * Add a beer to the index, or replace it if it is already indexed
+     * @param beerId The beer ID
+     * @param beerName The beer name
+     * @param beerStyle The beer style
+     */
+    void index(Integer beerId, String beerName, String beerStyle);
+
+    /**
+     * Remove a beer from the index
+     * @param beerId The beer ID
+     */
+    void remove(Integer beerId);
+
+    /**
+     * Find beers whose name and style match the given text, following the implementation's matching rules
+     * @param beerName Text to match against the beer name (can be null)
+     * @param beerStyle Text to match against the beer style (can be null)
+     * @param pageable The page to return; results are in the implementation's order and any sort on the pageable
+     *                 is ignored
+     * @return The IDs of the beers on the requested page and the total number of matches
+     */
+    BeerSearchHits search(String beerName, String beerStyle, Pageable pageable);
+}
@@ -0,0 +1,57 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.events.BeerDeletedEvent;
+import com.igorfragadev.juniemvc.events.BeerSavedEvent;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Keeps the configured {@link BeerSearchIndex}, if any, in sync with the beer table.
+ * The index is built from the database once the application is ready, and then follows every committed
+ * save and delete. Until the first build completes, searches fall back to the database.
+ */
+@Component
+public class BeerSearchIndexer {
+
+    private final ObjectProvider<BeerSearchIndex> beerSearchIndex;
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BeerSearchIndexer(ObjectProvider<BeerSearchIndex> beerSearchIndex, BeerRepository beerRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.beerSearchIndex = beerSearchIndex;
+        this.beerRepository = beerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        beerSearchIndex.ifAvailable(index -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<BeerSearchView> beers = beerRepository.streamSearchViewsBy()) {
+                index.rebuild(beers);
+            }
+        }));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onBeerSaved(BeerSavedEvent event) {
+        BeerDto beer = event.beer();
+        beerSearchIndex.ifAvailable(index -> index.index(beer.getId(), beer.getBeerName(), beer.getBeerStyle()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onBeerDeleted(BeerDeletedEvent event) {
+        beerSearchIndex.ifAvailable(index -> index.remove(event.beerId()));
+    }
+}
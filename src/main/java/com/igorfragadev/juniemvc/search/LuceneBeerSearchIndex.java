@@ -0,0 +1,255 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * {@link BeerSearchIndex} backed by an in-memory Lucene index. Names and styles are split into lower-cased words;
+ * each searched word must match an indexed word exactly or as a prefix, and exact matches score higher.
+ * Searches run against a near-real-time reader that is refreshed after every write, so a committed change is
+ * searchable as soon as its event has been handled.
+ */
+@Component
+@ConditionalOnProperty(name = "juniemvc.beer-search.engine", havingValue = "lucene", matchIfMissing = true)
+public class LuceneBeerSearchIndex implements BeerSearchIndex, AutoCloseable {
+
+    private static final String ID = "id";
+    private static final String BEER_NAME = "beerName";
+    private static final String BEER_STYLE = "beerStyle";
+
+    /**
+     * Score multiplier of an exact word match over a prefix match
+     */
+    private static final float EXACT_MATCH_BOOST = 2.0f;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Changes made while a rebuild streams the catalog, replayed once it has; null when no rebuild is running.
+     * Guarded by the lock.
+     */
+    private List<Runnable> changesDuringRebuild;
+    private volatile boolean ready;
+
+    public LuceneBeerSearchIndex() throws IOException {
+        this.indexWriter = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public synchronized void rebuild(Stream<BeerSearchView> beers) {
+        lock.lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            indexWriter.deleteAll();
+            beers.forEach(beer -> write(beer.id(), beer.beerName(), beer.beerStyle()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rebuild the beer search index", e);
+        } finally {
+            lock.lock();
+            try {
+                // The catalog may have been read before or after each change, and replaying one is harmless
+                // either way
+                changesDuringRebuild.forEach(Runnable::run);
+                changesDuringRebuild = null;
+                indexWriter.commit();
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not rebuild the beer search index", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        ready = true;
+    }
+
+    @Override
+    public void index(Integer beerId, String beerName, String beerStyle) {
+        apply(() -> write(beerId, beerName, beerStyle));
+    }
+
+    @Override
+    public void remove(Integer beerId) {
+        apply(() -> delete(beerId));
+    }
+
+    @Override
+    public BeerSearchHits search(String beerName, String beerStyle, Pageable pageable) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        if (!addWordClauses(builder, BEER_NAME, beerName) || !addWordClauses(builder, BEER_STYLE, beerStyle)) {
+            return new BeerSearchHits(List.of(), 0);
+        }
+        BooleanQuery query = builder.build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Query effectiveQuery = query.clauses().isEmpty() ? new MatchAllDocsQuery() : query;
+                int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize());
+                int numHits = Math.max(offset + pageable.getPageSize(), 1);
+                // Count every hit while collecting the page, so the page total needs no second pass over the index
+                TopDocs topDocs = searcher.search(effectiveQuery, new TopScoreDocCollectorManager(numHits, Integer.MAX_VALUE));
+
+                List<Integer> beerIds = new ArrayList<>(pageable.getPageSize());
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    beerIds.add(storedFields.document(scoreDocs[i].doc).getField(ID).numericValue().intValue());
+                }
+                return new BeerSearchHits(beerIds, topDocs.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the beer index", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+    }
+
+    private void write(Integer beerId, String beerName, String beerStyle) {
+        Document document = new Document();
+        document.add(new StringField(ID, beerId.toString(), Field.Store.NO));
+        document.add(new StoredField(ID, beerId));
+        if (beerName != null) {
+            document.add(new TextField(BEER_NAME, beerName, Field.Store.NO));
+        }
+        if (beerStyle != null) {
+            document.add(new TextField(BEER_STYLE, beerStyle, Field.Store.NO));
+        }
+        try {
+            indexWriter.updateDocument(idTerm(beerId), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not index beer " + beerId, e);
+        }
+    }
+
+    /**
+     * Write a change and make it searchable, or keep it to replay once the running rebuild has streamed the
+     * catalog, which would otherwise overwrite it and which searches must not see half-written
+     */
+    private void apply(Runnable change) {
+        lock.lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+                return;
+            }
+            change.run();
+            refresh();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void delete(Integer beerId) {
+        try {
+            indexWriter.deleteDocuments(idTerm(beerId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not remove beer " + beerId + " from the search index", e);
+        }
+    }
+
+    private void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not refresh the beer search index", e);
+        }
+    }
+
+    /**
+     * Require every word of the text to match a word of the field, exactly or as a prefix
+     * @return false if the text has no words to match, e.g. only punctuation, so that no beer can match it
+     */
+    private boolean addWordClauses(BooleanQuery.Builder builder, String field, String text) {
+        List<String> words = analyze(field, text);
+        if (words.isEmpty()) {
+            return !StringUtils.hasText(text);
+        }
+        for (String word : words) {
+            Term term = new Term(field, word);
+            Query wordQuery = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(term), EXACT_MATCH_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new PrefixQuery(term), BooleanClause.Occur.SHOULD)
+                    .build();
+            builder.add(wordQuery, BooleanClause.Occur.MUST);
+        }
+        return true;
+    }
+
+    private List<String> analyze(String field, String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        try (TokenStream tokenStream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not analyze search text", e);
+        }
+        return words;
+    }
+
+    private static Term idTerm(Integer beerId) {
+        return new Term(ID, beerId.toString());
+    }
+}
@@ -0,0 +1,302 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link BeerSearchIndex} with the same matching rules as the database queries: the searched text must appear
+ * anywhere in the field, ignoring case. Every substring of up to three characters of each name and style is mapped
+ * to a compressed bitmap of the IDs of the beers that contain it.
+ * <p>
+ * A search intersects the bitmaps of the searched text's trigrams, smallest first. Texts of up to three characters
+ * are looked up directly. Longer texts can share every trigram with a field without appearing in it, so each
+ * remaining candidate is checked against the indexed text. Results are ordered by beer ID.
+ */
+@Component
+@ConditionalOnProperty(name = "juniemvc.beer-search.engine", havingValue = "ngram")
+public class NgramBeerSearchIndex implements BeerSearchIndex {
+
+    /**
+     * Length of the longest indexed substring; shorter substrings are indexed too so that short texts need no check
+     */
+    static final int MAX_GRAM_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings();
+    /**
+     * Changes made while a rebuild reads the catalog, replayed onto the rebuilt postings before they replace the
+     * current ones; null when no rebuild is running. Guarded by the lock.
+     */
+    private List<Consumer<Postings>> changesDuringRebuild;
+    private volatile boolean ready;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public synchronized void rebuild(Stream<BeerSearchView> beers) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Build the new postings off to the side so searches and changes keep going to the old ones meanwhile
+        Postings rebuilt = new Postings();
+        try {
+            beers.forEach(beer ->
+                    rebuilt.add(beer.id(), normalize(beer.beerName()), normalize(beer.beerStyle())));
+            rebuilt.optimize();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The catalog may have been read before or after each change, and replaying one is harmless either way
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    @Override
+    public void index(Integer beerId, String beerName, String beerStyle) {
+        String name = normalize(beerName);
+        String style = normalize(beerStyle);
+        apply(target -> {
+            target.remove(beerId);
+            target.add(beerId, name, style);
+        });
+    }
+
+    @Override
+    public void remove(Integer beerId) {
+        apply(target -> target.remove(beerId));
+    }
+
+    @Override
+    public BeerSearchHits search(String beerName, String beerStyle, Pageable pageable) {
+        String name = StringUtils.hasText(beerName) ? normalize(beerName) : null;
+        String style = StringUtils.hasText(beerStyle) ? normalize(beerStyle) : null;
+        long offset = pageable.getOffset();
+        int pageSize = pageable.getPageSize();
+
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>();
+            if (!postings.addCandidates(bitmaps, postings.nameGrams, name)
+                    || !postings.addCandidates(bitmaps, postings.styleGrams, style)) {
+                return new BeerSearchHits(List.of(), 0);
+            }
+            RoaringBitmap candidates = intersect(bitmaps, postings.allIds);
+
+            boolean checkName = name != null && name.length() > MAX_GRAM_LENGTH;
+            boolean checkStyle = style != null && style.length() > MAX_GRAM_LENGTH;
+            List<Integer> beerIds = new ArrayList<>(pageSize);
+
+            if (!checkName && !checkStyle) {
+                // Every candidate matches, so the page can be read straight off the bitmap
+                long totalHits = candidates.getLongCardinality();
+                if (offset < totalHits) {
+                    PeekableIntIterator iterator = candidates.getIntIterator();
+                    iterator.advanceIfNeeded(candidates.select((int) offset));
+                    while (iterator.hasNext() && beerIds.size() < pageSize) {
+                        beerIds.add(iterator.next());
+                    }
+                }
+                return new BeerSearchHits(beerIds, totalHits);
+            }
+
+            long totalHits = 0;
+            PeekableIntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                int beerId = iterator.next();
+                IndexedBeer beer = postings.beers.get(beerId);
+                if ((checkName && !beer.beerName().contains(name)) || (checkStyle && !beer.beerStyle().contains(style))) {
+                    continue;
+                }
+                if (totalHits++ >= offset && beerIds.size() < pageSize) {
+                    beerIds.add(beerId);
+                }
+            }
+            return new BeerSearchHits(beerIds, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersect the bitmaps, smallest first so that the intermediate results stay small
+     */
+    private static RoaringBitmap intersect(List<RoaringBitmap> bitmaps, RoaringBitmap allIds) {
+        if (bitmaps.isEmpty()) {
+            return allIds;
+        }
+        bitmaps.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        RoaringBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            // The first and() copies, so the indexed bitmaps are never modified
+            result = i == 1 ? RoaringBitmap.and(result, bitmaps.get(i)) : andInPlace(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    private static RoaringBitmap andInPlace(RoaringBitmap result, RoaringBitmap other) {
+        result.and(other);
+        return result;
+    }
+
+    /**
+     * Apply a change to the current postings, and keep it for the rebuilt ones if a rebuild is running
+     */
+    private void apply(Consumer<Postings> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(postings);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Key of a substring of up to {@link #MAX_GRAM_LENGTH} characters: its length followed by its characters
+     */
+    private static long gramKey(String text, int start, int length) {
+        long key = length;
+        for (int i = start; i < start + length; i++) {
+            key = (key << Character.SIZE) | text.charAt(i);
+        }
+        return key;
+    }
+
+    /**
+     * The lower-cased text of an indexed beer, kept to check candidates and to find its postings on removal
+     */
+    private record IndexedBeer(String beerName, String beerStyle) {
+    }
+
+    /**
+     * The IDs of every indexed beer and the postings of each field. Guarded by the enclosing index's lock.
+     */
+    private static final class Postings {
+
+        private final Map<Integer, IndexedBeer> beers = new HashMap<>();
+        private final RoaringBitmap allIds = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> nameGrams = new HashMap<>();
+        private final Map<Long, RoaringBitmap> styleGrams = new HashMap<>();
+
+        void add(Integer beerId, String beerName, String beerStyle) {
+            beers.put(beerId, new IndexedBeer(beerName, beerStyle));
+            allIds.add(beerId);
+            for (long key : gramKeys(beerName)) {
+                nameGrams.computeIfAbsent(key, k -> new RoaringBitmap()).add(beerId);
+            }
+            for (long key : gramKeys(beerStyle)) {
+                styleGrams.computeIfAbsent(key, k -> new RoaringBitmap()).add(beerId);
+            }
+        }
+
+        void remove(Integer beerId) {
+            IndexedBeer beer = beers.remove(beerId);
+            if (beer == null) {
+                return;
+            }
+            allIds.remove(beerId);
+            removePostings(nameGrams, beer.beerName(), beerId);
+            removePostings(styleGrams, beer.beerStyle(), beerId);
+        }
+
+        /**
+         * Add the bitmaps a beer must be in to contain the text
+         * @return false if some substring of the text isn't indexed at all, so nothing can match
+         */
+        boolean addCandidates(List<RoaringBitmap> bitmaps, Map<Long, RoaringBitmap> grams, String text) {
+            if (text == null) {
+                return true;
+            }
+            Set<Long> keys = text.length() <= MAX_GRAM_LENGTH
+                    ? Set.of(gramKey(text, 0, text.length()))
+                    : trigramKeys(text);
+            for (long key : keys) {
+                RoaringBitmap bitmap = grams.get(key);
+                if (bitmap == null) {
+                    return false;
+                }
+                bitmaps.add(bitmap);
+            }
+            return true;
+        }
+
+        void optimize() {
+            allIds.runOptimize();
+            nameGrams.values().forEach(RoaringBitmap::runOptimize);
+            styleGrams.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private static void removePostings(Map<Long, RoaringBitmap> grams, String text, Integer beerId) {
+            for (long key : gramKeys(text)) {
+                RoaringBitmap bitmap = grams.get(key);
+                bitmap.remove(beerId);
+                if (bitmap.isEmpty()) {
+                    grams.remove(key);
+                }
+            }
+        }
+
+        private static Set<Long> gramKeys(String text) {
+            Set<Long> keys = new HashSet<>();
+            for (int start = 0; start < text.length(); start++) {
+                for (int length = 1; length <= MAX_GRAM_LENGTH && start + length <= text.length(); length++) {
+                    keys.add(gramKey(text, start, length));
+                }
+            }
+            return keys;
+        }
+
+        private static Set<Long> trigramKeys(String text) {
+            Set<Long> keys = new HashSet<>();
+            for (int start = 0; start + MAX_GRAM_LENGTH <= text.length(); start++) {
+                keys.add(gramKey(text, start, MAX_GRAM_LENGTH));
+            }
+            return keys;
+        }
+    }
+}
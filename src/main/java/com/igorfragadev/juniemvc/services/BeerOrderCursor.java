@@ -0,0 +1,42 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.exceptions.InvalidCursorException;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the beer order listing, encoded as an opaque URL-safe token. Every beer order has a creation
+ * date, which the database requires.
+ */
+record BeerOrderCursor(LocalDateTime createdDate, Integer id) {
+
+    private static final char SEPARATOR = '|';
+
+    static BeerOrderCursor from(BeerOrderView beerOrder) {
+        return new BeerOrderCursor(beerOrder.createdDate(), beerOrder.id());
+    }
+
+    static BeerOrderCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new BeerOrderCursor(
+                    LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Integer.valueOf(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    String encode() {
+        String value = createdDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,6 +1,11 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.exceptions.InvalidStatusTransitionException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionResultDto;
+import com.igorfragadev.juniemvc.models.CursorPageDto;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,6 +17,14 @@ public interface BeerOrderService {
      */
     List<BeerOrderDto> getAllBeerOrders();
 
+    /**
+     * Get one page of beer orders, newest first, using keyset pagination on created date and ID
+     * @param cursor The next-cursor token of the previous page, or null for the first page
+     * @param size The requested page size, capped at the server maximum
+     * @return The page of beer orders with the cursor of the next page, if any
+     */
+    CursorPageDto<BeerOrderDto> getBeerOrders(String cursor, int size);
+
     /**
      * Get a beer order by its ID
      * @param id The beer order ID
@@ -20,7 +33,14 @@ public interface BeerOrderService {
     Optional<BeerOrderDto> getBeerOrderById(Integer id);
 
     /**
-     * Save a new beer order
+     * Get the current version of a beer order without loading the order
+     * @param id The beer order ID
+     * @return Optional containing the version if the beer order exists
+     */
+    Optional<Integer> getBeerOrderVersion(Integer id);
+
+    /**
+     * Save a new beer order, in status NEW whatever status it was sent with
      * @param beerOrderDto The beer order to save
      * @return The saved beer order
      */
@@ -30,14 +50,28 @@ public interface BeerOrderService {
      * Update an existing beer order
      * @param id The beer order ID
      * @param beerOrderDto The updated beer order data
+     * @param expectedVersion The version the beer order must still have, or null to update any version
      * @return Optional containing the updated beer order if found
+     * @throws PreconditionFailedException if the beer order no longer has the expected version
+     * @throws InvalidStatusTransitionException if the beer order's status cannot change to the new status
      */
-    Optional<BeerOrderDto> updateBeerOrder(Integer id, BeerOrderDto beerOrderDto);
+    Optional<BeerOrderDto> updateBeerOrder(Integer id, BeerOrderDto beerOrderDto, Integer expectedVersion);
 
     /**
      * Delete a beer order by its ID
      * @param id The beer order ID
+     * @param expectedVersion The version the beer order must still have, or null to delete any version
      * @return true if the beer order was deleted, false if not found
+     * @throws PreconditionFailedException if the beer order no longer has the expected version
+     */
+    boolean deleteBeerOrder(Integer id, Integer expectedVersion);
+
+    /**
+     * Move beer orders from one status to another without loading them. Orders that do not exist or are not
+     * in the from status are skipped; the others are moved together, or not at all if this fails.
+     * @param transition The from and to statuses and the IDs of the beer orders to move
+     * @return The IDs of the beer orders moved and of those skipped
+     * @throws InvalidStatusTransitionException if the from status cannot change to the to status
      */
-    boolean deleteBeerOrder(Integer id);
+    BeerOrderStatusTransitionResultDto transitionBeerOrderStatus(BeerOrderStatusTransitionDto transition);
 }
\ No newline at end of file
@@ -1,103 +1,415 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.config.MetricsConfig;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.exceptions.InvalidStatusTransitionException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
+import com.igorfragadev.juniemvc.mappers.BeerMapper;
+import com.igorfragadev.juniemvc.mappers.BeerOrderLineMapper;
 import com.igorfragadev.juniemvc.mappers.BeerOrderMapper;
+import com.igorfragadev.juniemvc.mappers.CustomerMapper;
+import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
 import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionResultDto;
+import com.igorfragadev.juniemvc.models.CursorPageDto;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.repositories.BeerOrderLineRepository;
 import com.igorfragadev.juniemvc.repositories.BeerOrderRepository;
+import com.igorfragadev.juniemvc.repositories.BeerOrderShipmentRepository;
 import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.CustomerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderLineView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderView;
+import com.igorfragadev.juniemvc.retry.RetryOnConflict;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BeerOrderServiceImpl implements BeerOrderService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int STATUS_TRANSITION_CHUNK_SIZE = 1000;
+
     private final BeerOrderRepository beerOrderRepository;
     private final BeerRepository beerRepository;
+    private final BeerOrderLineRepository beerOrderLineRepository;
+    private final BeerOrderShipmentRepository beerOrderShipmentRepository;
+    private final CustomerRepository customerRepository;
     private final BeerOrderMapper beerOrderMapper;
+    private final BeerOrderLineMapper beerOrderLineMapper;
+    private final BeerMapper beerMapper;
+    private final CustomerMapper customerMapper;
+    private final InventoryAllocationService inventoryAllocationService;
+    private final EntityManager entityManager;
 
     public BeerOrderServiceImpl(BeerOrderRepository beerOrderRepository, 
                                BeerRepository beerRepository,
-                               BeerOrderMapper beerOrderMapper) {
+                               BeerOrderLineRepository beerOrderLineRepository,
+                               BeerOrderShipmentRepository beerOrderShipmentRepository,
+                               CustomerRepository customerRepository,
+                               BeerOrderMapper beerOrderMapper,
+                               BeerOrderLineMapper beerOrderLineMapper,
+                               BeerMapper beerMapper,
+                               CustomerMapper customerMapper,
+                               InventoryAllocationService inventoryAllocationService,
+                               EntityManager entityManager) {
         this.beerOrderRepository = beerOrderRepository;
         this.beerRepository = beerRepository;
+        this.beerOrderLineRepository = beerOrderLineRepository;
+        this.beerOrderShipmentRepository = beerOrderShipmentRepository;
+        this.customerRepository = customerRepository;
         this.beerOrderMapper = beerOrderMapper;
+        this.beerOrderLineMapper = beerOrderLineMapper;
+        this.beerMapper = beerMapper;
+        this.customerMapper = customerMapper;
+        this.inventoryAllocationService = inventoryAllocationService;
+        this.entityManager = entityManager;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BeerOrderDto> getAllBeerOrders() {
-        return beerOrderRepository.findAll().stream()
-                .map(beerOrderMapper::beerOrderToBeerOrderDto)
+        return toBeerOrderDtos(beerOrderRepository.findAllViews());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BeerOrderDto> getBeerOrders(String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // Fetch one extra ID to find out whether there is a next page without running a count query
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Integer> ids;
+        if (cursor == null) {
+            ids = beerOrderRepository.findKeysetIds(limit);
+        } else {
+            BeerOrderCursor after = BeerOrderCursor.decode(cursor);
+            ids = beerOrderRepository.findKeysetIdsAfter(after.createdDate(), after.id(), limit);
+        }
+
+        boolean hasNext = ids.size() > pageSize;
+        List<Integer> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+
+        List<BeerOrderView> beerOrders = List.of();
+        if (!pageIds.isEmpty()) {
+            Map<Integer, BeerOrderView> beerOrdersById = beerOrderRepository.findViewsByIdIn(pageIds).stream()
+                    .collect(Collectors.toMap(BeerOrderView::id, Function.identity()));
+            // Restore the keyset order, which the IN query doesn't preserve
+            beerOrders = pageIds.stream()
+                    .map(beerOrdersById::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        return CursorPageDto.<BeerOrderDto>builder()
+                .content(toBeerOrderDtos(beerOrders))
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext && !beerOrders.isEmpty()
+                        ? BeerOrderCursor.from(beerOrders.get(beerOrders.size() - 1)).encode()
+                        : null)
+                .build();
+    }
+
+    /**
+     * Builds beer order DTOs from views, loading the order lines as views with one query. Customers and beers
+     * are taken from the second-level cache, and those not cached are loaded with one query each. Each
+     * customer and beer is read once however many orders and lines refer to it.
+     */
+    private List<BeerOrderDto> toBeerOrderDtos(List<BeerOrderView> beerOrders) {
+        if (beerOrders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> customerIds = beerOrders.stream()
+                .map(BeerOrderView::customerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, CustomerDto> customersById = customerIds.isEmpty() ? new HashMap<>()
+                : customerRepository.findAllCachedById(customerIds).stream()
+                        .collect(Collectors.toMap(Customer::getId, customerMapper::customerToCustomerDto));
+
+        List<BeerOrderLineView> lines = beerOrderLineRepository.findViewsByBeerOrderIdIn(
+                beerOrders.stream().map(BeerOrderView::id).toList());
+        Set<Integer> beerIds = lines.stream()
+                .map(BeerOrderLineView::beerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, BeerDto> beersById = beerIds.isEmpty() ? new HashMap<>()
+                : beerRepository.findAllCachedById(beerIds).stream()
+                        .collect(Collectors.toMap(Beer::getId, beerMapper::beerToBeerDto));
+
+        Map<Integer, List<BeerOrderLineDto>> linesByBeerOrderId = lines.stream()
+                .collect(Collectors.groupingBy(BeerOrderLineView::beerOrderId, Collectors.mapping(line -> {
+                    BeerOrderLineDto lineDto = beerOrderLineMapper.beerOrderLineViewToBeerOrderLineDto(line);
+                    lineDto.setBeer(beersById.get(line.beerId()));
+                    return lineDto;
+                }, Collectors.toList())));
+
+        return beerOrders.stream()
+                .map(beerOrder -> {
+                    BeerOrderDto beerOrderDto = beerOrderMapper.beerOrderViewToBeerOrderDto(beerOrder);
+                    beerOrderDto.setCustomer(customersById.get(beerOrder.customerId()));
+                    beerOrderDto.setBeerOrderLines(linesByBeerOrderId.getOrDefault(beerOrder.id(), new ArrayList<>()));
+                    return beerOrderDto;
+                })
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<BeerOrderDto> getBeerOrderById(Integer id) {
-        return beerOrderRepository.findById(id)
+        return beerOrderRepository.findWithBeerOrderLinesById(id)
                 .map(beerOrderMapper::beerOrderToBeerOrderDto);
     }
 
+    @Override
+    public Optional<Integer> getBeerOrderVersion(Integer id) {
+        return beerOrderRepository.findVersionById(id);
+    }
+
     @Override
     @Transactional
     public BeerOrderDto saveBeerOrder(BeerOrderDto beerOrderDto) {
         BeerOrder beerOrder = beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDto);
+        beerOrder.setStatus(BeerOrderStatus.NEW);
         
         // Process beer order lines
         if (beerOrderDto.getBeerOrderLines() != null) {
+            Map<Integer, Beer> beersById = findBeersById(beerOrderDto.getBeerOrderLines());
+
+            // Replace the lines copied by the mapper, which have neither their beer nor their order set
+            beerOrder.getBeerOrderLines().clear();
             beerOrderDto.getBeerOrderLines().forEach(lineDto -> {
-                Beer beer = beerRepository.findById(lineDto.getBeerId())
-                    .orElseThrow(() -> new EntityNotFoundException("Beer not found with ID: " + lineDto.getBeerId()));
+                Beer beer = beersById.get(lineDto.getBeerId());
                 
                 BeerOrderLine line = BeerOrderLine.builder()
                     .beer(beer)
                     .orderQuantity(lineDto.getOrderQuantity())
-                    .quantityAllocated(0) // Default to 0 for new orders
-                    .status("NEW")
                     .build();
                 
                 beerOrder.addBeerOrderLine(line);
             });
+
+            // Reserve stock and set each line's allocated quantity and status
+            inventoryAllocationService.allocate(beerOrder.getBeerOrderLines());
         }
         
         BeerOrder savedBeerOrder = beerOrderRepository.save(beerOrder);
         return beerOrderMapper.beerOrderToBeerOrderDto(savedBeerOrder);
     }
 
+    /**
+     * Resolves the beers referenced by the given order lines from the second-level cache, loading
+     * the rest with a single query, collapsing duplicate beer IDs first.
+     *
+     * @throws EntityNotFoundException listing every beer ID that does not exist
+     */
+    private Map<Integer, Beer> findBeersById(List<BeerOrderLineDto> lineDtos) {
+        Set<Integer> beerIds = lineDtos.stream()
+                .map(BeerOrderLineDto::getBeerId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Integer, Beer> beersById = beerRepository.findAllCachedById(beerIds.stream().filter(Objects::nonNull).toList()).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        List<Integer> missingBeerIds = beerIds.stream()
+                .filter(beerId -> !beersById.containsKey(beerId))
+                .toList();
+        if (!missingBeerIds.isEmpty()) {
+            throw new EntityNotFoundException("Beer not found with IDs: " + missingBeerIds);
+        }
+        return beersById;
+    }
+
     @Override
     @Transactional
-    public Optional<BeerOrderDto> updateBeerOrder(Integer id, BeerOrderDto beerOrderDto) {
-        return beerOrderRepository.findById(id)
+    @RetryOnConflict
+    public Optional<BeerOrderDto> updateBeerOrder(Integer id, BeerOrderDto beerOrderDto, Integer expectedVersion) {
+        // Fetch the lines and beers up front so mapping the saved order doesn't lazy-load them one by one
+        return beerOrderRepository.findWithBeerOrderLinesById(id)
                 .map(existingBeerOrder -> {
+                    requireVersion(id, existingBeerOrder.getVersion(), expectedVersion);
+
                     // Update basic fields
                     existingBeerOrder.setCustomerRef(beerOrderDto.getCustomerRef());
                     existingBeerOrder.setPaymentAmount(beerOrderDto.getPaymentAmount());
-                    existingBeerOrder.setStatus(beerOrderDto.getStatus());
+                    if (beerOrderDto.getStatus() != null && beerOrderDto.getStatus() != existingBeerOrder.getStatus()) {
+                        requireTransition(existingBeerOrder.getStatus(), beerOrderDto.getStatus());
+                        existingBeerOrder.setStatus(beerOrderDto.getStatus());
+                    }
                     
-                    // Handle order lines updates if needed
-                    // This is a simplified approach - in a real application, you might need
-                    // more sophisticated logic to handle adding/removing/updating lines
-                    
-                    return beerOrderRepository.save(existingBeerOrder);
+                    if (beerOrderDto.getBeerOrderLines() != null
+                            && reconcileBeerOrderLines(existingBeerOrder, beerOrderDto.getBeerOrderLines())) {
+                        // Changing lines doesn't make the order itself dirty; lock it so its version, and the
+                        // ETag built from it, changes with its lines. The pessimistic mode increments it right
+                        // away, where the optimistic one would wait for the commit, after the DTO is mapped.
+                        entityManager.lock(existingBeerOrder, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+                    }
+
+                    // Flush so the returned DTO, and the ETag built from it, carries the incremented version
+                    return beerOrderRepository.saveAndFlush(existingBeerOrder);
                 })
                 .map(beerOrderMapper::beerOrderToBeerOrderDto);
     }
 
+    /**
+     * Brings the order's lines in line with the requested ones, matched by ID, so that only what changed is
+     * written: lines whose quantity changed are updated, new lines are inserted in one batch, and lines missing
+     * from the request are deleted through orphan removal. A line whose beer changed is replaced by a new line.
+     * Stock is adjusted by the change in each line's quantity rather than released and allocated again.
+     *
+     * @return true if any line was added, changed or removed
+     * @throws EntityNotFoundException listing every line ID that is not a line of this order, and every beer ID
+     * of a new line that does not exist
+     */
+    private boolean reconcileBeerOrderLines(BeerOrder beerOrder, List<BeerOrderLineDto> lineDtos) {
+        Map<Integer, BeerOrderLine> existingLinesById = beerOrder.getBeerOrderLines().stream()
+                .collect(Collectors.toMap(BeerOrderLine::getId, Function.identity()));
+        List<Integer> missingLineIds = lineDtos.stream()
+                .map(BeerOrderLineDto::getId)
+                .filter(lineId -> lineId != null && !existingLinesById.containsKey(lineId))
+                .distinct()
+                .toList();
+        if (!missingLineIds.isEmpty()) {
+            throw new EntityNotFoundException("Beer order line not found with IDs: " + missingLineIds);
+        }
+
+        Map<BeerOrderLine, Integer> previousOrderQuantities = new LinkedHashMap<>();
+        List<BeerOrderLineDto> newLineDtos = new ArrayList<>();
+        Set<BeerOrderLine> keptLines = new HashSet<>();
+        for (BeerOrderLineDto lineDto : lineDtos) {
+            BeerOrderLine line = lineDto.getId() == null ? null : existingLinesById.get(lineDto.getId());
+            if (line == null || !Objects.equals(line.getBeer().getId(), lineDto.getBeerId())) {
+                newLineDtos.add(lineDto);
+            } else if (keptLines.add(line) && !Objects.equals(line.getOrderQuantity(), lineDto.getOrderQuantity())) {
+                // A line ID sent twice is kept once, with the quantity it was first sent with
+                previousOrderQuantities.put(line, Objects.requireNonNullElse(line.getOrderQuantity(), 0));
+                line.setOrderQuantity(lineDto.getOrderQuantity());
+            }
+        }
+
+        List<BeerOrderLine> removedLines = beerOrder.getBeerOrderLines().stream()
+                .filter(line -> !keptLines.contains(line))
+                .toList();
+        beerOrder.getBeerOrderLines().removeAll(removedLines);
+
+        if (!newLineDtos.isEmpty()) {
+            Map<Integer, Beer> beersById = findBeersById(newLineDtos);
+            newLineDtos.forEach(lineDto -> {
+                BeerOrderLine line = BeerOrderLine.builder()
+                        .beer(beersById.get(lineDto.getBeerId()))
+                        .orderQuantity(lineDto.getOrderQuantity())
+                        .build();
+                beerOrder.addBeerOrderLine(line);
+                previousOrderQuantities.put(line, 0);
+            });
+        }
+
+        if (previousOrderQuantities.isEmpty() && removedLines.isEmpty()) {
+            return false;
+        }
+        inventoryAllocationService.reallocate(previousOrderQuantities, removedLines);
+        return true;
+    }
+
     @Override
     @Transactional
-    public boolean deleteBeerOrder(Integer id) {
-        if (beerOrderRepository.existsById(id)) {
-            beerOrderRepository.deleteById(id);
-            return true;
+    @RetryOnConflict
+    public boolean deleteBeerOrder(Integer id, Integer expectedVersion) {
+        // Return the order's stock, then delete the shipments, lines and order with one statement each rather
+        // than loading the order and cascading to its lines and shipments one row at a time
+        Optional<Integer> version = beerOrderRepository.findVersionById(id);
+        if (version.isEmpty()) {
+            return false;
+        }
+        requireVersion(id, version.get(), expectedVersion);
+
+        inventoryAllocationService.release(id);
+        beerOrderShipmentRepository.bulkDeleteByBeerOrderId(id);
+        beerOrderLineRepository.bulkDeleteByBeerOrderId(id);
+        // Conditional on the version read above, like an entity delete; an update committed in between fails
+        // the delete and rolls back the deleted lines and shipments with it
+        if (beerOrderRepository.bulkDeleteByIdAndVersion(id, version.get()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(BeerOrder.class, id);
+        }
+        return true;
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public BeerOrderStatusTransitionResultDto transitionBeerOrderStatus(BeerOrderStatusTransitionDto transition) {
+        requireTransition(transition.getFrom(), transition.getTo());
+
+        List<Integer> ids = List.copyOf(new LinkedHashSet<>(transition.getBeerOrderIds()));
+        Set<Integer> transitionedIds = new HashSet<>();
+        // Bounded IN lists keep each statement within database parameter limits and its plan reusable
+        for (int from = 0; from < ids.size(); from += STATUS_TRANSITION_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + STATUS_TRANSITION_CHUNK_SIZE, ids.size()));
+            // The update alone can't tell which orders it moved; locking them first keeps a concurrent write from
+            // moving one between the two statements
+            List<Integer> lockedIds = beerOrderRepository.lockIdsByIdInAndStatus(chunk, transition.getFrom());
+            if (lockedIds.isEmpty()) {
+                continue;
+            }
+            int updated = beerOrderRepository.bulkUpdateStatus(lockedIds, transition.getFrom(), transition.getTo());
+            if (updated != lockedIds.size()) {
+                throw new ObjectOptimisticLockingFailureException(BeerOrder.class, lockedIds);
+            }
+            transitionedIds.addAll(lockedIds);
+        }
+
+        Map<Boolean, List<Integer>> partitioned = ids.stream()
+                .collect(Collectors.partitioningBy(transitionedIds::contains));
+        return BeerOrderStatusTransitionResultDto.builder()
+                .from(transition.getFrom())
+                .to(transition.getTo())
+                .transitioned(partitioned.get(true))
+                .skipped(partitioned.get(false))
+                .build();
+    }
+
+    private static void requireTransition(BeerOrderStatus from, BeerOrderStatus to) {
+        if (from == null || !from.canTransitionTo(to)) {
+            throw new InvalidStatusTransitionException(from, to);
+        }
+    }
+
+    /**
+     * Check the beer order still has the version the client last saw. The update or delete that follows is
+     * conditional on the same version, so a write committed in between fails it too.
+     */
+    private static void requireVersion(Integer id, Integer version, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            throw new PreconditionFailedException("Beer order " + id + " is at version " + version
+                    + ", not " + expectedVersion);
         }
-        return false;
     }
 }
\ No newline at end of file
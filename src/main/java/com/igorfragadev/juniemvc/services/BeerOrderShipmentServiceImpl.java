@@ -1,11 +1,14 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.config.MetricsConfig;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
 import com.igorfragadev.juniemvc.mappers.BeerOrderShipmentMapper;
 import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
 import com.igorfragadev.juniemvc.repositories.BeerOrderRepository;
 import com.igorfragadev.juniemvc.repositories.BeerOrderShipmentRepository;
+import com.igorfragadev.juniemvc.retry.RetryOnConflict;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +18,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
 
     private final BeerOrderShipmentRepository beerOrderShipmentRepository;
@@ -67,6 +71,7 @@ public class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Optional<BeerOrderShipmentDto> updateBeerOrderShipment(Integer id, BeerOrderShipmentDto beerOrderShipmentDto) {
         return beerOrderShipmentRepository.findById(id)
                 .map(existingBeerOrderShipment -> {
@@ -89,6 +94,7 @@ public class BeerOrderShipmentServiceImpl implements BeerOrderShipmentService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean deleteBeerOrderShipment(Integer id) {
         if (beerOrderShipmentRepository.existsById(id)) {
             beerOrderShipmentRepository.deleteById(id);
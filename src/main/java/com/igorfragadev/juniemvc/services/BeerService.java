@@ -1,12 +1,16 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CountMode;
+import com.igorfragadev.juniemvc.models.SliceDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BeerService {
 
@@ -17,7 +21,9 @@ public interface BeerService {
     List<BeerDto> getAllBeers();
 
     /**
-     * Get all beers with optional filtering by beer name and beer style
+     * Get all beers with optional filtering by beer name and beer style.
+     * Filtering matches any substring, case-insensitively, unless the Lucene search index is configured,
+     * in which case it matches whole words and word prefixes and results are ordered by relevance.
      * @param beerName The beer name to filter by (can be null)
      * @param beerStyle The beer style to filter by (can be null)
      * @param pageable The pagination information
@@ -25,6 +31,26 @@ public interface BeerService {
      */
     Page<BeerDto> getAllBeers(String beerName, String beerStyle, Pageable pageable);
 
+    /**
+     * Get one page of beers with optional filtering by beer name and beer style, matched the same way as
+     * {@link #getAllBeers(String, String, Pageable)}. Unlike a {@link Page}, the result reports whether another
+     * page follows, and only carries a total when one is requested.
+     * @param beerName The beer name to filter by (can be null)
+     * @param beerStyle The beer style to filter by (can be null)
+     * @param pageable The pagination information
+     * @param countMode Whether to leave out the total, reuse a recently counted one or count it now
+     * @return A page of beers
+     */
+    SliceDto<BeerDto> getBeerSlice(String beerName, String beerStyle, Pageable pageable, CountMode countMode);
+
+    /**
+     * Pass every beer in the catalog, ordered by ID, to the given consumer one at a time.
+     * Beers are read through a database cursor and released once consumed,
+     * so memory use does not grow with the size of the catalog.
+     * @param consumer The consumer receiving each beer
+     */
+    void exportBeers(Consumer<BeerDto> consumer);
+
     /**
      * Get a beer by its ID
      * @param id The beer ID
@@ -32,6 +58,13 @@ public interface BeerService {
      */
     Optional<BeerDto> getBeerById(Integer id);
 
+    /**
+     * Get the current version of a beer without loading the beer from the database
+     * @param id The beer ID
+     * @return Optional containing the version if the beer exists
+     */
+    Optional<Integer> getBeerVersion(Integer id);
+
     /**
      * Save a new beer
      * @param beerDto The beer to save
@@ -39,26 +72,53 @@ public interface BeerService {
      */
     BeerDto saveBeer(BeerDto beerDto);
 
+    /**
+     * Save new beers in chunks, each chunk in its own transaction with batched inserts. IDs and versions in the
+     * given beers are ignored.
+     * @param beerDtos The beers to save, already validated
+     * @return The saved beers, in the order given
+     * @throws com.igorfragadev.juniemvc.exceptions.BeerBatchSaveException if a chunk fails after earlier chunks
+     * were committed, carrying the beers those chunks saved
+     */
+    List<BeerDto> saveBeers(List<BeerDto> beerDtos);
+
     /**
      * Update an existing beer
      * @param id The beer ID
      * @param beerDto The updated beer data
+     * @param expectedVersion The version the beer must still have, or null to update any version
      * @return Optional containing the updated beer if found
+     * @throws PreconditionFailedException if the beer no longer has the expected version
      */
-    Optional<BeerDto> updateBeer(Integer id, BeerDto beerDto);
+    Optional<BeerDto> updateBeer(Integer id, BeerDto beerDto, Integer expectedVersion);
 
     /**
      * Delete a beer by its ID
      * @param id The beer ID
+     * @param expectedVersion The version the beer must still have, or null to delete any version
      * @return true if the beer was deleted, false if not found
+     * @throws PreconditionFailedException if the beer no longer has the expected version
      */
-    boolean deleteBeer(Integer id);
+    boolean deleteBeer(Integer id, Integer expectedVersion);
 
     /**
      * Partially update a beer with the provided data
      * @param id The beer ID
      * @param beerPathDto The partial beer data to update
+     * @param expectedVersion The version the beer must still have, or null to update any version
      * @return Optional containing the updated beer if found
+     * @throws PreconditionFailedException if the beer no longer has the expected version
+     */
+    Optional<BeerDto> patchBeer(Integer id, BeerPathDto beerPathDto, Integer expectedVersion);
+
+    /**
+     * Partially update a beer at the version the client last saw, without loading it first when the patch allows.
+     * A patch of the name or style still loads the beer, as the search index needs both.
+     * @param id The beer ID
+     * @param beerPathDto The partial beer data to update
+     * @param expectedVersion The version the beer must still have
+     * @return Optional containing the beer's new version if found
+     * @throws PreconditionFailedException if the beer no longer has the expected version
      */
-    Optional<BeerDto> patchBeer(Integer id, BeerPathDto beerPathDto);
+    Optional<Integer> patchBeerAtVersion(Integer id, BeerPathDto beerPathDto, Integer expectedVersion);
 }
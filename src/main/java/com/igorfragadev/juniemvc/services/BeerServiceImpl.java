@@ -1,70 +1,224 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.cache.BeerCache;
+import com.igorfragadev.juniemvc.cache.BeerCountCache;
+import com.igorfragadev.juniemvc.config.MetricsConfig;
 import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.events.BeerDeletedEvent;
+import com.igorfragadev.juniemvc.events.BeerPatchedEvent;
+import com.igorfragadev.juniemvc.events.BeerSavedEvent;
+import com.igorfragadev.juniemvc.exceptions.BeerBatchSaveException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.mappers.BeerMapper;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CountMode;
+import com.igorfragadev.juniemvc.models.SliceDto;
 import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerView;
+import com.igorfragadev.juniemvc.retry.RetryOnConflict;
+import com.igorfragadev.juniemvc.search.BeerSearchHits;
+import com.igorfragadev.juniemvc.search.BeerSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BeerServiceImpl implements BeerService {
 
+    /**
+     * Number of beers saved per transaction by {@link #saveBeers(List)}, a multiple of the JDBC batch size
+     */
+    static final int SAVE_CHUNK_SIZE = 500;
+
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
+    private final EntityManager entityManager;
+    private final BeerCache beerCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<BeerSearchIndex> beerSearchIndex;
+    private final BeerCountCache beerCountCache;
 
-    public BeerServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper) {
+    public BeerServiceImpl(BeerRepository beerRepository, BeerMapper beerMapper, EntityManager entityManager,
+                           BeerCache beerCache, ApplicationEventPublisher eventPublisher,
+                           TransactionTemplate transactionTemplate, ObjectProvider<BeerSearchIndex> beerSearchIndex,
+                           BeerCountCache beerCountCache) {
         this.beerRepository = beerRepository;
         this.beerMapper = beerMapper;
+        this.entityManager = entityManager;
+        this.beerCache = beerCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.beerSearchIndex = beerSearchIndex;
+        this.beerCountCache = beerCountCache;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BeerDto> getAllBeers() {
-        return beerRepository.findAll().stream()
-                .map(beerMapper::beerToBeerDto)
+        return beerRepository.findViewsBy().stream()
+                .map(beerMapper::beerViewToBeerDto)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BeerDto> getAllBeers(String beerName, String beerStyle, Pageable pageable) {
-        Page<Beer> beerPage;
+        Page<BeerView> beerPage;
 
         boolean hasName = StringUtils.hasText(beerName);
         boolean hasStyle = StringUtils.hasText(beerStyle);
 
+        if (hasName || hasStyle) {
+            // Text searches go to the search index once it is built; the LIKE queries below scan the whole table
+            BeerSearchIndex searchIndex = beerSearchIndex.getIfAvailable();
+            if (searchIndex != null && searchIndex.isReady()) {
+                return searchBeers(searchIndex, beerName, beerStyle, pageable);
+            }
+        }
+
         if (hasName && hasStyle) {
             // Both name and style are provided
-            beerPage = beerRepository.findAllByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+            beerPage = beerRepository.findViewsByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
                     beerName, beerStyle, pageable);
         } else if (hasName) {
             // Only name is provided
-            beerPage = beerRepository.findAllByBeerNameContainingIgnoreCase(beerName, pageable);
+            beerPage = beerRepository.findViewsByBeerNameContainingIgnoreCase(beerName, pageable);
         } else if (hasStyle) {
             // Only style is provided
-            beerPage = beerRepository.findAllByBeerStyleContainingIgnoreCase(beerStyle, pageable);
+            beerPage = beerRepository.findViewsByBeerStyleContainingIgnoreCase(beerStyle, pageable);
         } else {
             // Neither name nor style is provided
-            beerPage = beerRepository.findAll(pageable);
+            beerPage = beerRepository.findViewsBy(pageable);
+        }
+
+        return beerPage.map(beerMapper::beerViewToBeerDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceDto<BeerDto> getBeerSlice(String beerName, String beerStyle, Pageable pageable, CountMode countMode) {
+        boolean hasName = StringUtils.hasText(beerName);
+        boolean hasStyle = StringUtils.hasText(beerStyle);
+
+        if (hasName || hasStyle) {
+            BeerSearchIndex searchIndex = beerSearchIndex.getIfAvailable();
+            if (searchIndex != null && searchIndex.isReady()) {
+                // The index counts every match while searching, so its total is exact and free
+                Page<BeerDto> beerPage = searchBeers(searchIndex, beerName, beerStyle, pageable);
+                return toSliceDto(beerPage, countMode == CountMode.NONE ? null : beerPage.getTotalElements());
+            }
         }
 
-        return beerPage.map(beerMapper::beerToBeerDto);
+        // Slices fetch one extra row to find out whether another page follows, instead of running a count query
+        Slice<BeerView> beerSlice;
+        if (hasName && hasStyle) {
+            beerSlice = beerRepository.findSliceByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+                    beerName, beerStyle, pageable);
+        } else if (hasName) {
+            beerSlice = beerRepository.findSliceByBeerNameContainingIgnoreCase(beerName, pageable);
+        } else if (hasStyle) {
+            beerSlice = beerRepository.findSliceByBeerStyleContainingIgnoreCase(beerStyle, pageable);
+        } else {
+            beerSlice = beerRepository.findSliceBy(pageable);
+        }
+
+        Long totalElements;
+        if (countMode == CountMode.NONE) {
+            totalElements = null;
+        } else if (!beerSlice.hasNext() && (beerSlice.hasContent() || pageable.getOffset() == 0)) {
+            // On the last page the total follows from the offset, so there is nothing to count
+            totalElements = pageable.getOffset() + beerSlice.getNumberOfElements();
+        } else if (countMode == CountMode.CACHED) {
+            totalElements = beerCountCache.get(beerName, beerStyle, () -> countBeers(beerName, beerStyle));
+        } else {
+            totalElements = countBeers(beerName, beerStyle);
+        }
+
+        return toSliceDto(beerSlice.map(beerMapper::beerViewToBeerDto), totalElements);
+    }
+
+    private long countBeers(String beerName, String beerStyle) {
+        boolean hasName = StringUtils.hasText(beerName);
+        boolean hasStyle = StringUtils.hasText(beerStyle);
+
+        if (hasName && hasStyle) {
+            return beerRepository.countByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+                    beerName, beerStyle);
+        } else if (hasName) {
+            return beerRepository.countByBeerNameContainingIgnoreCase(beerName);
+        } else if (hasStyle) {
+            return beerRepository.countByBeerStyleContainingIgnoreCase(beerStyle);
+        }
+        return beerRepository.count();
+    }
+
+    private static SliceDto<BeerDto> toSliceDto(Slice<BeerDto> beerSlice, Long totalElements) {
+        return SliceDto.<BeerDto>builder()
+                .content(new ArrayList<>(beerSlice.getContent()))
+                .page(beerSlice.getNumber())
+                .size(beerSlice.getSize())
+                .hasNext(beerSlice.hasNext())
+                .totalElements(totalElements)
+                .build();
+    }
+
+    private Page<BeerDto> searchBeers(BeerSearchIndex searchIndex, String beerName, String beerStyle, Pageable pageable) {
+        BeerSearchHits hits = searchIndex.search(beerName, beerStyle, pageable);
+        Map<Integer, BeerView> beersById = beerRepository.findViewsByIdIn(hits.beerIds()).stream()
+                .collect(Collectors.toMap(BeerView::id, Function.identity()));
+        // Restore the index's result order, which the IN query doesn't preserve
+        List<BeerDto> beers = hits.beerIds().stream()
+                .map(beersById::get)
+                .filter(Objects::nonNull)
+                .map(beerMapper::beerViewToBeerDto)
+                .toList();
+        return new PageImpl<>(beers, pageable, hits.totalHits());
     }
 
     @Override
     @Transactional(readOnly = true)
+    public void exportBeers(Consumer<BeerDto> consumer) {
+        // Views never enter the persistence context, so each one can be garbage collected once written
+        try (Stream<BeerView> beers = beerRepository.streamViewsBy()) {
+            beers.forEach(beer -> consumer.accept(beerMapper.beerViewToBeerDto(beer)));
+        }
+    }
+
+    @Override
     public Optional<BeerDto> getBeerById(Integer id) {
-        return beerRepository.findById(id)
-                .map(beerMapper::beerToBeerDto);
+        // Not transactional: cache hits never borrow a connection, misses run in the repository's own transaction
+        return beerCache.get(id, beerId -> beerRepository.findById(beerId).map(beerMapper::beerToBeerDto));
+    }
+
+    @Override
+    public Optional<Integer> getBeerVersion(Integer id) {
+        // Answer from the cache when possible, so a revalidation agrees with what getBeerById would return
+        return beerCache.getIfPresent(id)
+                .map(BeerDto::getVersion)
+                .or(() -> beerRepository.findVersionById(id));
     }
 
     @Override
@@ -72,30 +226,76 @@ public class BeerServiceImpl implements BeerService {
     public BeerDto saveBeer(BeerDto beerDto) {
         Beer beer = beerMapper.beerDtoToBeer(beerDto);
         Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.beerToBeerDto(savedBeer);
+        return publishSaved(beerMapper.beerToBeerDto(savedBeer));
+    }
+
+    @Override
+    public List<BeerDto> saveBeers(List<BeerDto> beerDtos) {
+        List<BeerDto> savedBeers = new ArrayList<>(beerDtos.size());
+        for (int from = 0; from < beerDtos.size(); from += SAVE_CHUNK_SIZE) {
+            List<BeerDto> chunk = beerDtos.subList(from, Math.min(from + SAVE_CHUNK_SIZE, beerDtos.size()));
+            try {
+                savedBeers.addAll(transactionTemplate.execute(status -> saveChunk(chunk)));
+            } catch (RuntimeException e) {
+                if (savedBeers.isEmpty()) {
+                    throw e;
+                }
+                throw new BeerBatchSaveException(savedBeers, e);
+            }
+        }
+        return savedBeers;
+    }
+
+    private List<BeerDto> saveChunk(List<BeerDto> chunk) {
+        List<Beer> beers = new ArrayList<>(chunk.size());
+        for (BeerDto beerDto : chunk) {
+            Beer beer = beerMapper.beerDtoToBeer(beerDto);
+            // New beers start without an ID or version so they are persisted rather than merged
+            beer.setId(null);
+            beer.setVersion(null);
+            beers.add(beer);
+        }
+        List<Beer> savedBeers = beerRepository.saveAll(beers);
+        // Send the batched inserts now so the generated values are set before mapping
+        entityManager.flush();
+        List<BeerDto> savedBeerDtos = savedBeers.stream()
+                .map(beerMapper::beerToBeerDto)
+                .toList();
+        // Release the chunk from the persistence context before the next one
+        entityManager.clear();
+        savedBeerDtos.forEach(this::publishSaved);
+        return savedBeerDtos;
     }
 
     @Override
     @Transactional
-    public Optional<BeerDto> updateBeer(Integer id, BeerDto beerDto) {
+    @RetryOnConflict
+    public Optional<BeerDto> updateBeer(Integer id, BeerDto beerDto, Integer expectedVersion) {
         return beerRepository.findById(id)
                 .map(existingBeer -> {
+                    requireVersion(existingBeer, expectedVersion);
                     Beer beer = beerMapper.beerDtoToBeer(beerDto);
                     existingBeer.setBeerName(beer.getBeerName());
                     existingBeer.setBeerStyle(beer.getBeerStyle());
                     existingBeer.setUpc(beer.getUpc());
                     existingBeer.setPrice(beer.getPrice());
                     existingBeer.setQuantityOnHand(beer.getQuantityOnHand());
-                    return beerRepository.save(existingBeer);
+                    // Flush so the returned and cached DTO carries the incremented version
+                    return beerRepository.saveAndFlush(existingBeer);
                 })
-                .map(beerMapper::beerToBeerDto);
+                .map(beerMapper::beerToBeerDto)
+                .map(this::publishSaved);
     }
 
     @Override
     @Transactional
-    public boolean deleteBeer(Integer id) {
-        if (beerRepository.existsById(id)) {
-            beerRepository.deleteById(id);
+    @RetryOnConflict
+    public boolean deleteBeer(Integer id, Integer expectedVersion) {
+        Optional<Beer> beer = beerRepository.findById(id);
+        if (beer.isPresent()) {
+            requireVersion(beer.get(), expectedVersion);
+            beerRepository.delete(beer.get());
+            eventPublisher.publishEvent(new BeerDeletedEvent(id));
             return true;
         }
         return false;
@@ -103,13 +303,71 @@ public class BeerServiceImpl implements BeerService {
 
     @Override
     @Transactional
-    public Optional<BeerDto> patchBeer(Integer id, BeerPathDto beerPathDto) {
+    @RetryOnConflict
+    public Optional<BeerDto> patchBeer(Integer id, BeerPathDto beerPathDto, Integer expectedVersion) {
         return beerRepository.findById(id)
                 .map(existingBeer -> {
+                    requireVersion(existingBeer, expectedVersion);
                     // Apply non-null properties from beerPathDto to existingBeer
                     Beer updatedBeer = beerMapper.updateBeerFromBeerPathDto(beerPathDto, existingBeer);
-                    return beerRepository.save(updatedBeer);
+                    return beerRepository.saveAndFlush(updatedBeer);
                 })
-                .map(beerMapper::beerToBeerDto);
+                .map(beerMapper::beerToBeerDto)
+                .map(this::publishSaved);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Optional<Integer> patchBeerAtVersion(Integer id, BeerPathDto beerPathDto, Integer expectedVersion) {
+        Map<String, Object> changes = changesOf(beerPathDto);
+        if (changes.isEmpty() || changes.containsKey("beerName") || changes.containsKey("beerStyle")) {
+            return patchBeer(id, beerPathDto, expectedVersion).map(BeerDto::getVersion);
+        }
+        if (beerRepository.updateAtVersion(id, expectedVersion, changes) == 0) {
+            // Only a failed update reads the beer, to tell a missing beer from a stale version
+            if (beerRepository.existsById(id)) {
+                throw new PreconditionFailedException("Beer " + id + " is not at version " + expectedVersion);
+            }
+            return Optional.empty();
+        }
+        eventPublisher.publishEvent(new BeerPatchedEvent(id));
+        return Optional.of(expectedVersion + 1);
+    }
+
+    /**
+     * Get the non-null properties of a patch by entity attribute name
+     */
+    private static Map<String, Object> changesOf(BeerPathDto beerPathDto) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfNotNull(changes, "beerName", beerPathDto.getBeerName());
+        putIfNotNull(changes, "beerStyle", beerPathDto.getBeerStyle());
+        putIfNotNull(changes, "upc", beerPathDto.getUpc());
+        putIfNotNull(changes, "quantityOnHand", beerPathDto.getQuantityOnHand());
+        putIfNotNull(changes, "price", beerPathDto.getPrice());
+        putIfNotNull(changes, "imageUrl", beerPathDto.getImageUrl());
+        return changes;
+    }
+
+    private static void putIfNotNull(Map<String, Object> changes, String attribute, Object value) {
+        if (value != null) {
+            changes.put(attribute, value);
+        }
+    }
+
+    /**
+     * Check the beer still has the version the client last saw. The update or delete that follows is conditional
+     * on the same version, so a write committed in between fails it too.
+     */
+    private static void requireVersion(Beer beer, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(beer.getVersion())) {
+            throw new PreconditionFailedException(
+                    "Beer " + beer.getId() + " is at version " + beer.getVersion() + ", not " + expectedVersion);
+        }
+    }
+
+    private BeerDto publishSaved(BeerDto beerDto) {
+        eventPublisher.publishEvent(new BeerSavedEvent(beerDto));
+        return beerDto;
     }
 }
@@ -1,6 +1,8 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +22,13 @@ public interface CustomerService {
      */
     Optional<CustomerDto> getCustomerById(Integer id);
 
+    /**
+     * Get the current version of a customer without loading it
+     * @param id The customer ID
+     * @return Optional containing the version if the customer exists
+     */
+    Optional<Integer> getCustomerVersion(Integer id);
+
     /**
      * Save a new customer
      * @param customerDto The customer to save
@@ -41,4 +50,24 @@ public interface CustomerService {
      * @return true if the customer was deleted, false if not found
      */
     boolean deleteCustomer(Integer id);
-}
\ No newline at end of file
+
+    /**
+     * Partially update a customer with the provided data
+     * @param id The customer ID
+     * @param customerPatchDto The partial customer data to update
+     * @param expectedVersion The version the customer must still have, or null to update any version
+     * @return Optional containing the updated customer if found
+     * @throws PreconditionFailedException if the customer no longer has the expected version
+     */
+    Optional<CustomerDto> patchCustomer(Integer id, CustomerPatchDto customerPatchDto, Integer expectedVersion);
+
+    /**
+     * Partially update a customer at the version the client last saw, without loading it first
+     * @param id The customer ID
+     * @param customerPatchDto The partial customer data to update
+     * @param expectedVersion The version the customer must still have
+     * @return Optional containing the customer's new version if found
+     * @throws PreconditionFailedException if the customer no longer has the expected version
+     */
+    Optional<Integer> patchCustomerAtVersion(Integer id, CustomerPatchDto customerPatchDto, Integer expectedVersion);
+}
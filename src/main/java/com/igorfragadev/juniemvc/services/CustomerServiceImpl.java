@@ -1,17 +1,25 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.config.MetricsConfig;
 import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.mappers.CustomerMapper;
 import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
 import com.igorfragadev.juniemvc.repositories.CustomerRepository;
+import com.igorfragadev.juniemvc.retry.RetryOnConflict;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
@@ -25,8 +33,8 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     public List<CustomerDto> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(customerMapper::customerToCustomerDto)
+        return customerRepository.findViewsBy().stream()
+                .map(customerMapper::customerViewToCustomerDto)
                 .collect(Collectors.toList());
     }
 
@@ -37,6 +45,12 @@ public class CustomerServiceImpl implements CustomerService {
                 .map(customerMapper::customerToCustomerDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Integer> getCustomerVersion(Integer id) {
+        return customerRepository.findVersionById(id);
+    }
+
     @Override
     @Transactional
     public CustomerDto saveCustomer(CustomerDto customerDto) {
@@ -47,17 +61,20 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Optional<CustomerDto> updateCustomer(Integer id, CustomerDto customerDto) {
         return customerRepository.findById(id)
                 .map(existingCustomer -> {
                     customerMapper.updateCustomerFromDto(customerDto, existingCustomer);
-                    return customerRepository.save(existingCustomer);
+                    // Flush so the returned DTO, and the ETag built from it, carries the incremented version
+                    return customerRepository.saveAndFlush(existingCustomer);
                 })
                 .map(customerMapper::customerToCustomerDto);
     }
 
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean deleteCustomer(Integer id) {
         if (customerRepository.existsById(id)) {
             customerRepository.deleteById(id);
@@ -65,4 +82,70 @@ public class CustomerServiceImpl implements CustomerService {
         }
         return false;
     }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Optional<CustomerDto> patchCustomer(Integer id, CustomerPatchDto customerPatchDto, Integer expectedVersion) {
+        return customerRepository.findById(id)
+                .map(existingCustomer -> {
+                    requireVersion(existingCustomer, expectedVersion);
+                    customerMapper.updateCustomerFromCustomerPatchDto(customerPatchDto, existingCustomer);
+                    // Flush so the returned DTO carries the incremented version
+                    return customerRepository.saveAndFlush(existingCustomer);
+                })
+                .map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Optional<Integer> patchCustomerAtVersion(Integer id, CustomerPatchDto customerPatchDto,
+                                                    Integer expectedVersion) {
+        Map<String, Object> changes = changesOf(customerPatchDto);
+        if (changes.isEmpty()) {
+            return patchCustomer(id, customerPatchDto, expectedVersion).map(CustomerDto::getVersion);
+        }
+        if (customerRepository.updateAtVersion(id, expectedVersion, changes) == 0) {
+            // Only a failed update reads the customer, to tell a missing customer from a stale version
+            if (customerRepository.existsById(id)) {
+                throw new PreconditionFailedException("Customer " + id + " is not at version " + expectedVersion);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(expectedVersion + 1);
+    }
+
+    /**
+     * Get the non-null properties of a patch by entity attribute name
+     */
+    private static Map<String, Object> changesOf(CustomerPatchDto customerPatchDto) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfNotNull(changes, "name", customerPatchDto.getName());
+        putIfNotNull(changes, "email", customerPatchDto.getEmail());
+        putIfNotNull(changes, "phone", customerPatchDto.getPhone());
+        putIfNotNull(changes, "addressLine1", customerPatchDto.getAddressLine1());
+        putIfNotNull(changes, "addressLine2", customerPatchDto.getAddressLine2());
+        putIfNotNull(changes, "city", customerPatchDto.getCity());
+        putIfNotNull(changes, "state", customerPatchDto.getState());
+        putIfNotNull(changes, "postalCode", customerPatchDto.getPostalCode());
+        return changes;
+    }
+
+    private static void putIfNotNull(Map<String, Object> changes, String attribute, Object value) {
+        if (value != null) {
+            changes.put(attribute, value);
+        }
+    }
+
+    /**
+     * Check the customer still has the version the client last saw. The update that follows is conditional on
+     * the same version, so a write committed in between fails it too.
+     */
+    private static void requireVersion(Customer customer, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(customer.getVersion())) {
+            throw new PreconditionFailedException("Customer " + customer.getId() + " is at version "
+                    + customer.getVersion() + ", not " + expectedVersion);
+        }
+    }
 }
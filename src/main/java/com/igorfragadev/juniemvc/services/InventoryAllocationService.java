@@ -0,0 +1,50 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryAllocationService {
+
+    /**
+     * Line status when the whole order quantity was reserved
+     */
+    String ALLOCATED = "ALLOCATED";
+
+    /**
+     * Line status when only part of the order quantity was reserved
+     */
+    String PARTIALLY_ALLOCATED = "PARTIALLY_ALLOCATED";
+
+    /**
+     * Line status when nothing could be reserved
+     */
+    String BACKORDERED = "BACKORDERED";
+
+    /**
+     * Reserve stock for the given order lines, taking it from each beer's quantity on hand,
+     * and set each line's allocated quantity and status. Must run inside the transaction that saves the lines.
+     * @param beerOrderLines The order lines to allocate, each referencing its beer
+     */
+    void allocate(List<BeerOrderLine> beerOrderLines);
+
+    /**
+     * Adjust the stock reserved for an order whose lines changed. A line whose order quantity grew takes up to the
+     * increase from its beer's quantity on hand; a line whose order quantity dropped below its allocated quantity
+     * returns the difference; a removed line returns all it holds. Sets the allocated quantity and status of every
+     * changed line. Must run inside the transaction that saves the lines.
+     * @param previousOrderQuantities The new and changed order lines, each referencing its beer, with the order
+     *                                quantity stock was allocated for before the change (0 for new lines)
+     * @param removedLines The order lines being removed, each referencing its beer
+     */
+    void reallocate(Map<BeerOrderLine, Integer> previousOrderQuantities, List<BeerOrderLine> removedLines);
+
+    /**
+     * Return all the stock a beer order holds, without loading its lines, ahead of deleting them. Each beer gets
+     * its stock back with one update, in ascending beer ID order. Must run inside the transaction that deletes
+     * the lines.
+     * @param beerOrderId The ID of the beer order being deleted
+     */
+    void release(Integer beerOrderId);
+}
@@ -0,0 +1,177 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.events.BeerStockChangedEvent;
+import com.igorfragadev.juniemvc.repositories.BeerOrderLineRepository;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerAllocationView;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Allocates and returns stock with conditional UPDATE statements instead of reading and writing the Beer entity.
+ * The database checks and decrements the quantity on hand in one step, so concurrent orders for the same beer
+ * can neither oversell it nor fail on optimistic locking; they only queue on the row lock until the first commits.
+ */
+@Service
+public class InventoryAllocationServiceImpl implements InventoryAllocationService {
+
+    /**
+     * How often a partial allocation is retried when the quantity on hand changes between reading and taking it
+     */
+    static final int MAX_PARTIAL_ATTEMPTS = 3;
+
+    private final BeerRepository beerRepository;
+    private final BeerOrderLineRepository beerOrderLineRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InventoryAllocationServiceImpl(BeerRepository beerRepository,
+                                          BeerOrderLineRepository beerOrderLineRepository,
+                                          EntityManager entityManager, ApplicationEventPublisher eventPublisher) {
+        this.beerRepository = beerRepository;
+        this.beerOrderLineRepository = beerOrderLineRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void allocate(List<BeerOrderLine> beerOrderLines) {
+        Map<BeerOrderLine, Integer> previousOrderQuantities = new LinkedHashMap<>();
+        beerOrderLines.forEach(line -> previousOrderQuantities.put(line, 0));
+        reallocate(previousOrderQuantities, List.of());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reallocate(Map<BeerOrderLine, Integer> previousOrderQuantities, List<BeerOrderLine> removedLines) {
+        List<StockChange> changes = new ArrayList<>();
+        for (BeerOrderLine line : removedLines) {
+            int allocated = Objects.requireNonNullElse(line.getQuantityAllocated(), 0);
+            if (allocated > 0) {
+                changes.add(new StockChange(line, -allocated));
+            }
+        }
+        previousOrderQuantities.forEach((line, previousOrderQuantity) -> {
+            int orderQuantity = Objects.requireNonNullElse(line.getOrderQuantity(), 0);
+            int allocated = Objects.requireNonNullElse(line.getQuantityAllocated(), 0);
+            if (orderQuantity > previousOrderQuantity) {
+                changes.add(new StockChange(line, orderQuantity - previousOrderQuantity));
+            } else if (allocated > orderQuantity) {
+                changes.add(new StockChange(line, orderQuantity - allocated));
+            }
+        });
+        // Take the beer row locks in ascending ID order so two orders can't deadlock on each other, and return
+        // stock to a beer before taking more of it
+        changes.sort(Comparator.comparing((StockChange change) -> change.line().getBeer().getId())
+                .thenComparingInt(StockChange::quantity));
+
+        Map<Integer, Beer> changedBeers = new LinkedHashMap<>();
+        for (StockChange change : changes) {
+            BeerOrderLine line = change.line();
+            Integer beerId = line.getBeer().getId();
+            int changed;
+            if (change.quantity() < 0) {
+                beerRepository.incrementQuantityOnHand(beerId, -change.quantity());
+                changed = change.quantity();
+            } else {
+                changed = allocate(beerId, change.quantity());
+            }
+            line.setQuantityAllocated(Objects.requireNonNullElse(line.getQuantityAllocated(), 0) + changed);
+
+            if (changed != 0) {
+                changedBeers.put(beerId, line.getBeer());
+            }
+        }
+
+        previousOrderQuantities.keySet().forEach(line -> {
+            int orderQuantity = Objects.requireNonNullElse(line.getOrderQuantity(), 0);
+            int allocated = Objects.requireNonNullElse(line.getQuantityAllocated(), 0);
+            line.setQuantityAllocated(allocated);
+            if (allocated == orderQuantity) {
+                line.setStatus(ALLOCATED);
+            } else if (allocated > 0) {
+                line.setStatus(PARTIALLY_ALLOCATED);
+            } else {
+                line.setStatus(BACKORDERED);
+            }
+        });
+
+        updateLoadedStock(changedBeers.values());
+        changedBeers.keySet().forEach(beerId -> eventPublisher.publishEvent(new BeerStockChangedEvent(beerId)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Integer beerOrderId) {
+        // Summed and ordered by beer ID in the query, so the beer row locks are taken in the same order as above
+        for (BeerAllocationView allocation : beerOrderLineRepository.findAllocationsByBeerOrderId(beerOrderId)) {
+            beerRepository.incrementQuantityOnHand(allocation.beerId(),
+                    Math.toIntExact(allocation.quantityAllocated()));
+            eventPublisher.publishEvent(new BeerStockChangedEvent(allocation.beerId()));
+        }
+    }
+
+    /**
+     * The stock updates bypass the persistence context, so beers loaded with the order would keep showing their
+     * stock from before them. Reads the new stock of all of them with one query and sets it on the beers, which
+     * are detached first so that setting it doesn't write them back.
+     */
+    private void updateLoadedStock(Collection<Beer> beers) {
+        Map<Integer, Beer> loadedBeers = new HashMap<>();
+        beers.stream()
+                .filter(entityManager::contains)
+                .forEach(beer -> loadedBeers.put(beer.getId(), beer));
+        if (loadedBeers.isEmpty()) {
+            return;
+        }
+        loadedBeers.values().forEach(entityManager::detach);
+        beerRepository.findStockByIdIn(loadedBeers.keySet()).forEach(stock ->
+                loadedBeers.get(stock.beerId()).setQuantityOnHand(stock.quantityOnHand()));
+    }
+
+    /**
+     * Take as much of the quantity as is on hand, preferring the whole quantity.
+     * @return The quantity taken
+     */
+    private int allocate(Integer beerId, int quantity) {
+        if (quantity <= 0) {
+            return 0;
+        }
+        if (beerRepository.decrementQuantityOnHand(beerId, quantity) == 1) {
+            return quantity;
+        }
+        // Not enough on hand; take what is left, unless a concurrent order takes it first
+        for (int attempt = 0; attempt < MAX_PARTIAL_ATTEMPTS; attempt++) {
+            int available = beerRepository.findQuantityOnHandById(beerId).orElse(0);
+            if (available <= 0) {
+                return 0;
+            }
+            int partial = Math.min(available, quantity);
+            if (beerRepository.decrementQuantityOnHand(beerId, partial) == 1) {
+                return partial;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stock to take for an order line when positive, or to return when negative
+     */
+    private record StockChange(BeerOrderLine line, int quantity) {
+    }
+}
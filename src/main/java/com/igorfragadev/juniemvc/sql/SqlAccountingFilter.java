@@ -0,0 +1,154 @@
+package com.igorfragadev.juniemvc.sql;
+
+import com.igorfragadev.juniemvc.config.SqlAccountingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Accounts the SQL each request runs: statements executed, JDBC execution time and rows fetched.
+ * <p>
+ * A request sending {@code X-Sql-Debug: true} gets the totals back as {@code X-Sql-Count},
+ * {@code X-Sql-Time} (milliseconds) and {@code X-Sql-Rows}. The headers are added just before the response
+ * is committed, so they cover the SQL run before the body is written; the body is not buffered. A sampled
+ * share of requests is logged, one line per request, through an asynchronous appender.
+ * <p>
+ * Requests that are neither debugged nor sampled are not accounted at all. SQL run on other threads, e.g. by
+ * a streamed response, is not counted.
+ */
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    static final String DEBUG_HEADER = "X-Sql-Debug";
+    static final String COUNT_HEADER = "X-Sql-Count";
+    static final String TIME_HEADER = "X-Sql-Time";
+    static final String ROWS_HEADER = "X-Sql-Rows";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlAccountingFilter.class);
+
+    private final SqlAccountingListener sqlAccountingListener;
+    private final SqlAccountingProperties properties;
+
+    public SqlAccountingFilter(SqlAccountingListener sqlAccountingListener, SqlAccountingProperties properties) {
+        this.sqlAccountingListener = sqlAccountingListener;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean debug = properties.debugHeaders() && Boolean.parseBoolean(request.getHeader(DEBUG_HEADER));
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < properties.logSampleRate();
+        if (!debug && !sampled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        SqlRequestStats stats = sqlAccountingListener.start();
+        DebugHeadersResponse debugResponse = debug ? new DebugHeadersResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, debug ? debugResponse : response);
+        } finally {
+            sqlAccountingListener.stop();
+            if (debug) {
+                // Responses without a body are committed after the chain returns
+                debugResponse.addHeaders();
+            }
+            if (sampled) {
+                log(request, response, stats, System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    private static void log(HttpServletRequest request, HttpServletResponse response, SqlRequestStats stats,
+                            long elapsedNanos) {
+        log.atInfo()
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", request.getRequestURI())
+                .addKeyValue("status", response.getStatus())
+                .addKeyValue("sqlCount", stats.statements())
+                .addKeyValue("sqlTimeMs", toMillis(stats.jdbcTime().toNanos()))
+                .addKeyValue("sqlRows", stats.rowsFetched())
+                .addKeyValue("elapsedMs", toMillis(elapsedNanos))
+                .log("SQL accounting");
+    }
+
+    /**
+     * Convert to milliseconds, rounded to the microsecond
+     */
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * Adds the SQL totals as headers when the response is about to be committed, which is the last moment
+     * headers can be set without buffering the body
+     */
+    private static final class DebugHeadersResponse extends HttpServletResponseWrapper {
+
+        private final SqlRequestStats stats;
+        private boolean headersAdded;
+
+        DebugHeadersResponse(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            setHeader(COUNT_HEADER, Integer.toString(stats.statements()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", toMillis(stats.jdbcTime().toNanos())));
+            setHeader(ROWS_HEADER, Long.toString(stats.rowsFetched()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.igorfragadev.juniemvc.sql;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Adds the statements run through the proxied data source, and the rows read from their result sets, to the
+ * {@link SqlRequestStats} of the current thread.
+ * <p>
+ * Only connections borrowed while the current thread is being accounted are proxied, see
+ * {@link #jdbcProxyFactory()}; requests that are not accounted, Flyway at startup and the search indexer get
+ * the pool's connections as they are and pay nothing per statement or row. Result sets are proxied by
+ * {@link #create} rather than the proxy's generic method listeners, which would build a context object for
+ * every column read; only {@code next()} is looked at.
+ */
+public class SqlAccountingListener implements QueryExecutionListener, ResultSetProxyLogicFactory {
+
+    private static final String START_NANOS = SqlAccountingListener.class.getName() + ".startNanos";
+
+    private final ThreadLocal<SqlRequestStats> currentStats = new ThreadLocal<>();
+
+    /**
+     * Start accounting the SQL run on the current thread
+     * @return The stats that SQL is added to until {@link #stop()}
+     */
+    public SqlRequestStats start() {
+        SqlRequestStats stats = new SqlRequestStats();
+        currentStats.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stop accounting the SQL run on the current thread
+     */
+    public void stop() {
+        currentStats.remove();
+    }
+
+    /**
+     * Get the factory of the data source proxy's JDBC proxies
+     * @return A factory that proxies a connection only when the thread borrowing it is being accounted
+     */
+    public JdbcProxyFactory jdbcProxyFactory() {
+        return new JdkJdbcProxyFactory() {
+            @Override
+            public Connection createConnection(Connection connection, ConnectionInfo connectionInfo,
+                                               ProxyConfig proxyConfig) {
+                if (currentStats.get() == null) {
+                    return connection;
+                }
+                return super.createConnection(connection, connectionInfo, proxyConfig);
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        if (currentStats.get() != null) {
+            // The proxy's own elapsed time is in whole milliseconds, too coarse for statements that take microseconds
+            executionInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        SqlRequestStats stats = currentStats.get();
+        Long startNanos = executionInfo.getCustomValue(START_NANOS, Long.class);
+        if (stats != null && startNanos != null) {
+            stats.addStatement(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        return (proxy, method, args) -> {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlRequestStats stats = currentStats.get();
+                if (stats != null) {
+                    stats.addRow();
+                }
+            }
+            return result;
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.igorfragadev.juniemvc.sql;
+
+import java.time.Duration;
+
+/**
+ * Running totals of the SQL one request has run so far. Only the thread serving the request updates them.
+ */
+public class SqlRequestStats {
+
+    private int statements;
+    private long jdbcNanos;
+    private long rowsFetched;
+
+    void addStatement(long elapsedNanos) {
+        statements++;
+        jdbcNanos += elapsedNanos;
+    }
+
+    void addRow() {
+        rowsFetched++;
+    }
+
+    /**
+     * Get the number of statements executed; a JDBC batch counts once
+     * @return The number of statements
+     */
+    public int statements() {
+        return statements;
+    }
+
+    /**
+     * Get the time spent executing statements, not counting the time spent reading their results
+     * @return The total JDBC execution time
+     */
+    public Duration jdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    /**
+     * Get the number of rows read from result sets
+     * @return The number of rows fetched
+     */
+    public long rowsFetched() {
+        return rowsFetched;
+    }
+}
@@ -0,0 +1,2 @@
+-- Support keyset pagination of beer orders on (created_date, id)
+CREATE INDEX idx_beer_order_created_date_id ON beer_order (created_date, id);
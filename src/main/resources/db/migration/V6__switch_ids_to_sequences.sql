@@ -0,0 +1,25 @@
+-- Generate IDs from pooled sequences instead of identity columns so Hibernate can batch inserts.
+-- Each sequence hands out blocks of 50 IDs, matching the allocationSize of the entity generators.
+-- Hibernate's pooled optimizer treats a sequence value as the upper bound of its block, so every
+-- sequence restarts 50 above the current maximum ID to keep new blocks clear of existing rows.
+CREATE SEQUENCE beer_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM beer);
+
+CREATE SEQUENCE beer_order_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_order_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM beer_order);
+
+CREATE SEQUENCE beer_order_line_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_order_line_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM beer_order_line);
+
+CREATE SEQUENCE beer_order_shipment_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE beer_order_shipment_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM beer_order_shipment);
+
+CREATE SEQUENCE customer_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE customer_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM customer);
+
+-- Drop the identity defaults so the sequences are the only source of IDs
+ALTER TABLE beer ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE beer_order ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE beer_order_line ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE beer_order_shipment ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE customer ALTER COLUMN id DROP IDENTITY;
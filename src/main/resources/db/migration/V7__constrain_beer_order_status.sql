@@ -0,0 +1,8 @@
+-- Beer order status is now one of a fixed set of values (BeerOrderStatus); orders with any other value are
+-- treated as new, since none of them has been through the new lifecycle
+UPDATE beer_order SET status = 'NEW'
+WHERE status IS NULL OR status NOT IN ('NEW', 'PICKED', 'SHIPPED', 'DELIVERED', 'CANCELLED');
+
+ALTER TABLE beer_order ALTER COLUMN status SET NOT NULL;
+ALTER TABLE beer_order ADD CONSTRAINT ck_beer_order_status
+    CHECK (status IN ('NEW', 'PICKED', 'SHIPPED', 'DELIVERED', 'CANCELLED'));
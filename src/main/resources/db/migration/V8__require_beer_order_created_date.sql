@@ -0,0 +1,6 @@
+-- Beer orders are paged by (created_date, id), which never reaches rows without a creation date, so orders
+-- written without one take their last update time, or the time of this migration if they have neither
+UPDATE beer_order SET created_date = COALESCE(updated_date, CURRENT_TIMESTAMP)
+WHERE created_date IS NULL;
+
+ALTER TABLE beer_order ALTER COLUMN created_date SET NOT NULL;
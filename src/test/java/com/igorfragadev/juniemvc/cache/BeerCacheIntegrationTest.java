@@ -0,0 +1,77 @@
+package com.igorfragadev.juniemvc.cache;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.services.BeerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BeerCacheIntegrationTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Test
+    void cachedBeerFollowsCommittedWrites() {
+        // given
+        BeerDto savedBeer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Cache Beer")
+                .beerStyle("IPA")
+                .upc("cache-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        Integer beerId = savedBeer.getId();
+        assertThat(beerService.getBeerById(beerId)).map(BeerDto::getBeerName).contains("Cache Beer");
+
+        // when
+        BeerDto patchedBeer = beerService.patchBeer(beerId, BeerPathDto.builder().beerName("Renamed Beer").build(), null)
+                .orElseThrow();
+
+        // then
+        assertThat(patchedBeer.getVersion()).isEqualTo(savedBeer.getVersion() + 1);
+        assertThat(beerService.getBeerById(beerId)).map(BeerDto::getBeerName).contains("Renamed Beer");
+
+        // when
+        beerService.deleteBeer(beerId, null);
+
+        // then
+        assertThat(beerService.getBeerById(beerId)).isEmpty();
+    }
+
+    @Test
+    void cachedBeerIsDroppedWhenPatchedWithoutBeingRead() {
+        // given
+        BeerDto savedBeer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Blind Patch Beer")
+                .beerStyle("IPA")
+                .upc("cache-456")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        Integer beerId = savedBeer.getId();
+        assertThat(beerService.getBeerById(beerId)).map(BeerDto::getPrice).contains(new BigDecimal("9.99"));
+
+        // when
+        Optional<Integer> version = beerService.patchBeerAtVersion(beerId,
+                BeerPathDto.builder().price(new BigDecimal("11.99")).build(), savedBeer.getVersion());
+
+        // then
+        assertThat(version).contains(savedBeer.getVersion() + 1);
+        assertThat(beerService.getBeerById(beerId)).hasValueSatisfying(beer -> {
+            assertThat(beer.getPrice()).isEqualByComparingTo("11.99");
+            assertThat(beer.getVersion()).isEqualTo(savedBeer.getVersion() + 1);
+        });
+
+        beerService.deleteBeer(beerId, null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.igorfragadev.juniemvc.cache;
+
+import com.igorfragadev.juniemvc.config.BeerCacheProperties;
+import com.igorfragadev.juniemvc.events.BeerDeletedEvent;
+import com.igorfragadev.juniemvc.events.BeerSavedEvent;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerCacheTest {
+
+    BeerCache beerCache;
+
+    @BeforeEach
+    void setUp() {
+        beerCache = new BeerCache(new BeerCacheProperties(100, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void getLoadsOnceAndThenHits() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        beerCache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(beer(id, 0, "Test Beer"));
+        });
+        Optional<BeerDto> cached = beerCache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // then
+        assertThat(cached).map(BeerDto::getBeerName).contains("Test Beer");
+        assertThat(loads).hasValue(1);
+        assertThat(beerCache.stats().hitCount()).isEqualTo(1);
+        assertThat(beerCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getDoesNotCacheMissingBeer() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        beerCache.get(999, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<BeerDto> result = beerCache.get(999, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // then
+        assertThat(result).isEmpty();
+        assertThat(loads).hasValue(2);
+        assertThat(beerCache.size()).isZero();
+    }
+
+    @Test
+    void savedBeerReplacesOlderVersion() {
+        // given
+        beerCache.get(1, id -> Optional.of(beer(id, 0, "Old Name")));
+
+        // when
+        beerCache.onBeerSaved(new BeerSavedEvent(beer(1, 1, "New Name")));
+
+        // then
+        assertThat(beerCache.get(1, id -> Optional.empty()))
+                .map(BeerDto::getBeerName).contains("New Name");
+    }
+
+    @Test
+    void savedBeerDoesNotReplaceNewerVersion() {
+        // given
+        beerCache.onBeerSaved(new BeerSavedEvent(beer(1, 2, "Newest Name")));
+
+        // when
+        beerCache.onBeerSaved(new BeerSavedEvent(beer(1, 1, "Stale Name")));
+
+        // then
+        assertThat(beerCache.get(1, id -> Optional.empty()))
+                .map(BeerDto::getBeerName).contains("Newest Name");
+    }
+
+    @Test
+    void deletedBeerIsEvicted() {
+        // given
+        beerCache.get(1, id -> Optional.of(beer(id, 0, "Test Beer")));
+
+        // when
+        beerCache.onBeerDeleted(new BeerDeletedEvent(1));
+
+        // then
+        assertThat(beerCache.get(1, id -> Optional.empty())).isEmpty();
+    }
+
+    private static BeerDto beer(Integer id, Integer version, String beerName) {
+        return BeerDto.builder()
+                .id(id)
+                .version(version)
+                .beerName(beerName)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.igorfragadev.juniemvc.cache;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.CustomerRepository;
+import com.igorfragadev.juniemvc.services.BeerOrderService;
+import com.igorfragadev.juniemvc.services.BeerService;
+import com.igorfragadev.juniemvc.services.CustomerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void committedBeersAndCustomersAreReadWithoutQueries() {
+        // given
+        BeerDto beer = beerService.saveBeer(BeerDto.builder()
+                .beerName("L2 Beer")
+                .beerStyle("IPA")
+                .upc("l2-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        CustomerDto customer = customerService.saveCustomer(CustomerDto.builder()
+                .name("L2 Customer")
+                .addressLine1("1 Main St")
+                .city("Springfield")
+                .state("IL")
+                .postalCode("62701")
+                .build());
+        statistics.clear();
+
+        // when
+        assertThat(beerRepository.findAllCachedById(List.of(beer.getId()))).hasSize(1);
+        assertThat(customerRepository.findAllCachedById(List.of(customer.getId()))).hasSize(1);
+
+        // then
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        beerService.deleteBeer(beer.getId(), null);
+        customerService.deleteCustomer(customer.getId());
+    }
+
+    @Test
+    void cachedBeerFollowsUpdatesAndStockAllocation() {
+        // given
+        BeerDto beer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Stock Beer")
+                .beerStyle("IPA")
+                .upc("l2-456")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        Integer beerId = beer.getId();
+
+        // when
+        beerService.patchBeer(beerId, BeerPathDto.builder().beerName("Patched Stock Beer").build(), null);
+
+        // then
+        assertThat(beerRepository.findAllCachedById(List.of(beerId))).singleElement()
+                .extracting(Beer::getBeerName).isEqualTo("Patched Stock Beer");
+
+        // when
+        BeerOrderDto beerOrder = beerOrderService.saveBeerOrder(BeerOrderDto.builder()
+                .customerRef("L2-REF")
+                .beerOrderLines(List.of(BeerOrderLineDto.builder().beerId(beerId).orderQuantity(4).build()))
+                .build());
+
+        // then
+        // The bulk stock update bypasses the entity, so Hibernate drops the cached beer rather than serve 10
+        assertThat(beerRepository.findAllCachedById(List.of(beerId))).singleElement()
+                .extracting(Beer::getQuantityOnHand).isEqualTo(6);
+
+        beerOrderService.deleteBeerOrder(beerOrder.getId(), null);
+        beerService.deleteBeer(beerId, null);
+    }
+}
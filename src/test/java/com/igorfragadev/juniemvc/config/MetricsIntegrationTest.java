@@ -0,0 +1,66 @@
+package com.igorfragadev.juniemvc.config;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.services.BeerService;
+import com.igorfragadev.juniemvc.services.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Test
+    void prometheusEndpointExposesServiceRepositoryHibernateAndPoolMeters() throws Exception {
+        // given
+        BeerDto savedBeer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Metrics Beer")
+                .beerStyle("IPA")
+                .upc("metrics-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        beerService.getBeerById(savedBeer.getId());
+        customerService.getAllCustomers();
+
+        // when
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertThat(scrape)
+                .contains("juniemvc_service_seconds_bucket{")
+                .contains("class=\"com.igorfragadev.juniemvc.services.BeerServiceImpl\"")
+                .contains("method=\"saveBeer\"")
+                .contains("method=\"getAllCustomers\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hibernate_statements_total")
+                .contains("hibernate_entities_loads_total")
+                .contains("hibernate_second_level_cache_requests_total{")
+                .contains("hikaricp_connections_active")
+                .contains("cache_gets_total{cache=\"beers\"");
+    }
+}
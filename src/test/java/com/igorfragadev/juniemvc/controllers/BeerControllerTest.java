@@ -1,8 +1,13 @@
 package com.igorfragadev.juniemvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.exceptions.BeerBatchSaveException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CountMode;
+import com.igorfragadev.juniemvc.models.SliceDto;
 import com.igorfragadev.juniemvc.services.BeerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,19 +21,30 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -81,18 +97,79 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$[0].beerName", is("Test Beer")));
     }
 
+    @Test
+    void exportBeers() throws Exception {
+        BeerDto secondBeerDto = BeerDto.builder()
+                .id(2)
+                .beerName("Second Beer")
+                .build();
+        willAnswer(invocation -> {
+            Consumer<BeerDto> consumer = invocation.getArgument(0);
+            consumer.accept(testBeerDto);
+            consumer.accept(secondBeerDto);
+            return null;
+        }).given(beerService).exportBeers(any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/beers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], BeerDto.class).getBeerName()).isEqualTo("Test Beer");
+        assertThat(objectMapper.readValue(lines[1], BeerDto.class).getId()).isEqualTo(2);
+        assertThat(body).endsWith("\n");
+    }
+
     @Test
     void getBeerById() throws Exception {
+        testBeerDto.setVersion(3);
         given(beerService.getBeerById(1)).willReturn(Optional.of(testBeerDto));
 
         mockMvc.perform(get("/api/v1/beers/1")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.beerName", is("Test Beer")));
     }
 
+    @Test
+    void getBeerByIdNotModified() throws Exception {
+        given(beerService.getBeerVersion(7)).willReturn(Optional.of(3));
+
+        mockMvc.perform(get("/api/v1/beers/7")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"7-2\", \"7-3\"")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-3\""))
+                .andExpect(content().string(""));
+
+        verify(beerService, never()).getBeerById(7);
+    }
+
+    @Test
+    void getBeerByIdModifiedSinceETag() throws Exception {
+        testBeerDto.setVersion(3);
+        given(beerService.getBeerVersion(1)).willReturn(Optional.of(3));
+        given(beerService.getBeerById(1)).willReturn(Optional.of(testBeerDto));
+
+        mockMvc.perform(get("/api/v1/beers/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-2\"")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(jsonPath("$.beerName", is("Test Beer")));
+    }
+
     @Test
     void getBeerByIdNotFound() throws Exception {
         given(beerService.getBeerById(1)).willReturn(Optional.empty());
@@ -132,6 +209,140 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.beerName", is("New Beer")));
     }
 
+    @Test
+    void createBeers() throws Exception {
+        BeerDto firstBeer = BeerDto.builder()
+                .beerName("First Beer")
+                .beerStyle("Lager")
+                .upc("111111")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(50)
+                .build();
+
+        BeerDto secondBeer = BeerDto.builder()
+                .beerName("Second Beer")
+                .beerStyle("Stout")
+                .upc("222222")
+                .price(new BigDecimal("11.99"))
+                .quantityOnHand(20)
+                .build();
+
+        willAnswer(invocation -> {
+            List<BeerDto> beers = invocation.getArgument(0);
+            for (int i = 0; i < beers.size(); i++) {
+                beers.get(i).setId(i + 10);
+            }
+            return beers;
+        }).given(beerService).saveBeers(any());
+
+        mockMvc.perform(post("/api/v1/beers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(firstBeer, secondBeer))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created", hasSize(2)))
+                .andExpect(jsonPath("$.created[0].id", is(10)))
+                .andExpect(jsonPath("$.created[1].beerName", is("Second Beer")))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+    }
+
+    @Test
+    void createBeersPartiallyInvalid() throws Exception {
+        BeerDto validBeer = BeerDto.builder()
+                .beerName("Valid Beer")
+                .beerStyle("Lager")
+                .upc("111111")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(50)
+                .build();
+
+        BeerDto invalidBeer = BeerDto.builder()
+                .beerName("")
+                .beerStyle("Stout")
+                .upc("222222")
+                .price(new BigDecimal("-1.00"))
+                .quantityOnHand(20)
+                .build();
+
+        willAnswer(invocation -> invocation.getArgument(0)).given(beerService).saveBeers(any());
+
+        mockMvc.perform(post("/api/v1/beers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(invalidBeer, validBeer))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created", hasSize(1)))
+                .andExpect(jsonPath("$.created[0].beerName", is("Valid Beer")))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].index", is(0)))
+                .andExpect(jsonPath("$.errors[0].errors.beerName", is("Beer name is required")))
+                .andExpect(jsonPath("$.errors[0].errors.price", is("Price must be positive")));
+    }
+
+    @Test
+    void createBeersReportsBeersOfAFailedChunkAsNotSaved() throws Exception {
+        BeerDto invalidBeer = BeerDto.builder()
+                .beerName("Invalid Beer")
+                .build();
+        List<BeerDto> validBeers = IntStream.range(0, 3)
+                .mapToObj(i -> BeerDto.builder()
+                        .beerName("Beer " + i)
+                        .beerStyle("Lager")
+                        .upc("upc-" + i)
+                        .price(new BigDecimal("9.99"))
+                        .quantityOnHand(50)
+                        .build())
+                .toList();
+
+        willAnswer(invocation -> {
+            List<BeerDto> beers = invocation.getArgument(0);
+            throw new BeerBatchSaveException(beers.subList(0, 1), new IllegalStateException("Chunk failed"));
+        }).given(beerService).saveBeers(any());
+
+        mockMvc.perform(post("/api/v1/beers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validBeers.get(0), validBeers.get(1), invalidBeer,
+                        validBeers.get(2)))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created", hasSize(1)))
+                .andExpect(jsonPath("$.created[0].beerName", is("Beer 0")))
+                .andExpect(jsonPath("$.errors", hasSize(3)))
+                .andExpect(jsonPath("$.errors[0].index", is(1)))
+                .andExpect(jsonPath("$.errors[0].errors.beer", is("Beer could not be saved")))
+                .andExpect(jsonPath("$.errors[1].index", is(2)))
+                .andExpect(jsonPath("$.errors[1].errors.upc", is("UPC is required")))
+                .andExpect(jsonPath("$.errors[2].index", is(3)))
+                .andExpect(jsonPath("$.errors[2].errors.beer", is("Beer could not be saved")));
+    }
+
+    @Test
+    void createBeersRejectsOversizedBatch() throws Exception {
+        String beers = IntStream.range(0, BeerController.MAX_BATCH_SIZE + 1)
+                .mapToObj(i -> "{}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post("/api/v1/beers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(beers))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.error", is("A batch can hold at most 5000 beers")));
+    }
+
+    @Test
+    void createBeersAllInvalid() throws Exception {
+        BeerDto invalidBeer = BeerDto.builder()
+                .beerName("Invalid Beer")
+                .build();
+
+        mockMvc.perform(post("/api/v1/beers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + objectMapper.writeValueAsString(invalidBeer) + ", null]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.created", hasSize(0)))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[0].errors.upc", is("UPC is required")))
+                .andExpect(jsonPath("$.errors[1].index", is(1)))
+                .andExpect(jsonPath("$.errors[1].errors.beer", is("Beer is required")));
+    }
+
     @Test
     void updateBeer() throws Exception {
         BeerDto beerDtoToUpdate = BeerDto.builder()
@@ -151,7 +362,7 @@ class BeerControllerTest {
                 .quantityOnHand(75)
                 .build();
 
-        given(beerService.updateBeer(anyInt(), any(BeerDto.class))).willReturn(Optional.of(updatedBeerDto));
+        given(beerService.updateBeer(anyInt(), any(BeerDto.class), isNull())).willReturn(Optional.of(updatedBeerDto));
 
         mockMvc.perform(put("/api/v1/beers/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -163,6 +374,51 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.beerStyle", is("Stout")));
     }
 
+    @Test
+    void updateBeerWithIfMatch() throws Exception {
+        BeerDto updatedBeerDto = BeerDto.builder()
+                .id(1)
+                .version(3)
+                .beerName("Updated Beer")
+                .beerStyle("Stout")
+                .upc("789012")
+                .price(new BigDecimal("14.99"))
+                .quantityOnHand(75)
+                .build();
+        given(beerService.updateBeer(eq(1), any(BeerDto.class), eq(2))).willReturn(Optional.of(updatedBeerDto));
+
+        mockMvc.perform(put("/api/v1/beers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedBeerDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""));
+    }
+
+    @Test
+    void updateBeerWithStaleIfMatch() throws Exception {
+        given(beerService.updateBeer(eq(1), any(BeerDto.class), eq(1)))
+                .willThrow(new PreconditionFailedException("Beer 1 is at version 2, not 1"));
+
+        mockMvc.perform(put("/api/v1/beers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testBeerDto)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", is("Beer 1 is at version 2, not 1")));
+    }
+
+    @Test
+    void updateBeerWithIfMatchOfAnotherBeer() throws Exception {
+        mockMvc.perform(put("/api/v1/beers/8")
+                .header(HttpHeaders.IF_MATCH, "\"2-1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testBeerDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(beerService, never()).updateBeer(eq(8), any(), any());
+    }
+
     @Test
     void updateBeerNotFound() throws Exception {
         BeerDto beerDtoToUpdate = BeerDto.builder()
@@ -173,7 +429,7 @@ class BeerControllerTest {
                 .quantityOnHand(75)
                 .build();
 
-        given(beerService.updateBeer(anyInt(), any(BeerDto.class))).willReturn(Optional.empty());
+        given(beerService.updateBeer(anyInt(), any(BeerDto.class), isNull())).willReturn(Optional.empty());
 
         mockMvc.perform(put("/api/v1/beers/999")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -183,17 +439,40 @@ class BeerControllerTest {
 
     @Test
     void deleteBeer() throws Exception {
-        given(beerService.deleteBeer(1)).willReturn(true);
+        given(beerService.deleteBeer(1, null)).willReturn(true);
 
         mockMvc.perform(delete("/api/v1/beers/1"))
                 .andExpect(status().isNoContent());
 
-        verify(beerService).deleteBeer(1);
+        verify(beerService).deleteBeer(1, null);
+    }
+
+    @Test
+    void deleteBeerWithIfMatch() throws Exception {
+        given(beerService.deleteBeer(1, 4)).willReturn(true);
+
+        mockMvc.perform(delete("/api/v1/beers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-4\""))
+                .andExpect(status().isNoContent());
+
+        verify(beerService).deleteBeer(1, 4);
+    }
+
+    @Test
+    void deleteBeerWithIfMatchListingTheCurrentVersionAmongOthers() throws Exception {
+        given(beerService.getBeerVersion(5)).willReturn(Optional.of(4));
+        given(beerService.deleteBeer(5, 4)).willReturn(true);
+
+        mockMvc.perform(delete("/api/v1/beers/5")
+                .header(HttpHeaders.IF_MATCH, "\"5-3\", \"5-4\""))
+                .andExpect(status().isNoContent());
+
+        verify(beerService).deleteBeer(5, 4);
     }
 
     @Test
     void deleteBeerNotFound() throws Exception {
-        given(beerService.deleteBeer(999)).willReturn(false);
+        given(beerService.deleteBeer(999, null)).willReturn(false);
 
         mockMvc.perform(delete("/api/v1/beers/999"))
                 .andExpect(status().isNotFound());
@@ -299,6 +578,56 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.content[0].beerStyle", is("IPA")));
     }
 
+    @Test
+    void getBeerSliceWithoutCount() throws Exception {
+        // Given
+        SliceDto<BeerDto> beerSlice = SliceDto.<BeerDto>builder()
+                .content(List.of(testBeerDto))
+                .page(0)
+                .size(1)
+                .hasNext(true)
+                .build();
+        given(beerService.getBeerSlice(Mockito.eq("Test"), Mockito.isNull(), any(Pageable.class),
+                Mockito.eq(CountMode.NONE))).willReturn(beerSlice);
+
+        // When / Then
+        mockMvc.perform(get("/api/v1/beers")
+                .param("page", "0")
+                .param("size", "1")
+                .param("count", "NONE")
+                .param("beerName", "Test")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].beerName", is("Test Beer")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void getBeerSliceWithCachedCount() throws Exception {
+        // Given
+        SliceDto<BeerDto> beerSlice = SliceDto.<BeerDto>builder()
+                .content(List.of(testBeerDto))
+                .page(0)
+                .size(10)
+                .hasNext(false)
+                .totalElements(1L)
+                .build();
+        given(beerService.getBeerSlice(Mockito.isNull(), Mockito.isNull(), any(Pageable.class),
+                Mockito.eq(CountMode.CACHED))).willReturn(beerSlice);
+
+        // When / Then
+        mockMvc.perform(get("/api/v1/beers")
+                .param("page", "0")
+                .param("size", "10")
+                .param("count", "CACHED")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
     @Test
     void getAllBeersWithPaginationAndBeerNameAndBeerStyle() throws Exception {
         // Create a list of beers filtered by name and style
@@ -344,7 +673,7 @@ class BeerControllerTest {
                 .build();
 
         // Mock the service method
-        given(beerService.patchBeer(anyInt(), any(BeerPathDto.class))).willReturn(Optional.of(updatedBeerDto));
+        given(beerService.patchBeer(anyInt(), any(BeerPathDto.class), isNull())).willReturn(Optional.of(updatedBeerDto));
 
         // Perform the request and verify the response
         mockMvc.perform(patch("/api/v1/beers/1")
@@ -367,7 +696,7 @@ class BeerControllerTest {
                 .build();
 
         // Mock the service method to return empty (beer not found)
-        given(beerService.patchBeer(anyInt(), any(BeerPathDto.class))).willReturn(Optional.empty());
+        given(beerService.patchBeer(anyInt(), any(BeerPathDto.class), isNull())).willReturn(Optional.empty());
 
         // Perform the request and verify the response
         mockMvc.perform(patch("/api/v1/beers/999")
@@ -375,4 +704,71 @@ class BeerControllerTest {
                 .content(objectMapper.writeValueAsString(beerPathDto)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void patchBeerWithIfMatchAndPreferMinimalReturnsOnlyTheNewETag() throws Exception {
+        BeerPathDto beerPathDto = BeerPathDto.builder()
+                .price(new BigDecimal("16.99"))
+                .build();
+        given(beerService.patchBeerAtVersion(eq(1), any(BeerPathDto.class), eq(2))).willReturn(Optional.of(3));
+
+        mockMvc.perform(patch("/api/v1/beers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-2\"")
+                .header("Prefer", "return=minimal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(beerPathDto)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void patchBeerWithPreferMinimalButNoIfMatchReturnsTheBeer() throws Exception {
+        BeerPathDto beerPathDto = BeerPathDto.builder()
+                .price(new BigDecimal("16.99"))
+                .build();
+        BeerDto patchedBeerDto = BeerDto.builder()
+                .id(2)
+                .version(5)
+                .beerName("Test Beer")
+                .price(new BigDecimal("16.99"))
+                .build();
+        given(beerService.patchBeer(eq(2), any(BeerPathDto.class), isNull())).willReturn(Optional.of(patchedBeerDto));
+
+        mockMvc.perform(patch("/api/v1/beers/2")
+                .header("Prefer", "return=minimal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(beerPathDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-5\""))
+                .andExpect(header().doesNotExist("Preference-Applied"))
+                .andExpect(jsonPath("$.price", is(16.99)));
+    }
+
+    @Test
+    void patchBeerWithPreferMinimalAndStaleIfMatch() throws Exception {
+        given(beerService.patchBeerAtVersion(eq(1), any(BeerPathDto.class), eq(1)))
+                .willThrow(new PreconditionFailedException("Beer 1 is not at version 1"));
+
+        mockMvc.perform(patch("/api/v1/beers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-1\"")
+                .header("Prefer", "return=minimal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(BeerPathDto.builder().upc("654321").build())))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", is("Beer 1 is not at version 1")));
+    }
+
+    @Test
+    void patchBeerThatKeepsConflictingIsAConflict() throws Exception {
+        given(beerService.patchBeer(eq(3), any(BeerPathDto.class), isNull()))
+                .willThrow(new ObjectOptimisticLockingFailureException(Beer.class, 3));
+
+        mockMvc.perform(patch("/api/v1/beers/3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(BeerPathDto.builder().quantityOnHand(5).build())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("The resource was changed concurrently, retry the request")));
+    }
 }
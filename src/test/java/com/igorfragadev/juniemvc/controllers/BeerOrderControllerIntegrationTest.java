@@ -0,0 +1,151 @@
+package com.igorfragadev.juniemvc.controllers;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.services.BeerOrderService;
+import com.igorfragadev.juniemvc.services.BeerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs order updates through the whole stack, where what the JSON body leaves out decides what is changed and
+ * the stock the order takes shows up on its beers without changing their ETags.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BeerOrderControllerIntegrationTest {
+
+    private static final int STOCK = 50;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    BeerDto beer;
+    BeerOrderDto beerOrder;
+
+    @BeforeEach
+    void setUp() {
+        beer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Kept Lines Lager")
+                .beerStyle("Lager")
+                .upc("kept-lines-123")
+                .price(new BigDecimal("4.99"))
+                .quantityOnHand(STOCK)
+                .build());
+        beerOrder = beerOrderService.saveBeerOrder(BeerOrderDto.builder()
+                .customerRef("KEPT-LINES")
+                .paymentAmount(new BigDecimal("14.97"))
+                .beerOrderLines(List.of(BeerOrderLineDto.builder()
+                        .beerId(beer.getId())
+                        .orderQuantity(3)
+                        .build()))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerOrderService.deleteBeerOrder(beerOrder.getId(), null);
+        beerService.deleteBeer(beer.getId(), null);
+    }
+
+    @Test
+    void updateBeerOrderWithoutLinesKeepsLinesAndStock() throws Exception {
+        // when
+        mockMvc.perform(put("/api/v1/beer-orders/{orderId}", beerOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"customerRef": "KEPT-LINES-UPDATED", "paymentAmount": 15.97}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerRef", is("KEPT-LINES-UPDATED")))
+                .andExpect(jsonPath("$.beerOrderLines", hasSize(1)))
+                .andExpect(jsonPath("$.beerOrderLines[0].orderQuantity", is(3)));
+
+        // then
+        assertThat(beerOrderService.getBeerOrderById(beerOrder.getId()))
+                .map(BeerOrderDto::getBeerOrderLines)
+                .hasValueSatisfying(lines -> assertThat(lines).singleElement()
+                        .satisfies(line -> {
+                            assertThat(line.getBeerId()).isEqualTo(beer.getId());
+                            assertThat(line.getOrderQuantity()).isEqualTo(3);
+                        }));
+        assertThat(beerRepository.findQuantityOnHandById(beer.getId())).contains(STOCK - 3);
+    }
+
+    @Test
+    void updateBeerOrderLinesReturnsTheETagOfTheIncrementedVersion() throws Exception {
+        // when
+        String eTag = mockMvc.perform(put("/api/v1/beer-orders/{orderId}", beerOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"customerRef": "KEPT-LINES", "paymentAmount": 14.97,
+                                 "beerOrderLines": [{"beerId": %d, "orderQuantity": 4}]}
+                                """.formatted(beer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(beerOrder.getVersion() + 1)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // then
+        mockMvc.perform(get("/api/v1/beer-orders/{orderId}", beerOrder.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.version", is(beerOrder.getVersion() + 1)));
+    }
+
+    @Test
+    void updateBeerOrderLinesShowsTheNewStockAndKeepsTheBeerETag() throws Exception {
+        // given
+        String eTag = mockMvc.perform(get("/api/v1/beers/{beerId}", beer.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        mockMvc.perform(put("/api/v1/beer-orders/{orderId}", beerOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"customerRef": "KEPT-LINES", "paymentAmount": 24.95,
+                                 "beerOrderLines": [{"beerId": %d, "orderQuantity": 5}]}
+                                """.formatted(beer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerOrderLines[0].quantityAllocated", is(5)))
+                .andExpect(jsonPath("$.beerOrderLines[0].beer.quantityOnHand", is(STOCK - 5)));
+
+        // then
+        mockMvc.perform(get("/api/v1/beers/{beerId}", beer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.quantityOnHand", is(STOCK - 5)));
+    }
+}
@@ -1,8 +1,15 @@
 package com.igorfragadev.juniemvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorfragadev.juniemvc.exceptions.InvalidCursorException;
+import com.igorfragadev.juniemvc.exceptions.InvalidStatusTransitionException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
 import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionResultDto;
+import com.igorfragadev.juniemvc.models.CursorPageDto;
 import com.igorfragadev.juniemvc.services.BeerOrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,18 +19,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -66,7 +78,7 @@ class BeerOrderControllerTest {
                 .id(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(Arrays.asList(testBeerOrderLineDto))
                 .build();
     }
@@ -84,6 +96,42 @@ class BeerOrderControllerTest {
                 .andExpect(jsonPath("$[0].customerRef", is("TEST-REF-001")));
     }
 
+    @Test
+    void getBeerOrdersPage() throws Exception {
+        CursorPageDto<BeerOrderDto> page = CursorPageDto.<BeerOrderDto>builder()
+                .content(Arrays.asList(testBeerOrderDto))
+                .size(1)
+                .hasNext(true)
+                .nextCursor("next-cursor")
+                .build();
+
+        given(beerOrderService.getBeerOrders(isNull(), eq(1))).willReturn(page);
+
+        mockMvc.perform(get("/api/v1/beer-orders")
+                .param("size", "1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.size", is(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")));
+    }
+
+    @Test
+    void getBeerOrdersPageInvalidCursor() throws Exception {
+        given(beerOrderService.getBeerOrders(eq("not-a-cursor"), anyInt()))
+                .willThrow(new InvalidCursorException("Invalid cursor: not-a-cursor"));
+
+        mockMvc.perform(get("/api/v1/beer-orders")
+                .param("cursor", "not-a-cursor")
+                .param("size", "10")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid cursor: not-a-cursor")));
+    }
+
     @Test
     void getBeerOrderById() throws Exception {
         given(beerOrderService.getBeerOrderById(1)).willReturn(Optional.of(testBeerOrderDto));
@@ -96,6 +144,19 @@ class BeerOrderControllerTest {
                 .andExpect(jsonPath("$.customerRef", is("TEST-REF-001")));
     }
 
+    @Test
+    void getBeerOrderByIdNotModified() throws Exception {
+        given(beerOrderService.getBeerOrderVersion(7)).willReturn(Optional.of(2));
+
+        mockMvc.perform(get("/api/v1/beer-orders/7")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"7-2\"")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7-2\""));
+
+        verify(beerOrderService, never()).getBeerOrderById(7);
+    }
+
     @Test
     void getBeerOrderByIdNotFound() throws Exception {
         given(beerOrderService.getBeerOrderById(1)).willReturn(Optional.empty());
@@ -110,7 +171,7 @@ class BeerOrderControllerTest {
         BeerOrderDto beerOrderDtoToSave = BeerOrderDto.builder()
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(Arrays.asList(testBeerOrderLineDto))
                 .build();
 
@@ -118,7 +179,7 @@ class BeerOrderControllerTest {
                 .id(2)
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(Arrays.asList(testBeerOrderLineDto))
                 .build();
 
@@ -138,26 +199,30 @@ class BeerOrderControllerTest {
         BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
         BeerOrderDto updatedBeerOrderDto = BeerOrderDto.builder()
                 .id(1)
+                .version(3)
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
-        given(beerOrderService.updateBeerOrder(anyInt(), any(BeerOrderDto.class))).willReturn(Optional.of(updatedBeerOrderDto));
+        given(beerOrderService.updateBeerOrder(eq(1), any(BeerOrderDto.class), eq(2)))
+                .willReturn(Optional.of(updatedBeerOrderDto));
 
         mockMvc.perform(put("/api/v1/beer-orders/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-2\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(beerOrderDtoToUpdate)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.customerRef", is("UPDATED-REF-001")))
-                .andExpect(jsonPath("$.status", is("UPDATED")));
+                .andExpect(jsonPath("$.status", is("PICKED")));
     }
 
     @Test
@@ -165,10 +230,10 @@ class BeerOrderControllerTest {
         BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
-        given(beerOrderService.updateBeerOrder(anyInt(), any(BeerOrderDto.class))).willReturn(Optional.empty());
+        given(beerOrderService.updateBeerOrder(anyInt(), any(BeerOrderDto.class), isNull())).willReturn(Optional.empty());
 
         mockMvc.perform(put("/api/v1/beer-orders/999")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -176,19 +241,82 @@ class BeerOrderControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void transitionBeerOrderStatus() throws Exception {
+        BeerOrderStatusTransitionDto transition = BeerOrderStatusTransitionDto.builder()
+                .from(BeerOrderStatus.NEW)
+                .to(BeerOrderStatus.PICKED)
+                .beerOrderIds(List.of(1, 2, 3))
+                .build();
+
+        given(beerOrderService.transitionBeerOrderStatus(any(BeerOrderStatusTransitionDto.class)))
+                .willReturn(BeerOrderStatusTransitionResultDto.builder()
+                        .from(BeerOrderStatus.NEW)
+                        .to(BeerOrderStatus.PICKED)
+                        .transitioned(List.of(1, 3))
+                        .skipped(List.of(2))
+                        .build());
+
+        mockMvc.perform(post("/api/v1/beer-orders/status-transitions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transition)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.to", is("PICKED")))
+                .andExpect(jsonPath("$.transitioned", hasSize(2)))
+                .andExpect(jsonPath("$.skipped[0]", is(2)));
+    }
+
+    @Test
+    void transitionBeerOrderStatusNotAllowed() throws Exception {
+        BeerOrderStatusTransitionDto transition = BeerOrderStatusTransitionDto.builder()
+                .from(BeerOrderStatus.NEW)
+                .to(BeerOrderStatus.DELIVERED)
+                .beerOrderIds(List.of(1))
+                .build();
+
+        given(beerOrderService.transitionBeerOrderStatus(any(BeerOrderStatusTransitionDto.class)))
+                .willThrow(new InvalidStatusTransitionException(BeerOrderStatus.NEW, BeerOrderStatus.DELIVERED));
+
+        mockMvc.perform(post("/api/v1/beer-orders/status-transitions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transition)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void transitionBeerOrderStatusValidationError() throws Exception {
+        mockMvc.perform(post("/api/v1/beer-orders/status-transitions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from\":\"NEW\",\"beerOrderIds\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.to", is("To status is required")))
+                .andExpect(jsonPath("$.beerOrderIds", is("Beer order IDs are required")));
+    }
+
     @Test
     void deleteBeerOrder() throws Exception {
-        given(beerOrderService.deleteBeerOrder(1)).willReturn(true);
+        given(beerOrderService.deleteBeerOrder(1, null)).willReturn(true);
 
         mockMvc.perform(delete("/api/v1/beer-orders/1"))
                 .andExpect(status().isNoContent());
 
-        verify(beerOrderService).deleteBeerOrder(1);
+        verify(beerOrderService).deleteBeerOrder(1, null);
+    }
+
+    @Test
+    void deleteBeerOrderWithStaleIfMatch() throws Exception {
+        given(beerOrderService.deleteBeerOrder(2, 1))
+                .willThrow(new PreconditionFailedException("Beer order 2 is at version 3, not 1"));
+
+        mockMvc.perform(delete("/api/v1/beer-orders/2")
+                .header(HttpHeaders.IF_MATCH, "\"2-1\""))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
     void deleteBeerOrderNotFound() throws Exception {
-        given(beerOrderService.deleteBeerOrder(999)).willReturn(false);
+        given(beerOrderService.deleteBeerOrder(999, null)).willReturn(false);
 
         mockMvc.perform(delete("/api/v1/beer-orders/999"))
                 .andExpect(status().isNotFound());
@@ -1,7 +1,9 @@
 package com.igorfragadev.juniemvc.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
 import com.igorfragadev.juniemvc.services.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -21,6 +24,8 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -53,6 +58,7 @@ class CustomerControllerTest {
     void setUp() {
         testCustomerDto = CustomerDto.builder()
                 .id(1)
+                .version(1)
                 .name("John Doe")
                 .email("john.doe@example.com")
                 .phone("+1-555-123-4567")
@@ -85,6 +91,7 @@ class CustomerControllerTest {
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-1\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("John Doe")));
     }
@@ -147,6 +154,7 @@ class CustomerControllerTest {
 
         CustomerDto updatedCustomerDto = CustomerDto.builder()
                 .id(1)
+                .version(2)
                 .name("John Updated")
                 .email("john.updated@example.com")
                 .phone("+1-555-123-4567")
@@ -164,6 +172,7 @@ class CustomerControllerTest {
                 .content(objectMapper.writeValueAsString(customerDtoToUpdate)))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-2\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("John Updated")))
                 .andExpect(jsonPath("$.email", is("john.updated@example.com")));
@@ -225,4 +234,104 @@ class CustomerControllerTest {
                 .content(objectMapper.writeValueAsString(invalidCustomerDto)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void patchCustomer() throws Exception {
+        CustomerPatchDto customerPatchDto = CustomerPatchDto.builder()
+                .city("Shelbyville")
+                .build();
+        testCustomerDto.setCity("Shelbyville");
+        testCustomerDto.setVersion(2);
+        given(customerService.patchCustomer(eq(1), any(CustomerPatchDto.class), isNull()))
+                .willReturn(Optional.of(testCustomerDto));
+
+        mockMvc.perform(patch("/api/v1/customers/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customerPatchDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-2\""))
+                .andExpect(jsonPath("$.name", is("John Doe")))
+                .andExpect(jsonPath("$.city", is("Shelbyville")));
+    }
+
+    @Test
+    void patchCustomerWithBlankRequiredProperties() throws Exception {
+        CustomerPatchDto customerPatchDto = CustomerPatchDto.builder()
+                .name("")
+                .city("   ")
+                .build();
+
+        mockMvc.perform(patch("/api/v1/customers/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(customerPatchDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.name", is("Name must not be blank")))
+                .andExpect(jsonPath("$.city", is("City must not be blank")));
+    }
+
+    @Test
+    void patchCustomerNotFound() throws Exception {
+        given(customerService.patchCustomer(eq(999), any(CustomerPatchDto.class), isNull()))
+                .willReturn(Optional.empty());
+
+        mockMvc.perform(patch("/api/v1/customers/999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CustomerPatchDto.builder().city("Shelbyville").build())))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchCustomerWithStaleIfMatch() throws Exception {
+        given(customerService.patchCustomer(eq(1), any(CustomerPatchDto.class), eq(1)))
+                .willThrow(new PreconditionFailedException("Customer 1 is at version 2, not 1"));
+
+        mockMvc.perform(patch("/api/v1/customers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CustomerPatchDto.builder().city("Shelbyville").build())))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", is("Customer 1 is at version 2, not 1")));
+    }
+
+    @Test
+    void patchCustomerWithIfMatchAndPreferMinimalReturnsOnlyTheNewETag() throws Exception {
+        given(customerService.patchCustomerAtVersion(eq(1), any(CustomerPatchDto.class), eq(4)))
+                .willReturn(Optional.of(5));
+
+        mockMvc.perform(patch("/api/v1/customers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-4\"")
+                .header("Prefer", "return=minimal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CustomerPatchDto.builder().phone("+1-555-000-0000").build())))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-5\""))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void patchCustomerWithIfMatchListingTheCurrentVersionAmongOthers() throws Exception {
+        given(customerService.getCustomerVersion(1)).willReturn(Optional.of(4));
+        given(customerService.patchCustomerAtVersion(eq(1), any(CustomerPatchDto.class), eq(4)))
+                .willReturn(Optional.of(5));
+
+        mockMvc.perform(patch("/api/v1/customers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1-3\", \"1-4\"")
+                .header("Prefer", "return=minimal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CustomerPatchDto.builder().phone("+1-555-000-0000").build())))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-5\""));
+    }
+
+    @Test
+    void patchCustomerWithIfMatchListingOnlyOlderVersions() throws Exception {
+        given(customerService.getCustomerVersion(2)).willReturn(Optional.of(4));
+
+        mockMvc.perform(patch("/api/v1/customers/2")
+                .header(HttpHeaders.IF_MATCH, "\"2-2\", \"2-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CustomerPatchDto.builder().city("Shelbyville").build())))
+                .andExpect(status().isPreconditionFailed());
+    }
+}
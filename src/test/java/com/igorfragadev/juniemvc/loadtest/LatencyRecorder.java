@@ -0,0 +1,83 @@
+package com.igorfragadev.juniemvc.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records request latencies per endpoint. Not thread-safe: every load worker owns one and they are merged at the end,
+ * so recording never contends.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByEndpoint = new TreeMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples()).add(latencyNanos, success);
+    }
+
+    void merge(LatencyRecorder other) {
+        other.samplesByEndpoint.forEach((endpoint, samples) ->
+                samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples()).addAll(samples));
+    }
+
+    /**
+     * Summarize the recorded latencies
+     * @param elapsedNanos Length of the measurement window, for throughput
+     * @return One summary per endpoint, ordered by endpoint
+     */
+    Map<String, EndpointSummary> summarize(long elapsedNanos) {
+        Map<String, EndpointSummary> summaries = new TreeMap<>();
+        samplesByEndpoint.forEach((endpoint, samples) -> summaries.put(endpoint, samples.summarize(elapsedNanos)));
+        return summaries;
+    }
+
+    /**
+     * Throughput and latency percentiles of one endpoint; latencies are in milliseconds
+     */
+    record EndpointSummary(long requests, long errors, double throughputPerSecond,
+                           double p50, double p99, double p999, double max) {
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long latencyNanos, boolean success) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(size + other.size, latencies.length * 2));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        EndpointSummary summarize(long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new EndpointSummary(size, errors, size * 1e9 / elapsedNanos,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    millis(sorted[sorted.length - 1]));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return millis(sorted[Math.clamp(index, 0, sorted.length - 1)]);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.igorfragadev.juniemvc.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from system properties so runs can be tuned from the Maven command line:
+ * <pre>
+ * mvn -Ploadtest test -Dloadtest.duration=60s -Dloadtest.concurrency=128 -Dloadtest.mix=catalog=80,order=15,shipment=5
+ * </pre>
+ *
+ * @param warmup How long to drive load before measuring
+ * @param duration How long to measure
+ * @param concurrency Number of virtual threads issuing requests back to back
+ * @param mix Relative weight of each workload
+ * @param label Name of the run in the results file, e.g. a commit hash
+ * @param resultsFile CSV file the results are appended to
+ */
+record LoadTestSettings(Duration warmup, Duration duration, int concurrency, Map<Workload, Integer> mix,
+                        String label, Path resultsFile) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                parseDuration(System.getProperty("loadtest.warmup", "10s")),
+                parseDuration(System.getProperty("loadtest.duration", "30s")),
+                Integer.parseInt(System.getProperty("loadtest.concurrency", "64")),
+                parseMix(System.getProperty("loadtest.mix", "catalog=75,customer=5,order=15,shipment=5")),
+                System.getProperty("loadtest.label", "local"),
+                Path.of(System.getProperty("loadtest.results", "target/loadtest/results.csv")));
+    }
+
+    /**
+     * Parse a duration such as "30s", "2m" or an ISO-8601 value such as "PT30S"
+     */
+    static Duration parseDuration(String value) {
+        String text = value.trim().toUpperCase(Locale.ROOT);
+        return Duration.parse(text.startsWith("P") ? text : "PT" + text);
+    }
+
+    /**
+     * Parse a workload mix such as "catalog=80,order=15,shipment=5"; workloads not listed get no traffic
+     */
+    static Map<Workload, Integer> parseMix(String value) {
+        Map<Workload, Integer> mix = new EnumMap<>(Workload.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid workload mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Workload.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix has no positive weight: " + value);
+        }
+        return mix;
+    }
+
+    /**
+     * Kinds of traffic the load test can generate
+     */
+    enum Workload {
+        /** Beer catalog reads: a page of beers or a single beer */
+        CATALOG,
+        /** Customer reads */
+        CUSTOMER,
+        /** Order creation, including stock allocation */
+        ORDER,
+        /** Shipment updates */
+        SHIPMENT
+    }
+}
@@ -0,0 +1,88 @@
+package com.igorfragadev.juniemvc.loadtest;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts virtual threads that block while pinned to their carrier, from the JFR {@code jdk.VirtualThreadPinned}
+ * event. A virtual thread is pinned when it parks inside a {@code synchronized} block or a native frame; while it
+ * waits, its carrier can run nothing else, so pinning on the JDBC path caps concurrency at the carrier count.
+ * <p>
+ * Events are grouped by their first frame outside the JDK, which names the library or application code that
+ * blocked, e.g. a connection pool wait or a driver lock.
+ */
+class PinningRecorder implements AutoCloseable {
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Map<String, LongAdder> eventsBySite = new ConcurrentHashMap<>();
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    PinningRecorder() {
+        stream.enable("jdk.VirtualThreadPinned").withStackTrace().withThreshold(Duration.ZERO);
+        stream.onEvent("jdk.VirtualThreadPinned", this::record);
+    }
+
+    void start() {
+        stream.startAsync();
+    }
+
+    /**
+     * Stop recording, once every event emitted so far has been counted
+     */
+    void stop() {
+        stream.stop();
+    }
+
+    long events() {
+        return eventsBySite.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Duration pinnedTime() {
+        return Duration.ofNanos(pinnedNanos.sum());
+    }
+
+    /**
+     * The sites that pinned most often, most frequent first
+     * @param limit The maximum number of sites to return
+     * @return Each site with its event count
+     */
+    List<Map.Entry<String, Long>> topSites(int limit) {
+        return eventsBySite.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void record(RecordedEvent event) {
+        pinnedNanos.add(event.getDuration().toNanos());
+        eventsBySite.computeIfAbsent(site(event.getStackTrace()), key -> new LongAdder()).increment();
+    }
+
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "<no stack trace>";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String className = frame.getMethod().getType().getName();
+            if (!className.startsWith("java.") && !className.startsWith("jdk.") && !className.startsWith("sun.")) {
+                return className + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "<JDK only>";
+    }
+}
@@ -0,0 +1,311 @@
+package com.igorfragadev.juniemvc.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igorfragadev.juniemvc.loadtest.LatencyRecorder.EndpointSummary;
+import com.igorfragadev.juniemvc.loadtest.LoadTestSettings.Workload;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.services.BeerOrderService;
+import com.igorfragadev.juniemvc.services.BeerOrderShipmentService;
+import com.igorfragadev.juniemvc.services.BeerService;
+import com.igorfragadev.juniemvc.services.CustomerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test of the REST API. Starts the application on a random port against its own seeded
+ * in-memory database, drives a weighted mix of workloads from virtual threads, and appends throughput and
+ * p50/p99/p99.9 latency per endpoint to a CSV file so runs can be compared across commits.
+ * <p>
+ * Each row also records how the server ran: on virtual or platform request threads, with which connection pool
+ * size, and how often a virtual thread blocked while pinned to its carrier during the measured window. Compare
+ * serving modes by overriding the application properties on the command line:
+ * <pre>
+ * mvn -Ploadtest test -Dspring.threads.virtual.enabled=true -Dspring.datasource.hikari.maximum-pool-size=20
+ * </pre>
+ * Excluded from the regular build; run with {@code mvn -Ploadtest test}. See {@link LoadTestSettings} for options.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest-${random.uuid};DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class RestApiLoadTest {
+
+    private static final int BEER_COUNT = 500;
+    private static final int CUSTOMER_COUNT = 100;
+    private static final int ORDER_COUNT = 200;
+
+    @LocalServerPort
+    int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    int poolSize;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerOrderShipmentService beerOrderShipmentService;
+
+    LoadTestSettings settings;
+    HttpClient httpClient;
+    List<Integer> beerIds;
+    List<Integer> customerIds;
+    List<BeerOrderShipmentDto> shipments;
+    Workload[] workloadTable;
+
+    @BeforeEach
+    void setUp() {
+        settings = LoadTestSettings.fromSystemProperties();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        seed();
+
+        // One slot per unit of weight, so picking a random slot honours the mix
+        workloadTable = settings.mix().entrySet().stream()
+                .flatMap(entry -> IntStream.range(0, entry.getValue()).mapToObj(i -> entry.getKey()))
+                .toArray(Workload[]::new);
+    }
+
+    @Test
+    void runMixedWorkload() throws Exception {
+        System.out.printf("Load test: %s warmup, %s measured, %d virtual threads, mix %s, "
+                        + "server on %s threads with %d connections%n",
+                settings.warmup(), settings.duration(), settings.concurrency(), settings.mix(), threadMode(), poolSize);
+
+        drive(settings.warmup().toNanos());
+        Map<String, EndpointSummary> summaries;
+        try (PinningRecorder pinning = new PinningRecorder()) {
+            pinning.start();
+            long start = System.nanoTime();
+            LatencyRecorder recorder = drive(settings.duration().toNanos());
+            long elapsedNanos = System.nanoTime() - start;
+            pinning.stop();
+
+            summaries = recorder.summarize(elapsedNanos);
+            report(summaries, pinning);
+        }
+
+        assertThat(summaries).isNotEmpty();
+        assertThat(summaries.values()).allSatisfy(summary -> assertThat(summary.requests()).isPositive());
+    }
+
+    /**
+     * Issue requests from every worker until the window closes
+     * @return The merged latencies of all workers
+     */
+    private LatencyRecorder drive(long windowNanos) throws Exception {
+        long deadline = System.nanoTime() + windowNanos;
+        List<Future<LatencyRecorder>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                workers.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    while (System.nanoTime() < deadline) {
+                        Workload workload = workloadTable[ThreadLocalRandom.current().nextInt(workloadTable.length)];
+                        issue(workload, recorder);
+                    }
+                    return recorder;
+                }));
+            }
+        }
+        LatencyRecorder merged = new LatencyRecorder();
+        for (Future<LatencyRecorder> worker : workers) {
+            merged.merge(worker.get());
+        }
+        return merged;
+    }
+
+    private void issue(Workload workload, LatencyRecorder recorder) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (workload) {
+            case CATALOG -> {
+                if (random.nextBoolean()) {
+                    send(recorder, "GET /api/v1/beers?page&size",
+                            get("/api/v1/beers?page=" + random.nextInt(BEER_COUNT / 20) + "&size=20"));
+                } else {
+                    send(recorder, "GET /api/v1/beers/{beerId}", get("/api/v1/beers/" + pick(beerIds)));
+                }
+            }
+            case CUSTOMER -> send(recorder, "GET /api/v1/customers/{customerId}",
+                    get("/api/v1/customers/" + pick(customerIds)));
+            case ORDER -> send(recorder, "POST /api/v1/beer-orders",
+                    json("/api/v1/beer-orders", "POST", newOrder(1 + random.nextInt(5))));
+            case SHIPMENT -> {
+                BeerOrderShipmentDto shipment = pick(shipments);
+                send(recorder, "PUT /api/v1/beer-order-shipments/{shipmentId}",
+                        json("/api/v1/beer-order-shipments/" + shipment.getId(), "PUT", BeerOrderShipmentDto.builder()
+                                .beerOrderId(shipment.getBeerOrderId())
+                                .shipmentDate(LocalDate.now())
+                                .carrier(random.nextBoolean() ? "UPS" : "FedEx")
+                                .trackingNumber("TRK-" + random.nextInt(1_000_000))
+                                .build()));
+            }
+        }
+    }
+
+    private void send(LatencyRecorder recorder, String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.record(endpoint, System.nanoTime() - start, success);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest json(String path, String method, Object body) throws IOException {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void report(Map<String, EndpointSummary> summaries, PinningRecorder pinning) throws IOException {
+        System.out.printf("%-48s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        summaries.forEach((endpoint, s) -> System.out.printf("%-48s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, s.requests(), s.errors(), s.throughputPerSecond(), s.p50(), s.p99(), s.p999(), s.max()));
+        System.out.printf("Pinned virtual threads: %d events, %d ms in total%n",
+                pinning.events(), pinning.pinnedTime().toMillis());
+        pinning.topSites(5).forEach(site -> System.out.printf("  %7d  %s%n", site.getValue(), site.getKey()));
+
+        Files.createDirectories(settings.resultsFile().toAbsolutePath().getParent());
+        boolean newFile = Files.notExists(settings.resultsFile());
+        List<String> lines = new ArrayList<>();
+        if (newFile) {
+            lines.add("timestamp,label,concurrency,mix,threads,pool_size,pinned_events,endpoint,requests,errors,"
+                    + "throughput_per_s,p50_ms,p99_ms,p999_ms,max_ms");
+        }
+        String timestamp = Instant.now().toString();
+        String mix = settings.mix().entrySet().stream()
+                .map(entry -> entry.getKey().name().toLowerCase(Locale.ROOT) + "=" + entry.getValue())
+                .reduce((a, b) -> a + " " + b)
+                .orElse("");
+        summaries.forEach((endpoint, s) -> lines.add(String.format(Locale.ROOT,
+                "%s,%s,%d,%s,%s,%d,%d,\"%s\",%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+                timestamp, settings.label(), settings.concurrency(), mix, threadMode(), poolSize, pinning.events(),
+                endpoint,
+                s.requests(), s.errors(), s.throughputPerSecond(), s.p50(), s.p99(), s.p999(), s.max())));
+        Files.write(settings.resultsFile(), lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        System.out.println("Results appended to " + settings.resultsFile().toAbsolutePath());
+    }
+
+    private String threadMode() {
+        return virtualThreads ? "virtual" : "platform";
+    }
+
+    private void seed() {
+        beerIds = beerService.saveBeers(IntStream.range(0, BEER_COUNT)
+                        .mapToObj(i -> BeerDto.builder()
+                                .beerName("Load Beer " + i)
+                                .beerStyle(i % 2 == 0 ? "IPA" : "LAGER")
+                                .upc("load-" + i)
+                                .price(new BigDecimal("9.99"))
+                                // Enough stock that orders are allocated rather than backordered for the whole run
+                                .quantityOnHand(10_000_000)
+                                .build())
+                        .toList())
+                .stream()
+                .map(BeerDto::getId)
+                .toList();
+
+        customerIds = IntStream.range(0, CUSTOMER_COUNT)
+                .mapToObj(i -> customerService.saveCustomer(CustomerDto.builder()
+                        .name("Load Customer " + i)
+                        .email("customer" + i + "@example.com")
+                        .addressLine1(i + " Main Street")
+                        .city("Springfield")
+                        .state("IL")
+                        .postalCode("62701")
+                        .build()).getId())
+                .toList();
+
+        shipments = IntStream.range(0, ORDER_COUNT)
+                .mapToObj(i -> beerOrderService.saveBeerOrder(newOrder(3)))
+                .map(order -> beerOrderShipmentService.saveBeerOrderShipment(BeerOrderShipmentDto.builder()
+                        .beerOrderId(order.getId())
+                        .shipmentDate(LocalDate.now())
+                        .carrier("UPS")
+                        .trackingNumber("TRK-" + order.getId())
+                        .build()))
+                .toList();
+    }
+
+    private BeerOrderDto newOrder(int lineCount) {
+        return BeerOrderDto.builder()
+                .customerRef("LOAD-" + pick(customerIds))
+                .paymentAmount(new BigDecimal("29.97"))
+                .status(BeerOrderStatus.NEW)
+                .beerOrderLines(IntStream.range(0, lineCount)
+                        .mapToObj(i -> BeerOrderLineDto.builder()
+                                .beerId(pick(beerIds))
+                                .orderQuantity(1 + ThreadLocalRandom.current().nextInt(3))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
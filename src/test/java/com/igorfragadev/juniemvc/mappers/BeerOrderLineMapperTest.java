@@ -5,6 +5,7 @@ import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
@@ -54,7 +55,7 @@ class BeerOrderLineMapperTest {
                 .version(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .createdDate(now)
                 .updatedDate(now)
                 .build();
@@ -6,6 +6,7 @@ import com.igorfragadev.juniemvc.entities.BeerOrderLine;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
 import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
@@ -73,7 +74,7 @@ class BeerOrderMapperTest {
                 .version(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .createdDate(now)
                 .updatedDate(now)
                 .beerOrderLines(orderLines)
@@ -104,7 +105,7 @@ class BeerOrderMapperTest {
                 .version(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .createdDate(now)
                 .updatedDate(now)
                 .beerOrderLines(orderLineDtos)
@@ -3,6 +3,7 @@ package com.igorfragadev.juniemvc.mappers;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
 import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
@@ -30,7 +31,7 @@ class BeerOrderShipmentMapperTest {
                 .id(1)
                 .version(1)
                 .customerRef("TEST-REF-001")
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         // Create test beer order shipment
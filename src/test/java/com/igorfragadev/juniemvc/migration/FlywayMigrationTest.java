@@ -3,12 +3,15 @@ package com.igorfragadev.juniemvc.migration;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import com.igorfragadev.juniemvc.repositories.BeerOrderLineRepository;
 import com.igorfragadev.juniemvc.repositories.BeerOrderRepository;
 import com.igorfragadev.juniemvc.repositories.BeerRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +33,9 @@ class FlywayMigrationTest {
     @Autowired
     private BeerOrderLineRepository beerOrderLineRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @Transactional
     void testMigration() {
@@ -48,7 +54,7 @@ class FlywayMigrationTest {
         BeerOrder beerOrder = BeerOrder.builder()
                 .customerRef("Test Customer")
                 .paymentAmount(new BigDecimal("21.98"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
         BeerOrder savedBeerOrder = beerOrderRepository.save(beerOrder);
         assertNotNull(savedBeerOrder.getId());
@@ -70,4 +76,12 @@ class FlywayMigrationTest {
         assertEquals(savedBeer.getId(), orderLines.get(0).getBeer().getId());
         assertEquals(savedBeerOrder.getId(), orderLines.get(0).getBeerOrder().getId());
     }
+
+    @Test
+    void testBeerOrderRequiresCreatedDate() {
+        // The (created_date, id) keyset never reaches an order without a creation date
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "insert into beer_order (id, version, customer_ref, payment_amount, status) "
+                        + "values (next value for beer_order_seq, 0, 'No Date', 9.99, 'NEW')"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.igorfragadev.juniemvc.repositories;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.BeerOrder;
+import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC round trips needed to insert a large order, which sequence IDs and
+ * Hibernate insert batching bring down from one statement per row to one per batch.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BeerOrderBatchInsertTest {
+
+    private static final int LINE_COUNT = 200;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testSaveLargeBeerOrderBatchesInserts() {
+        // Given
+        Beer beer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Test Beer")
+                .beerStyle("IPA")
+                .upc("123456")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(100)
+                .build());
+
+        BeerOrder beerOrder = BeerOrder.builder()
+                .customerRef("TEST-REF-001")
+                .paymentAmount(new BigDecimal("129.90"))
+                .status(BeerOrderStatus.NEW)
+                .build();
+        for (int i = 0; i < LINE_COUNT; i++) {
+            beerOrder.addBeerOrderLine(BeerOrderLine.builder()
+                    .beer(beer)
+                    .orderQuantity(1)
+                    .quantityAllocated(0)
+                    .status("NEW")
+                    .build());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        beerOrderRepository.saveAndFlush(beerOrder);
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINE_COUNT + 1);
+        // 1 order insert, 4 batches of 50 lines and a handful of sequence calls instead of 201 inserts
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(12);
+    }
+}
@@ -3,6 +3,7 @@ package com.igorfragadev.juniemvc.repositories;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,7 +46,7 @@ class BeerOrderLineRepositoryTest {
         testBeerOrder = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
         testBeerOrder = beerOrderRepository.save(testBeerOrder);
     }
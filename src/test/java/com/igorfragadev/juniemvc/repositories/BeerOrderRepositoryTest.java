@@ -3,10 +3,15 @@ package com.igorfragadev.juniemvc.repositories;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,6 +28,12 @@ class BeerOrderRepositoryTest {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
     Beer testBeer;
     BeerOrder testBeerOrder;
 
@@ -45,7 +56,7 @@ class BeerOrderRepositoryTest {
         BeerOrder beerOrder = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderLine beerOrderLine = BeerOrderLine.builder()
@@ -73,7 +84,7 @@ class BeerOrderRepositoryTest {
         BeerOrder beerOrder = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderLine beerOrderLine = BeerOrderLine.builder()
@@ -103,7 +114,7 @@ class BeerOrderRepositoryTest {
         BeerOrder beerOrder = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderLine beerOrderLine = BeerOrderLine.builder()
@@ -118,12 +129,12 @@ class BeerOrderRepositoryTest {
 
         // When
         savedBeerOrder.setCustomerRef("UPDATED-REF-001");
-        savedBeerOrder.setStatus("UPDATED");
+        savedBeerOrder.setStatus(BeerOrderStatus.PICKED);
         BeerOrder updatedBeerOrder = beerOrderRepository.save(savedBeerOrder);
 
         // Then
         assertThat(updatedBeerOrder.getCustomerRef()).isEqualTo("UPDATED-REF-001");
-        assertThat(updatedBeerOrder.getStatus()).isEqualTo("UPDATED");
+        assertThat(updatedBeerOrder.getStatus()).isEqualTo(BeerOrderStatus.PICKED);
     }
 
     @Test
@@ -132,7 +143,7 @@ class BeerOrderRepositoryTest {
         BeerOrder beerOrder = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderLine beerOrderLine = BeerOrderLine.builder()
@@ -159,7 +170,7 @@ class BeerOrderRepositoryTest {
         BeerOrder beerOrder1 = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderLine beerOrderLine1 = BeerOrderLine.builder()
@@ -174,7 +185,7 @@ class BeerOrderRepositoryTest {
         BeerOrder beerOrder2 = BeerOrder.builder()
                 .customerRef("TEST-REF-002")
                 .paymentAmount(new BigDecimal("259.80"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderLine beerOrderLine2 = BeerOrderLine.builder()
@@ -196,4 +207,109 @@ class BeerOrderRepositoryTest {
         assertThat(beerOrders).isNotNull();
         assertThat(beerOrders.size()).isGreaterThanOrEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindWithBeerOrderLinesByIdInitializesAssociations() {
+        // Given
+        BeerOrder savedBeerOrder = saveBeerOrderWithCustomer();
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // When
+        Optional<BeerOrder> fetchedBeerOrderOptional = beerOrderRepository.findWithBeerOrderLinesById(savedBeerOrder.getId());
+
+        // Then
+        assertThat(fetchedBeerOrderOptional).isPresent();
+        BeerOrder fetchedBeerOrder = fetchedBeerOrderOptional.get();
+        assertThat(Hibernate.isInitialized(fetchedBeerOrder.getCustomer())).isTrue();
+        assertThat(fetchedBeerOrder.getCustomer().getName()).isEqualTo("Test Customer");
+        assertThat(Hibernate.isInitialized(fetchedBeerOrder.getBeerOrderLines())).isTrue();
+        assertThat(Hibernate.isInitialized(fetchedBeerOrder.getBeerOrderLines().get(0).getBeer())).isTrue();
+        assertThat(fetchedBeerOrder.getBeerOrderLines().get(0).getBeer().getBeerName()).isEqualTo("Test Beer");
+    }
+
+    @Test
+    void testFindKeysetIdsPagesThroughAllOrdersNewestFirst() {
+        // Given
+        for (int i = 1; i <= 3; i++) {
+            beerOrderRepository.save(BeerOrder.builder()
+                    .customerRef("TEST-REF-00" + i)
+                    .paymentAmount(new BigDecimal("10.00"))
+                    .status(BeerOrderStatus.NEW)
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // When
+        List<Integer> firstPage = beerOrderRepository.findKeysetIds(Limit.of(2));
+        BeerOrder lastOfFirstPage = beerOrderRepository.findById(firstPage.get(1)).orElseThrow();
+        List<Integer> secondPage = beerOrderRepository.findKeysetIdsAfter(
+                lastOfFirstPage.getCreatedDate(), lastOfFirstPage.getId(), Limit.of(2));
+
+        // Then
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage).doesNotContainAnyElementsOf(firstPage);
+        BeerOrder firstOfSecondPage = beerOrderRepository.findById(secondPage.get(0)).orElseThrow();
+        assertThat(firstOfSecondPage.getCreatedDate()).isBeforeOrEqualTo(lastOfFirstPage.getCreatedDate());
+    }
+
+    @Test
+    void testBulkUpdateStatusMovesOnlyOrdersInFromStatusAndIncrementsVersion() {
+        // Given
+        BeerOrder newOrder = beerOrderRepository.save(BeerOrder.builder()
+                .customerRef("TEST-REF-001")
+                .paymentAmount(new BigDecimal("10.00"))
+                .status(BeerOrderStatus.NEW)
+                .build());
+        BeerOrder shippedOrder = beerOrderRepository.save(BeerOrder.builder()
+                .customerRef("TEST-REF-002")
+                .paymentAmount(new BigDecimal("10.00"))
+                .status(BeerOrderStatus.SHIPPED)
+                .build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+        List<Integer> ids = List.of(newOrder.getId(), shippedOrder.getId());
+
+        // When
+        List<Integer> lockedIds = beerOrderRepository.lockIdsByIdInAndStatus(ids, BeerOrderStatus.NEW);
+        int updated = beerOrderRepository.bulkUpdateStatus(ids, BeerOrderStatus.NEW, BeerOrderStatus.PICKED);
+
+        // Then
+        assertThat(lockedIds).containsExactly(newOrder.getId());
+        assertThat(updated).isEqualTo(1);
+        BeerOrder pickedOrder = beerOrderRepository.findById(newOrder.getId()).orElseThrow();
+        assertThat(pickedOrder.getStatus()).isEqualTo(BeerOrderStatus.PICKED);
+        assertThat(pickedOrder.getVersion()).isEqualTo(newOrder.getVersion() + 1);
+        BeerOrder unchangedOrder = beerOrderRepository.findById(shippedOrder.getId()).orElseThrow();
+        assertThat(unchangedOrder.getStatus()).isEqualTo(BeerOrderStatus.SHIPPED);
+        assertThat(unchangedOrder.getVersion()).isEqualTo(shippedOrder.getVersion());
+    }
+
+    private BeerOrder saveBeerOrderWithCustomer() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Test Customer")
+                .addressLine1("123 Main St")
+                .city("Springfield")
+                .state("IL")
+                .postalCode("62701")
+                .build());
+
+        BeerOrder beerOrder = BeerOrder.builder()
+                .customer(customer)
+                .customerRef("TEST-REF-001")
+                .paymentAmount(new BigDecimal("129.90"))
+                .status(BeerOrderStatus.NEW)
+                .build();
+
+        beerOrder.addBeerOrderLine(BeerOrderLine.builder()
+                .beer(testBeer)
+                .orderQuantity(10)
+                .quantityAllocated(5)
+                .status("NEW")
+                .build());
+
+        return beerOrderRepository.save(beerOrder);
+    }
+}
@@ -3,6 +3,7 @@ package com.igorfragadev.juniemvc.repositories;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,7 +48,7 @@ class BeerOrderShipmentRepositoryTest {
         testBeerOrder = BeerOrder.builder()
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
         testBeerOrder = beerOrderRepository.save(testBeerOrder);
     }
@@ -1,16 +1,22 @@
 package com.igorfragadev.juniemvc.repositories;
 
 import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerView;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -20,6 +26,9 @@ class BeerRepositoryTest {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    TestEntityManager entityManager;
+
     @Test
     void testSaveBeer() {
         // Given
@@ -381,4 +390,112 @@ class BeerRepositoryTest {
         assertThat(beerPage.getContent()).isEmpty();
         assertThat(beerPage.getTotalElements()).isZero();
     }
+
+    @Test
+    void testFindSliceAndCountByBeerNameContainingIgnoreCase() {
+        // Given
+        for (String beerName : List.of("Slice Beer 1", "Slice Beer 2", "Slice Beer 3", "Other Beer")) {
+            beerRepository.save(Beer.builder()
+                    .beerName(beerName)
+                    .beerStyle("IPA")
+                    .upc("123456")
+                    .price(new BigDecimal("12.99"))
+                    .quantityOnHand(100)
+                    .build());
+        }
+
+        // When
+        Slice<BeerView> firstSlice = beerRepository.findSliceByBeerNameContainingIgnoreCase("slice", PageRequest.of(0, 2));
+        Slice<BeerView> lastSlice = beerRepository.findSliceByBeerNameContainingIgnoreCase("slice", PageRequest.of(1, 2));
+
+        // Then
+        assertThat(firstSlice.getContent()).hasSize(2);
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(lastSlice.getContent()).hasSize(1);
+        assertThat(lastSlice.hasNext()).isFalse();
+        assertThat(beerRepository.countByBeerNameContainingIgnoreCase("SLICE")).isEqualTo(3);
+        assertThat(beerRepository.countByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase("beer", "ipa"))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void testFindViewsLeavesPersistenceContextEmpty() {
+        // Given
+        Beer beer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("View Beer")
+                .beerStyle("IPA")
+                .upc("123456")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(100)
+                .build());
+        entityManager.clear();
+
+        // When
+        Page<BeerView> viewPage = beerRepository.findViewsByBeerNameContainingIgnoreCase("view", PageRequest.of(0, 10));
+        List<BeerView> views;
+        try (Stream<BeerView> stream = beerRepository.streamViewsBy()) {
+            views = stream.toList();
+        }
+
+        // Then
+        assertThat(viewPage.getContent()).singleElement().satisfies(view -> {
+            assertThat(view.id()).isEqualTo(beer.getId());
+            assertThat(view.beerName()).isEqualTo("View Beer");
+            assertThat(view.price()).isEqualByComparingTo("12.99");
+        });
+        assertThat(views).extracting(BeerView::id).containsExactly(beer.getId());
+        assertThat(entityManager.getEntityManager().unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().getNumberOfManagedEntities()).isZero();
+    }
+
+    @Test
+    void testStreamSearchViewsByOrdersById() {
+        // Given
+        for (String beerName : List.of("Stream Beer 1", "Stream Beer 2", "Stream Beer 3")) {
+            beerRepository.save(Beer.builder()
+                    .beerName(beerName)
+                    .beerStyle("IPA")
+                    .upc("123456")
+                    .price(new BigDecimal("12.99"))
+                    .quantityOnHand(100)
+                    .build());
+        }
+        beerRepository.flush();
+
+        // When
+        List<Integer> ids;
+        try (Stream<BeerSearchView> beers = beerRepository.streamSearchViewsBy()) {
+            ids = beers.map(BeerSearchView::id).toList();
+        }
+
+        // Then
+        assertThat(ids).hasSize(3);
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void testDecrementQuantityOnHand() {
+        // Given
+        Beer beer = beerRepository.saveAndFlush(Beer.builder()
+                .beerName("Stock Beer")
+                .beerStyle("IPA")
+                .upc("123456")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(10)
+                .build());
+
+        // When
+        int taken = beerRepository.decrementQuantityOnHand(beer.getId(), 4);
+        int overdrawn = beerRepository.decrementQuantityOnHand(beer.getId(), 7);
+        entityManager.clear();
+
+        // Then
+        assertThat(taken).isEqualTo(1);
+        assertThat(overdrawn).isZero();
+        assertThat(beerRepository.findQuantityOnHandById(beer.getId())).contains(6);
+        assertThat(beerRepository.findVersionById(beer.getId())).contains(beer.getVersion());
+        Beer updatedBeer = beerRepository.findById(beer.getId()).orElseThrow();
+        assertThat(updatedBeer.getQuantityOnHand()).isEqualTo(6);
+        assertThat(updatedBeer.getVersion()).isEqualTo(beer.getVersion());
+    }
 }
@@ -0,0 +1,63 @@
+package com.igorfragadev.juniemvc.retry;
+
+import com.igorfragadev.juniemvc.config.OptimisticLockRetryProperties;
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.BeerOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentionTrackerTest {
+
+    SimpleMeterRegistry meterRegistry;
+    ContentionTracker contentionTracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        contentionTracker = new ContentionTracker(meterRegistry, new OptimisticLockRetryProperties(
+                4, Duration.ofMillis(10), Duration.ofMillis(200), 2, 100, Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void hottestRowsComeFirst() {
+        // given
+        contentionTracker.conflict(new ObjectOptimisticLockingFailureException(Beer.class, 1), true);
+        contentionTracker.conflict(new ObjectOptimisticLockingFailureException(Beer.class, 2), true);
+        contentionTracker.conflict(new ObjectOptimisticLockingFailureException(Beer.class, 2), false);
+        contentionTracker.conflict(new ObjectOptimisticLockingFailureException(BeerOrder.class, 2), true);
+
+        // when
+        List<ContentionTracker.HotRow> hottestRows = contentionTracker.hottestRows(2);
+
+        // then
+        assertThat(hottestRows).hasSize(2);
+        assertThat(hottestRows.get(0)).isEqualTo(new ContentionTracker.HotRow("Beer", "2", 2));
+        assertThat(hottestRows.get(1).conflicts()).isEqualTo(1);
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "Beer", "outcome", "retried")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "BeerOrder", "outcome", "retried")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void conflictsOverSetsOfRowsOrUnknownRowsAreOnlyCountedByEntity() {
+        // when
+        contentionTracker.conflict(new ObjectOptimisticLockingFailureException(BeerOrder.class, List.of(1, 2)), true);
+        contentionTracker.conflict(new OptimisticLockingFailureException("Version mismatch"), false);
+
+        // then
+        assertThat(contentionTracker.hottestRows(10)).isEmpty();
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "BeerOrder").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "unknown", "outcome", "gave_up")
+                .counter().count()).isEqualTo(1);
+    }
+}
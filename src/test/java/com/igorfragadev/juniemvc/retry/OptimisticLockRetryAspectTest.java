@@ -0,0 +1,142 @@
+package com.igorfragadev.juniemvc.retry;
+
+import com.igorfragadev.juniemvc.config.OptimisticLockRetryProperties;
+import com.igorfragadev.juniemvc.entities.Beer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticLockRetryAspectTest {
+
+    OptimisticLockRetryProperties properties = new OptimisticLockRetryProperties(
+            4, Duration.ofMillis(1), Duration.ofMillis(5), 2, 100, Duration.ofMinutes(1));
+
+    SimpleMeterRegistry meterRegistry;
+    ContentionTracker contentionTracker;
+    OptimisticLockRetryAspect aspect;
+    ConflictingWrites target;
+    ConflictingWrites writes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        contentionTracker = new ContentionTracker(meterRegistry, properties);
+        aspect = new OptimisticLockRetryAspect(properties, contentionTracker);
+        target = new ConflictingWrites();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        writes = proxyFactory.getProxy();
+    }
+
+    @Test
+    void conflictIsRetriedUntilTheCallSucceeds() {
+        // given
+        target.conflicts = 2;
+
+        // when
+        String result = writes.update();
+
+        // then
+        assertThat(result).isEqualTo("updated");
+        assertThat(target.attempts).isEqualTo(3);
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "Beer", "outcome", "retried")
+                .counter().count()).isEqualTo(2);
+        assertThat(contentionTracker.hottestRows(10))
+                .containsExactly(new ContentionTracker.HotRow("Beer", "1", 2));
+    }
+
+    @Test
+    void conflictIsReturnedAfterTheLastAttempt() {
+        // given
+        target.conflicts = Integer.MAX_VALUE;
+
+        // when / then
+        assertThatThrownBy(() -> writes.update()).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.attempts).isEqualTo(4);
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "Beer", "outcome", "retried")
+                .counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(ContentionTracker.CONFLICTS).tags("entity", "Beer", "outcome", "gave_up")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void conflictWithinAnActiveTransactionIsLeftToItsCaller() {
+        // given
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // when / then
+        try {
+            assertThatThrownBy(() -> writes.update()).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertThat(target.attempts).isEqualTo(1);
+        assertThat(meterRegistry.find(ContentionTracker.CONFLICTS).counters()).isEmpty();
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        // when / then
+        assertThatThrownBy(() -> writes.fail()).isInstanceOf(IllegalStateException.class);
+        assertThat(target.attempts).isEqualTo(1);
+    }
+
+    @Test
+    void methodsNotMarkedForRetryAreNotRetried() {
+        // given
+        target.conflicts = 1;
+
+        // when / then
+        assertThatThrownBy(() -> writes.create()).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.attempts).isEqualTo(1);
+    }
+
+    @Test
+    void backoffStaysWithinItsExponentialBound() {
+        for (int attempt = 1; attempt <= 6; attempt++) {
+            Duration bound = Duration.ofMillis(Math.min(5, 1L << (attempt - 1)));
+            for (int i = 0; i < 100; i++) {
+                assertThat(aspect.backoff(attempt)).isBetween(Duration.ZERO, bound);
+            }
+        }
+    }
+
+    static class ConflictingWrites {
+
+        int conflicts;
+        int attempts;
+
+        @RetryOnConflict
+        public String update() {
+            attempts++;
+            if (attempts <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Beer.class, 1);
+            }
+            return "updated";
+        }
+
+        @RetryOnConflict
+        public String fail() {
+            attempts++;
+            throw new IllegalStateException("Not a conflict");
+        }
+
+        public String create() {
+            attempts++;
+            if (attempts <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Beer.class, 1);
+            }
+            return "created";
+        }
+    }
+}
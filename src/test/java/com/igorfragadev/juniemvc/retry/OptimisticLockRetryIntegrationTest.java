@@ -0,0 +1,154 @@
+package com.igorfragadev.juniemvc.retry;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.services.BeerOrderService;
+import com.igorfragadev.juniemvc.services.BeerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that retried calls start over in new transactions, and that concurrent writes to one beer, which lose
+ * optimistic-locking races to each other, all succeed when given enough attempts.
+ */
+@SpringBootTest(properties = "juniemvc.optimistic-lock-retry.max-attempts=10")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(OptimisticLockRetryIntegrationTest.RetriedWritesConfig.class)
+class OptimisticLockRetryIntegrationTest {
+
+    private static final int STOCK = 100;
+    private static final int WRITE_COUNT = 40;
+
+    @TestConfiguration
+    static class RetriedWritesConfig {
+        @Bean
+        RetriedWrites retriedWrites() {
+            return new RetriedWrites();
+        }
+    }
+
+    static class RetriedWrites {
+
+        private final List<TransactionStatus> transactions = new CopyOnWriteArrayList<>();
+
+        public List<TransactionStatus> transactions() {
+            return transactions;
+        }
+
+        @Transactional
+        @RetryOnConflict
+        public void update() {
+            transactions.add(TransactionAspectSupport.currentTransactionStatus());
+            if (transactions.size() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Beer.class, -1);
+            }
+        }
+    }
+
+    @Autowired
+    RetriedWrites retriedWrites;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void eachAttemptRunsInATransactionOfItsOwn() throws Exception {
+        // when
+        retriedWrites.update();
+
+        // then
+        assertThat(retriedWrites.transactions()).hasSize(3).doesNotHaveDuplicates()
+                .allMatch(TransactionStatus::isNewTransaction);
+        mockMvc.perform(get("/actuator/contention"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.entity == 'Beer' && @.id == '-1')].conflicts", hasItem(2)));
+    }
+
+    @Test
+    void concurrentPatchesAndAllocationsOfOneBeerAllSucceed() throws Exception {
+        // given
+        BeerDto beer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Flash Sale Beer")
+                .beerStyle("IPA")
+                .upc("flash-sale-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(STOCK)
+                .build());
+        List<Integer> beerOrderIds = new CopyOnWriteArrayList<>();
+        Callable<Object> patchPrice = () -> beerService.patchBeer(beer.getId(),
+                BeerPathDto.builder().price(new BigDecimal("7.99")).build(), null).orElseThrow();
+        Callable<Object> placeOrder = () -> {
+            BeerOrderDto beerOrder = beerOrderService.saveBeerOrder(BeerOrderDto.builder()
+                    .customerRef("FLASH-SALE")
+                    .paymentAmount(new BigDecimal("7.99"))
+                    .status(BeerOrderStatus.NEW)
+                    .beerOrderLines(List.of(BeerOrderLineDto.builder()
+                            .beerId(beer.getId())
+                            .orderQuantity(1)
+                            .build()))
+                    .build());
+            beerOrderIds.add(beerOrder.getId());
+            return beerOrder;
+        };
+
+        // when
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITE_COUNT; i++) {
+                futures.add(executor.submit(i % 2 == 0 ? patchPrice : placeOrder));
+            }
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        }
+
+        // then
+        assertThat(beerRepository.findQuantityOnHandById(beer.getId())).contains(STOCK - WRITE_COUNT / 2);
+        assertThat(beerService.getBeerById(beer.getId())).map(BeerDto::getPrice)
+                .hasValueSatisfying(price -> assertThat(price).isEqualByComparingTo("7.99"));
+
+        beerOrderIds.forEach(id -> beerOrderService.deleteBeerOrder(id, null));
+        beerService.deleteBeer(beer.getId(), null);
+    }
+}
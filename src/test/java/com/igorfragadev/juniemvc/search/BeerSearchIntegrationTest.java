@@ -0,0 +1,51 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.services.BeerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BeerSearchIntegrationTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerSearchIndex beerSearchIndex;
+
+    @Test
+    void searchFollowsCommittedWrites() {
+        // given
+        assertThat(beerSearchIndex.isReady()).isTrue();
+        BeerDto savedBeer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Quetzalcoatl Porter")
+                .beerStyle("PORTER")
+                .upc("search-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        Integer beerId = savedBeer.getId();
+
+        // when / then
+        assertThat(beerService.getAllBeers("quetzal", null, PageRequest.of(0, 10)).getContent())
+                .extracting(BeerDto::getId).containsExactly(beerId);
+
+        beerService.patchBeer(beerId, BeerPathDto.builder().beerName("Xochitl Porter").build(), null);
+        assertThat(beerService.getAllBeers("quetzal", null, PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(beerService.getAllBeers("xochitl", "porter", PageRequest.of(0, 10)).getContent())
+                .extracting(BeerDto::getId).containsExactly(beerId);
+
+        beerService.deleteBeer(beerId, null);
+        assertThat(beerService.getAllBeers("xochitl", null, PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+}
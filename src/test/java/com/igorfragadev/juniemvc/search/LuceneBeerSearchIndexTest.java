@@ -0,0 +1,122 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LuceneBeerSearchIndexTest {
+
+    LuceneBeerSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new LuceneBeerSearchIndex();
+        index.rebuild(Stream.of(
+                beer(1, "Mango Bobs", "IPA"),
+                beer(2, "Galaxy Cat", "PALE ALE"),
+                beer(3, "Mangosteen Sour", "SOUR"),
+                beer(4, "Mango", "IPA"),
+                beer(5, "Pale Mango Ale", "PALE ALE")));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void testRebuildMarksReady() throws Exception {
+        try (LuceneBeerSearchIndex emptyIndex = new LuceneBeerSearchIndex()) {
+            assertThat(emptyIndex.isReady()).isFalse();
+            emptyIndex.rebuild(Stream.empty());
+            assertThat(emptyIndex.isReady()).isTrue();
+        }
+    }
+
+    @Test
+    void testRebuildKeepsChangesMadeWhileItReadsTheCatalog() {
+        // When the catalog was read before beer 4 was removed and beer 1 renamed
+        index.rebuild(Stream.of(
+                        beer(1, "Mango Bobs", "IPA"),
+                        beer(4, "Mango", "IPA"),
+                        beer(5, "Pale Mango Ale", "PALE ALE"))
+                .peek(beer -> {
+                    if (beer.id() == 4) {
+                        index.remove(4);
+                        index.index(1, "Guava Bobs", "IPA");
+                        // Searches keep seeing the index as it was before the rebuild meanwhile
+                        assertThat(index.search("galaxy", null, PageRequest.of(0, 10)).beerIds()).containsExactly(2);
+                    }
+                }));
+
+        // Then
+        assertThat(index.search("mango", null, PageRequest.of(0, 10)).beerIds()).containsExactly(5);
+        assertThat(index.search("guava", null, PageRequest.of(0, 10)).beerIds()).containsExactly(1);
+        assertThat(index.search("galaxy", null, PageRequest.of(0, 10)).beerIds()).isEmpty();
+    }
+
+    @Test
+    void testSearchRanksExactWordsAbovePrefixes() {
+        // When
+        BeerSearchHits hits = index.search("mango", null, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(hits.totalHits()).isEqualTo(4);
+        assertThat(hits.beerIds()).hasSize(4);
+        // Mangosteen only matches as a prefix, so it ranks last
+        assertThat(hits.beerIds().get(3)).isEqualTo(3);
+    }
+
+    @Test
+    void testSearchMatchesEveryWordIgnoringCase() {
+        assertThat(index.search("PALE ma", null, PageRequest.of(0, 10)).beerIds()).containsExactly(5);
+        assertThat(index.search("mango", "ipa", PageRequest.of(0, 10)).beerIds()).containsExactlyInAnyOrder(1, 4);
+        assertThat(index.search(null, "ale", PageRequest.of(0, 10)).beerIds()).containsExactlyInAnyOrder(2, 5);
+        assertThat(index.search("lager", null, PageRequest.of(0, 10)).beerIds()).isEmpty();
+    }
+
+    @Test
+    void testSearchTextWithoutWordsMatchesNothing() {
+        // When
+        BeerSearchHits hits = index.search("!!!", null, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(hits.beerIds()).isEmpty();
+        assertThat(hits.totalHits()).isZero();
+        assertThat(index.search(null, " ", PageRequest.of(0, 10)).totalHits()).isEqualTo(5);
+    }
+
+    @Test
+    void testSearchPages() {
+        // When
+        BeerSearchHits firstPage = index.search("mango", null, PageRequest.of(0, 3));
+        BeerSearchHits secondPage = index.search("mango", null, PageRequest.of(1, 3));
+
+        // Then
+        assertThat(firstPage.beerIds()).hasSize(3);
+        assertThat(secondPage.beerIds()).containsExactly(3);
+        assertThat(secondPage.totalHits()).isEqualTo(4);
+    }
+
+    @Test
+    void testIndexReplacesAndRemoveDeletes() {
+        // When
+        index.index(2, "Galaxy Mango", "PALE ALE");
+        index.remove(4);
+
+        // Then
+        assertThat(index.search("galaxy mango", null, PageRequest.of(0, 10)).beerIds()).containsExactly(2);
+        assertThat(index.search("mango", null, PageRequest.of(0, 10)).beerIds()).doesNotContain(4).hasSize(4);
+        assertThat(index.search("cat", null, PageRequest.of(0, 10)).beerIds()).isEmpty();
+    }
+
+    private static BeerSearchView beer(Integer id, String beerName, String beerStyle) {
+        return new BeerSearchView(id, beerName, beerStyle);
+    }
+}
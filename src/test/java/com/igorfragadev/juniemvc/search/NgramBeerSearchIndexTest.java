@@ -0,0 +1,107 @@
+package com.igorfragadev.juniemvc.search;
+
+import com.igorfragadev.juniemvc.repositories.projections.BeerSearchView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NgramBeerSearchIndexTest {
+
+    NgramBeerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NgramBeerSearchIndex();
+        index.rebuild(Stream.of(
+                beer(1, "Mango Bobs", "IPA"),
+                beer(2, "Galaxy Cat", "PALE ALE"),
+                beer(3, "Mangosteen Sour", "SOUR"),
+                beer(4, "Mango", "IPA"),
+                beer(5, "Pale Mango Ale", "PALE ALE"),
+                beer(6, "Nameless", null)));
+    }
+
+    @Test
+    void testRebuildMarksReady() {
+        NgramBeerSearchIndex emptyIndex = new NgramBeerSearchIndex();
+        assertThat(emptyIndex.isReady()).isFalse();
+        emptyIndex.rebuild(Stream.empty());
+        assertThat(emptyIndex.isReady()).isTrue();
+    }
+
+    @Test
+    void testRebuildKeepsChangesMadeWhileItReadsTheCatalog() {
+        // When the catalog was read before beer 7 was added and before beers 1 and 4 changed
+        index.rebuild(Stream.of(
+                        beer(1, "Mango Bobs", "IPA"),
+                        beer(4, "Mango", "IPA"),
+                        beer(5, "Pale Mango Ale", "PALE ALE"))
+                .peek(beer -> {
+                    if (beer.id() == 5) {
+                        index.index(7, "Banana Split", "WHEAT");
+                        index.index(1, "Guava Bobs", "IPA");
+                        index.remove(4);
+                    }
+                }));
+
+        // Then
+        assertThat(index.search("mango", null, PageRequest.of(0, 10)).beerIds()).containsExactly(5);
+        assertThat(index.search("bobs", null, PageRequest.of(0, 10)).beerIds()).containsExactly(1);
+        assertThat(index.search("banana", null, PageRequest.of(0, 10)).beerIds()).containsExactly(7);
+    }
+
+    @Test
+    void testSearchMatchesSubstringsIgnoringCase() {
+        assertThat(index.search("ANG", null, PageRequest.of(0, 10)).beerIds()).containsExactly(1, 3, 4, 5);
+        assertThat(index.search("o b", null, PageRequest.of(0, 10)).beerIds()).containsExactly(1);
+        assertThat(index.search("x", null, PageRequest.of(0, 10)).beerIds()).containsExactly(2);
+        assertThat(index.search("mango", "ipa", PageRequest.of(0, 10)).beerIds()).containsExactly(1, 4);
+        assertThat(index.search(null, "le a", PageRequest.of(0, 10)).beerIds()).containsExactly(2, 5);
+        assertThat(index.search("lager", null, PageRequest.of(0, 10)).beerIds()).isEmpty();
+    }
+
+    @Test
+    void testSearchChecksLongTextsAgainstTheField() {
+        // Given
+        index.index(7, "Banana Split", "WHEAT");
+
+        // Then "nanan" shares every trigram with "banana split" without appearing in it
+        assertThat(index.search("nanan", null, PageRequest.of(0, 10)).totalHits()).isZero();
+        assertThat(index.search("anana", null, PageRequest.of(0, 10)).beerIds()).containsExactly(7);
+    }
+
+    @Test
+    void testSearchPages() {
+        // When
+        BeerSearchHits firstPage = index.search("mango", null, PageRequest.of(0, 3));
+        BeerSearchHits secondPage = index.search("mango", null, PageRequest.of(1, 3));
+        BeerSearchHits shortTextPage = index.search("a", null, PageRequest.of(1, 3));
+
+        // Then
+        assertThat(firstPage.beerIds()).containsExactly(1, 3, 4);
+        assertThat(secondPage.beerIds()).containsExactly(5);
+        assertThat(secondPage.totalHits()).isEqualTo(4);
+        assertThat(shortTextPage.beerIds()).containsExactly(4, 5, 6);
+        assertThat(shortTextPage.totalHits()).isEqualTo(6);
+    }
+
+    @Test
+    void testIndexReplacesAndRemoveDeletes() {
+        // When
+        index.index(2, "Galaxy Mango", "PALE ALE");
+        index.remove(4);
+
+        // Then
+        assertThat(index.search("mango", null, PageRequest.of(0, 10)).beerIds()).containsExactly(1, 2, 3, 5);
+        assertThat(index.search("galaxy cat", null, PageRequest.of(0, 10)).beerIds()).isEmpty();
+        assertThat(index.search(null, "ipa", PageRequest.of(0, 10)).beerIds()).containsExactly(1);
+    }
+
+    private static BeerSearchView beer(int id, String beerName, String beerStyle) {
+        return new BeerSearchView(id, beerName, beerStyle);
+    }
+}
@@ -3,30 +3,58 @@ package com.igorfragadev.juniemvc.services;
 import com.igorfragadev.juniemvc.entities.Beer;
 import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.exceptions.InvalidStatusTransitionException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
+import com.igorfragadev.juniemvc.mappers.BeerMapper;
+import com.igorfragadev.juniemvc.mappers.BeerOrderLineMapper;
 import com.igorfragadev.juniemvc.mappers.BeerOrderMapper;
+import com.igorfragadev.juniemvc.mappers.CustomerMapper;
+import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerOrderDto;
 import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionResultDto;
+import com.igorfragadev.juniemvc.models.CursorPageDto;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.repositories.BeerOrderLineRepository;
 import com.igorfragadev.juniemvc.repositories.BeerOrderRepository;
+import com.igorfragadev.juniemvc.repositories.BeerOrderShipmentRepository;
 import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.CustomerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderLineView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerOrderView;
+import com.igorfragadev.juniemvc.exceptions.InvalidCursorException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -39,13 +67,38 @@ class BeerOrderServiceImplTest {
     @Mock
     BeerRepository beerRepository;
 
+    @Mock
+    BeerOrderLineRepository beerOrderLineRepository;
+
+    @Mock
+    BeerOrderShipmentRepository beerOrderShipmentRepository;
+
+    @Mock
+    CustomerRepository customerRepository;
+
     @Mock
     BeerOrderMapper beerOrderMapper;
 
+    @Mock
+    BeerOrderLineMapper beerOrderLineMapper;
+
+    @Mock
+    BeerMapper beerMapper;
+
+    @Mock
+    CustomerMapper customerMapper;
+
+    @Mock
+    InventoryAllocationService inventoryAllocationService;
+
+    @Mock
+    EntityManager entityManager;
+
     @InjectMocks
     BeerOrderServiceImpl beerOrderService;
 
     BeerOrder testBeerOrder;
+    BeerOrderView testBeerOrderView;
     BeerOrderDto testBeerOrderDto;
     Beer testBeer;
     BeerOrderLine testBeerOrderLine;
@@ -80,13 +133,16 @@ class BeerOrderServiceImplTest {
                 .id(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(orderLines)
                 .build();
 
         // Set bidirectional relationship
         testBeerOrderLine.setBeerOrder(testBeerOrder);
 
+        testBeerOrderView = new BeerOrderView(1, 0, null, "TEST-REF-001", new BigDecimal("129.90"), BeerOrderStatus.NEW,
+                null, null);
+
         // Create test beer order line DTO
         testBeerOrderLineDto = BeerOrderLineDto.builder()
                 .id(1)
@@ -104,7 +160,7 @@ class BeerOrderServiceImplTest {
                 .id(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(orderLineDtos)
                 .build();
     }
@@ -112,8 +168,23 @@ class BeerOrderServiceImplTest {
     @Test
     void getAllBeerOrders() {
         // given
-        given(beerOrderRepository.findAll()).willReturn(Arrays.asList(testBeerOrder));
-        given(beerOrderMapper.beerOrderToBeerOrderDto(testBeerOrder)).willReturn(testBeerOrderDto);
+        BeerOrderView beerOrderView = new BeerOrderView(1, 0, 7, "TEST-REF-001", new BigDecimal("129.90"), BeerOrderStatus.NEW,
+                null, null);
+        BeerOrderLineView lineView = new BeerOrderLineView(1, 0, 1, 1, 10, 5, "NEW", null, null);
+        Customer customer = Customer.builder().id(7).name("Test Customer").build();
+        BeerDto beerDto = BeerDto.builder().id(1).beerName("Test Beer").build();
+        CustomerDto customerDto = CustomerDto.builder().id(7).name("Test Customer").build();
+
+        given(beerOrderRepository.findAllViews()).willReturn(List.of(beerOrderView));
+        given(customerRepository.findAllCachedById(Set.of(7))).willReturn(List.of(customer));
+        given(beerOrderLineRepository.findViewsByBeerOrderIdIn(List.of(1))).willReturn(List.of(lineView));
+        given(beerRepository.findAllCachedById(Set.of(1))).willReturn(List.of(testBeer));
+        given(beerOrderMapper.beerOrderViewToBeerOrderDto(beerOrderView)).willReturn(
+                BeerOrderDto.builder().id(1).customerRef("TEST-REF-001").build());
+        given(beerOrderLineMapper.beerOrderLineViewToBeerOrderLineDto(lineView)).willReturn(
+                BeerOrderLineDto.builder().id(1).beerId(1).build());
+        given(beerMapper.beerToBeerDto(testBeer)).willReturn(beerDto);
+        given(customerMapper.customerToCustomerDto(customer)).willReturn(customerDto);
 
         // when
         List<BeerOrderDto> beerOrders = beerOrderService.getAllBeerOrders();
@@ -121,14 +192,85 @@ class BeerOrderServiceImplTest {
         // then
         assertThat(beerOrders).hasSize(1);
         assertThat(beerOrders.get(0).getCustomerRef()).isEqualTo("TEST-REF-001");
-        verify(beerOrderRepository, times(1)).findAll();
-        verify(beerOrderMapper, times(1)).beerOrderToBeerOrderDto(testBeerOrder);
+        assertThat(beerOrders.get(0).getCustomer()).isSameAs(customerDto);
+        assertThat(beerOrders.get(0).getBeerOrderLines()).singleElement()
+                .satisfies(line -> assertThat(line.getBeer()).isSameAs(beerDto));
+        verify(beerOrderRepository, times(1)).findAllViews();
+    }
+
+    @Test
+    void getBeerOrdersFirstPage() {
+        // given
+        LocalDateTime createdDate = LocalDateTime.of(2025, 1, 15, 12, 0);
+        BeerOrderView beerOrderView = new BeerOrderView(1, 0, null, "TEST-REF-001", null, BeerOrderStatus.NEW, createdDate, null);
+        // One ID more than the page size signals that a next page exists
+        given(beerOrderRepository.findKeysetIds(Limit.of(2))).willReturn(Arrays.asList(1, 2));
+        given(beerOrderRepository.findViewsByIdIn(List.of(1))).willReturn(List.of(beerOrderView));
+        given(beerOrderLineRepository.findViewsByBeerOrderIdIn(List.of(1))).willReturn(List.of());
+        given(beerOrderMapper.beerOrderViewToBeerOrderDto(beerOrderView)).willReturn(testBeerOrderDto);
+
+        // when
+        CursorPageDto<BeerOrderDto> page = beerOrderService.getBeerOrders(null, 1);
+
+        // then
+        assertThat(page.getContent()).containsExactly(testBeerOrderDto);
+        assertThat(page.getSize()).isEqualTo(1);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(BeerOrderCursor.decode(page.getNextCursor())).isEqualTo(new BeerOrderCursor(createdDate, 1));
+        verify(beerOrderRepository, never()).findKeysetIdsAfter(any(), any(), any());
+    }
+
+    @Test
+    void getBeerOrdersNextPageFromCursor() {
+        // given
+        LocalDateTime createdDate = LocalDateTime.of(2025, 1, 15, 12, 0);
+        String cursor = new BeerOrderCursor(createdDate, 5).encode();
+        BeerOrderView secondBeerOrderView = new BeerOrderView(2, 0, null, null, null, null,
+                createdDate.minusDays(1), null);
+        BeerOrderDto secondBeerOrderDto = BeerOrderDto.builder().id(2).build();
+        given(beerOrderRepository.findKeysetIdsAfter(createdDate, 5, Limit.of(11))).willReturn(Arrays.asList(1, 2));
+        // The IN query returns orders in arbitrary order
+        given(beerOrderRepository.findViewsByIdIn(Arrays.asList(1, 2)))
+                .willReturn(Arrays.asList(secondBeerOrderView, testBeerOrderView));
+        given(beerOrderLineRepository.findViewsByBeerOrderIdIn(any())).willReturn(List.of());
+        given(beerOrderMapper.beerOrderViewToBeerOrderDto(testBeerOrderView)).willReturn(testBeerOrderDto);
+        given(beerOrderMapper.beerOrderViewToBeerOrderDto(secondBeerOrderView)).willReturn(secondBeerOrderDto);
+
+        // when
+        CursorPageDto<BeerOrderDto> page = beerOrderService.getBeerOrders(cursor, 10);
+
+        // then
+        assertThat(page.getContent()).containsExactly(testBeerOrderDto, secondBeerOrderDto);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getBeerOrdersCapsPageSize() {
+        // given
+        given(beerOrderRepository.findKeysetIds(Limit.of(BeerOrderServiceImpl.MAX_PAGE_SIZE + 1))).willReturn(List.of());
+
+        // when
+        CursorPageDto<BeerOrderDto> page = beerOrderService.getBeerOrders(null, 10_000);
+
+        // then
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getSize()).isEqualTo(BeerOrderServiceImpl.MAX_PAGE_SIZE);
+        assertThat(page.isHasNext()).isFalse();
+        verify(beerOrderRepository, never()).findViewsByIdIn(any());
+    }
+
+    @Test
+    void getBeerOrdersInvalidCursor() {
+        assertThatThrownBy(() -> beerOrderService.getBeerOrders("not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("Invalid cursor");
     }
 
     @Test
     void getBeerOrderById() {
         // given
-        given(beerOrderRepository.findById(1)).willReturn(Optional.of(testBeerOrder));
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(testBeerOrder));
         given(beerOrderMapper.beerOrderToBeerOrderDto(testBeerOrder)).willReturn(testBeerOrderDto);
 
         // when
@@ -138,21 +280,21 @@ class BeerOrderServiceImplTest {
         assertThat(foundBeerOrder).isPresent();
         assertThat(foundBeerOrder.get().getId()).isEqualTo(1);
         assertThat(foundBeerOrder.get().getCustomerRef()).isEqualTo("TEST-REF-001");
-        verify(beerOrderRepository, times(1)).findById(1);
+        verify(beerOrderRepository, times(1)).findWithBeerOrderLinesById(1);
         verify(beerOrderMapper, times(1)).beerOrderToBeerOrderDto(testBeerOrder);
     }
 
     @Test
     void getBeerOrderByIdNotFound() {
         // given
-        given(beerOrderRepository.findById(999)).willReturn(Optional.empty());
+        given(beerOrderRepository.findWithBeerOrderLinesById(999)).willReturn(Optional.empty());
 
         // when
         Optional<BeerOrderDto> foundBeerOrder = beerOrderService.getBeerOrderById(999);
 
         // then
         assertThat(foundBeerOrder).isEmpty();
-        verify(beerOrderRepository, times(1)).findById(999);
+        verify(beerOrderRepository, times(1)).findWithBeerOrderLinesById(999);
     }
 
     @Test
@@ -161,32 +303,32 @@ class BeerOrderServiceImplTest {
         BeerOrderDto beerOrderDtoToSave = BeerOrderDto.builder()
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(Arrays.asList(testBeerOrderLineDto))
                 .build();
 
         BeerOrder beerOrderToSave = BeerOrder.builder()
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrder savedBeerOrder = BeerOrder.builder()
                 .id(2)
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrderDto savedBeerOrderDto = BeerOrderDto.builder()
                 .id(2)
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         given(beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDtoToSave)).willReturn(beerOrderToSave);
-        given(beerRepository.findById(1)).willReturn(Optional.of(testBeer));
+        given(beerRepository.findAllCachedById(List.of(1))).willReturn(List.of(testBeer));
         given(beerOrderRepository.save(any(BeerOrder.class))).willReturn(savedBeerOrder);
         given(beerOrderMapper.beerOrderToBeerOrderDto(savedBeerOrder)).willReturn(savedBeerOrderDto);
 
@@ -198,7 +340,8 @@ class BeerOrderServiceImplTest {
         assertThat(result.getId()).isEqualTo(2);
         assertThat(result.getCustomerRef()).isEqualTo("NEW-REF-001");
         verify(beerOrderMapper, times(1)).beerOrderDtoToBeerOrder(beerOrderDtoToSave);
-        verify(beerRepository, times(1)).findById(1);
+        verify(beerRepository, times(1)).findAllCachedById(List.of(1));
+        verify(inventoryAllocationService, times(1)).allocate(beerOrderToSave.getBeerOrderLines());
         verify(beerOrderRepository, times(1)).save(any(BeerOrder.class));
         verify(beerOrderMapper, times(1)).beerOrderToBeerOrderDto(savedBeerOrder);
     }
@@ -209,23 +352,76 @@ class BeerOrderServiceImplTest {
         BeerOrderDto beerOrderDtoToSave = BeerOrderDto.builder()
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .beerOrderLines(Arrays.asList(testBeerOrderLineDto))
                 .build();
 
         BeerOrder beerOrderToSave = BeerOrder.builder()
                 .customerRef("NEW-REF-001")
                 .paymentAmount(new BigDecimal("99.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
+                .build();
+
+        given(beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDtoToSave)).willReturn(beerOrderToSave);
+        given(beerRepository.findAllCachedById(List.of(1))).willReturn(List.of());
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.saveBeerOrder(beerOrderDtoToSave))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Beer not found with IDs: [1]");
+    }
+
+    @Test
+    void saveBeerOrderResolvesDistinctBeersInOneQuery() {
+        // given
+        BeerOrderDto beerOrderDtoToSave = BeerOrderDto.builder()
+                .customerRef("NEW-REF-001")
+                .paymentAmount(new BigDecimal("99.90"))
+                .beerOrderLines(Arrays.asList(
+                        BeerOrderLineDto.builder().beerId(1).orderQuantity(1).build(),
+                        BeerOrderLineDto.builder().beerId(1).orderQuantity(2).build()))
+                .build();
+
+        BeerOrder beerOrderToSave = BeerOrder.builder()
+                .customerRef("NEW-REF-001")
+                .paymentAmount(new BigDecimal("99.90"))
                 .build();
 
         given(beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDtoToSave)).willReturn(beerOrderToSave);
-        given(beerRepository.findById(1)).willReturn(Optional.empty());
+        given(beerRepository.findAllCachedById(List.of(1))).willReturn(List.of(testBeer));
+        given(beerOrderRepository.save(beerOrderToSave)).willReturn(beerOrderToSave);
+
+        // when
+        beerOrderService.saveBeerOrder(beerOrderDtoToSave);
+
+        // then
+        assertThat(beerOrderToSave.getBeerOrderLines()).hasSize(2);
+        assertThat(beerOrderToSave.getBeerOrderLines()).allMatch(line -> line.getBeer() == testBeer);
+        verify(beerRepository, times(1)).findAllCachedById(List.of(1));
+        verify(beerRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void saveBeerOrderReportsAllMissingBeers() {
+        // given
+        BeerOrderDto beerOrderDtoToSave = BeerOrderDto.builder()
+                .customerRef("NEW-REF-001")
+                .paymentAmount(new BigDecimal("99.90"))
+                .beerOrderLines(Arrays.asList(
+                        BeerOrderLineDto.builder().beerId(1).orderQuantity(1).build(),
+                        BeerOrderLineDto.builder().beerId(2).orderQuantity(1).build(),
+                        BeerOrderLineDto.builder().beerId(3).orderQuantity(1).build()))
+                .build();
+
+        given(beerOrderMapper.beerOrderDtoToBeerOrder(beerOrderDtoToSave)).willReturn(new BeerOrder());
+        given(beerRepository.findAllCachedById(List.of(1, 2, 3))).willReturn(List.of(testBeer));
 
         // when/then
         assertThatThrownBy(() -> beerOrderService.saveBeerOrder(beerOrderDtoToSave))
                 .isInstanceOf(EntityNotFoundException.class)
-                .hasMessageContaining("Beer not found with ID: 1");
+                .hasMessageContaining("Beer not found with IDs: [2, 3]");
+        verify(inventoryAllocationService, never()).allocate(any());
+        verify(beerOrderRepository, never()).save(any(BeerOrder.class));
     }
 
     @Test
@@ -234,93 +430,311 @@ class BeerOrderServiceImplTest {
         BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
         BeerOrder existingBeerOrder = BeerOrder.builder()
                 .id(1)
                 .customerRef("TEST-REF-001")
                 .paymentAmount(new BigDecimal("129.90"))
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         BeerOrder updatedBeerOrder = BeerOrder.builder()
                 .id(1)
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
         BeerOrderDto updatedBeerOrderDto = BeerOrderDto.builder()
                 .id(1)
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
-        given(beerOrderRepository.findById(1)).willReturn(Optional.of(existingBeerOrder));
-        given(beerOrderRepository.save(any(BeerOrder.class))).willReturn(updatedBeerOrder);
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(existingBeerOrder));
+        given(beerOrderRepository.saveAndFlush(any(BeerOrder.class))).willReturn(updatedBeerOrder);
         given(beerOrderMapper.beerOrderToBeerOrderDto(updatedBeerOrder)).willReturn(updatedBeerOrderDto);
 
         // when
-        Optional<BeerOrderDto> result = beerOrderService.updateBeerOrder(1, beerOrderDtoToUpdate);
+        Optional<BeerOrderDto> result = beerOrderService.updateBeerOrder(1, beerOrderDtoToUpdate, null);
 
         // then
         assertThat(result).isPresent();
         assertThat(result.get().getId()).isEqualTo(1);
         assertThat(result.get().getCustomerRef()).isEqualTo("UPDATED-REF-001");
         assertThat(result.get().getPaymentAmount()).isEqualTo(new BigDecimal("149.90"));
-        assertThat(result.get().getStatus()).isEqualTo("UPDATED");
-        verify(beerOrderRepository, times(1)).findById(1);
-        verify(beerOrderRepository, times(1)).save(any(BeerOrder.class));
+        assertThat(result.get().getStatus()).isEqualTo(BeerOrderStatus.PICKED);
+        verify(beerOrderRepository, times(1)).findWithBeerOrderLinesById(1);
+        verify(beerOrderRepository, times(1)).saveAndFlush(any(BeerOrder.class));
         verify(beerOrderMapper, times(1)).beerOrderToBeerOrderDto(updatedBeerOrder);
     }
 
+    @Test
+    void updateBeerOrderWithStaleVersion() {
+        // given
+        BeerOrder existingBeerOrder = BeerOrder.builder()
+                .id(1)
+                .version(4)
+                .customerRef("TEST-REF-001")
+                .build();
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(existingBeerOrder));
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.updateBeerOrder(1, BeerOrderDto.builder().build(), 3))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(existingBeerOrder.getCustomerRef()).isEqualTo("TEST-REF-001");
+        verify(beerOrderRepository, never()).saveAndFlush(any(BeerOrder.class));
+    }
+
+    @Test
+    void updateBeerOrderReconcilesLines() {
+        // given
+        BeerOrderLine changedLine = BeerOrderLine.builder().id(10).beer(testBeer).orderQuantity(5).build();
+        BeerOrderLine unchangedLine = BeerOrderLine.builder().id(11).beer(Beer.builder().id(2).build())
+                .orderQuantity(1).build();
+        BeerOrderLine removedLine = BeerOrderLine.builder().id(12).beer(Beer.builder().id(3).build())
+                .orderQuantity(4).build();
+        BeerOrder existingBeerOrder = BeerOrder.builder()
+                .id(1)
+                .customerRef("TEST-REF-001")
+                .status(BeerOrderStatus.NEW)
+                .build();
+        List.of(changedLine, unchangedLine, removedLine).forEach(existingBeerOrder::addBeerOrderLine);
+        Beer newBeer = Beer.builder().id(4).build();
+
+        BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
+                .customerRef("TEST-REF-001")
+                .beerOrderLines(List.of(
+                        BeerOrderLineDto.builder().id(10).beerId(1).orderQuantity(7).build(),
+                        BeerOrderLineDto.builder().id(11).beerId(2).orderQuantity(1).build(),
+                        BeerOrderLineDto.builder().beerId(4).orderQuantity(2).build()))
+                .build();
+
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(existingBeerOrder));
+        given(beerRepository.findAllCachedById(List.of(4))).willReturn(List.of(newBeer));
+        given(beerOrderRepository.saveAndFlush(existingBeerOrder)).willReturn(existingBeerOrder);
+        given(beerOrderMapper.beerOrderToBeerOrderDto(existingBeerOrder)).willReturn(testBeerOrderDto);
+
+        // when
+        beerOrderService.updateBeerOrder(1, beerOrderDtoToUpdate, null);
+
+        // then
+        assertThat(existingBeerOrder.getBeerOrderLines()).hasSize(3)
+                .contains(changedLine, unchangedLine)
+                .doesNotContain(removedLine);
+        BeerOrderLine newLine = existingBeerOrder.getBeerOrderLines().get(2);
+        assertThat(newLine.getBeer()).isSameAs(newBeer);
+        assertThat(newLine.getBeerOrder()).isSameAs(existingBeerOrder);
+        assertThat(changedLine.getOrderQuantity()).isEqualTo(7);
+        verify(entityManager).lock(existingBeerOrder, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        verify(inventoryAllocationService).reallocate(Map.of(changedLine, 5, newLine, 0), List.of(removedLine));
+    }
+
+    @Test
+    void updateBeerOrderWithUnchangedLinesLeavesStockAlone() {
+        // given
+        BeerOrder existingBeerOrder = BeerOrder.builder()
+                .id(1)
+                .customerRef("TEST-REF-001")
+                .status(BeerOrderStatus.NEW)
+                .build();
+        existingBeerOrder.addBeerOrderLine(BeerOrderLine.builder().id(10).beer(testBeer).orderQuantity(5).build());
+        BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
+                .customerRef("UPDATED-REF-001")
+                .beerOrderLines(List.of(BeerOrderLineDto.builder().id(10).beerId(1).orderQuantity(5).build()))
+                .build();
+
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(existingBeerOrder));
+        given(beerOrderRepository.saveAndFlush(existingBeerOrder)).willReturn(existingBeerOrder);
+        given(beerOrderMapper.beerOrderToBeerOrderDto(existingBeerOrder)).willReturn(testBeerOrderDto);
+
+        // when
+        beerOrderService.updateBeerOrder(1, beerOrderDtoToUpdate, null);
+
+        // then
+        assertThat(existingBeerOrder.getBeerOrderLines()).hasSize(1);
+        verify(entityManager, never()).lock(any(), any());
+        verify(inventoryAllocationService, never()).reallocate(any(), any());
+        verify(beerRepository, never()).findAllCachedById(any());
+    }
+
+    @Test
+    void updateBeerOrderWithLineOfAnotherOrder() {
+        // given
+        BeerOrder existingBeerOrder = BeerOrder.builder()
+                .id(1)
+                .customerRef("TEST-REF-001")
+                .status(BeerOrderStatus.NEW)
+                .build();
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(existingBeerOrder));
+        BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
+                .customerRef("TEST-REF-001")
+                .beerOrderLines(List.of(BeerOrderLineDto.builder().id(99).beerId(1).orderQuantity(5).build()))
+                .build();
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.updateBeerOrder(1, beerOrderDtoToUpdate, null))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("99");
+        verify(beerOrderRepository, never()).saveAndFlush(any(BeerOrder.class));
+    }
+
+    @Test
+    void updateBeerOrderWithStatusTransitionNotAllowed() {
+        // given
+        BeerOrder existingBeerOrder = BeerOrder.builder()
+                .id(1)
+                .customerRef("TEST-REF-001")
+                .status(BeerOrderStatus.SHIPPED)
+                .build();
+        given(beerOrderRepository.findWithBeerOrderLinesById(1)).willReturn(Optional.of(existingBeerOrder));
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.updateBeerOrder(1,
+                BeerOrderDto.builder().status(BeerOrderStatus.CANCELLED).build(), null))
+                .isInstanceOf(InvalidStatusTransitionException.class);
+        assertThat(existingBeerOrder.getStatus()).isEqualTo(BeerOrderStatus.SHIPPED);
+        verify(beerOrderRepository, never()).saveAndFlush(any(BeerOrder.class));
+    }
+
     @Test
     void updateBeerOrderNotFound() {
         // given
         BeerOrderDto beerOrderDtoToUpdate = BeerOrderDto.builder()
                 .customerRef("UPDATED-REF-001")
                 .paymentAmount(new BigDecimal("149.90"))
-                .status("UPDATED")
+                .status(BeerOrderStatus.PICKED)
                 .build();
 
-        given(beerOrderRepository.findById(999)).willReturn(Optional.empty());
+        given(beerOrderRepository.findWithBeerOrderLinesById(999)).willReturn(Optional.empty());
 
         // when
-        Optional<BeerOrderDto> result = beerOrderService.updateBeerOrder(999, beerOrderDtoToUpdate);
+        Optional<BeerOrderDto> result = beerOrderService.updateBeerOrder(999, beerOrderDtoToUpdate, null);
 
         // then
         assertThat(result).isEmpty();
-        verify(beerOrderRepository, times(1)).findById(999);
-        verify(beerOrderRepository, times(0)).save(any(BeerOrder.class));
+        verify(beerOrderRepository, times(1)).findWithBeerOrderLinesById(999);
+        verify(beerOrderRepository, times(0)).saveAndFlush(any(BeerOrder.class));
     }
 
     @Test
     void deleteBeerOrder() {
         // given
-        given(beerOrderRepository.existsById(1)).willReturn(true);
+        given(beerOrderRepository.findVersionById(1)).willReturn(Optional.of(2));
+        given(beerOrderRepository.bulkDeleteByIdAndVersion(1, 2)).willReturn(1);
 
         // when
-        boolean result = beerOrderService.deleteBeerOrder(1);
+        boolean result = beerOrderService.deleteBeerOrder(1, 2);
 
         // then
         assertThat(result).isTrue();
-        verify(beerOrderRepository, times(1)).existsById(1);
-        verify(beerOrderRepository, times(1)).deleteById(1);
+        InOrder inOrder = inOrder(inventoryAllocationService, beerOrderShipmentRepository, beerOrderLineRepository,
+                beerOrderRepository);
+        inOrder.verify(inventoryAllocationService).release(1);
+        inOrder.verify(beerOrderShipmentRepository).bulkDeleteByBeerOrderId(1);
+        inOrder.verify(beerOrderLineRepository).bulkDeleteByBeerOrderId(1);
+        inOrder.verify(beerOrderRepository).bulkDeleteByIdAndVersion(1, 2);
+        verify(beerOrderRepository, never()).findById(any());
+    }
+
+    @Test
+    void deleteBeerOrderWithStaleVersion() {
+        // given
+        given(beerOrderRepository.findVersionById(1)).willReturn(Optional.of(2));
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.deleteBeerOrder(1, 1))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(inventoryAllocationService, never()).release(any());
+        verify(beerOrderLineRepository, never()).bulkDeleteByBeerOrderId(any());
+        verify(beerOrderRepository, never()).bulkDeleteByIdAndVersion(any(), any());
+    }
+
+    @Test
+    void deleteBeerOrderUpdatedConcurrently() {
+        // given
+        given(beerOrderRepository.findVersionById(1)).willReturn(Optional.of(2));
+        given(beerOrderRepository.bulkDeleteByIdAndVersion(1, 2)).willReturn(0);
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.deleteBeerOrder(1, null))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
     }
 
     @Test
     void deleteBeerOrderNotFound() {
         // given
-        given(beerOrderRepository.existsById(999)).willReturn(false);
+        given(beerOrderRepository.findVersionById(999)).willReturn(Optional.empty());
 
         // when
-        boolean result = beerOrderService.deleteBeerOrder(999);
+        boolean result = beerOrderService.deleteBeerOrder(999, null);
 
         // then
         assertThat(result).isFalse();
-        verify(beerOrderRepository, times(1)).existsById(999);
-        verify(beerOrderRepository, times(0)).deleteById(anyInt());
+        verify(beerOrderLineRepository, never()).bulkDeleteByBeerOrderId(any());
+        verify(beerOrderRepository, never()).bulkDeleteByIdAndVersion(any(), any());
+    }
+
+    @Test
+    void transitionBeerOrderStatus() {
+        // given
+        BeerOrderStatusTransitionDto transition = BeerOrderStatusTransitionDto.builder()
+                .from(BeerOrderStatus.NEW)
+                .to(BeerOrderStatus.PICKED)
+                .beerOrderIds(List.of(3, 1, 2, 1))
+                .build();
+        given(beerOrderRepository.lockIdsByIdInAndStatus(List.of(3, 1, 2), BeerOrderStatus.NEW))
+                .willReturn(List.of(1, 3));
+        given(beerOrderRepository.bulkUpdateStatus(List.of(1, 3), BeerOrderStatus.NEW, BeerOrderStatus.PICKED))
+                .willReturn(2);
+
+        // when
+        BeerOrderStatusTransitionResultDto result = beerOrderService.transitionBeerOrderStatus(transition);
+
+        // then
+        assertThat(result.getFrom()).isEqualTo(BeerOrderStatus.NEW);
+        assertThat(result.getTo()).isEqualTo(BeerOrderStatus.PICKED);
+        assertThat(result.getTransitioned()).containsExactly(3, 1);
+        assertThat(result.getSkipped()).containsExactly(2);
+        verify(beerOrderRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void transitionBeerOrderStatusNoneInFromStatus() {
+        // given
+        BeerOrderStatusTransitionDto transition = BeerOrderStatusTransitionDto.builder()
+                .from(BeerOrderStatus.PICKED)
+                .to(BeerOrderStatus.SHIPPED)
+                .beerOrderIds(List.of(1, 2))
+                .build();
+        given(beerOrderRepository.lockIdsByIdInAndStatus(List.of(1, 2), BeerOrderStatus.PICKED))
+                .willReturn(List.of());
+
+        // when
+        BeerOrderStatusTransitionResultDto result = beerOrderService.transitionBeerOrderStatus(transition);
+
+        // then
+        assertThat(result.getTransitioned()).isEmpty();
+        assertThat(result.getSkipped()).containsExactly(1, 2);
+        verify(beerOrderRepository, never()).bulkUpdateStatus(any(), any(), any());
+    }
+
+    @Test
+    void transitionBeerOrderStatusNotAllowed() {
+        // given
+        BeerOrderStatusTransitionDto transition = BeerOrderStatusTransitionDto.builder()
+                .from(BeerOrderStatus.DELIVERED)
+                .to(BeerOrderStatus.NEW)
+                .beerOrderIds(List.of(1))
+                .build();
+
+        // when/then
+        assertThatThrownBy(() -> beerOrderService.transitionBeerOrderStatus(transition))
+                .isInstanceOf(InvalidStatusTransitionException.class);
+        verify(beerOrderRepository, never()).lockIdsByIdInAndStatus(any(), any());
+        verify(beerOrderRepository, never()).bulkUpdateStatus(any(), any(), any());
     }
-}
\ No newline at end of file
+}
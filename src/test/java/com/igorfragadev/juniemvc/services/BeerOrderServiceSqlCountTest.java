@@ -0,0 +1,265 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.models.BeerOrderStatusTransitionDto;
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.sql.SqlCountTest;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounter;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounts;
+import com.igorfragadev.juniemvc.sql.SqlStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SqlCountTest
+class BeerOrderServiceSqlCountTest {
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    BeerOrderShipmentService beerOrderShipmentService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    List<BeerDto> beers;
+    List<BeerOrderDto> beerOrders;
+
+    @BeforeEach
+    void setUp() {
+        // Several orders over several customers and beers, so a query per row would change the counts
+        beers = beerService.saveBeers(IntStream.range(0, 3)
+                .mapToObj(i -> BeerDto.builder()
+                        .beerName("Order Count Beer " + i)
+                        .beerStyle("IPA")
+                        .upc(UUID.randomUUID().toString())
+                        .price(new BigDecimal("9.99"))
+                        .quantityOnHand(100)
+                        .build())
+                .collect(Collectors.toList()));
+        List<CustomerDto> customers = IntStream.range(0, 2)
+                .mapToObj(i -> customerService.saveCustomer(CustomerDto.builder()
+                        .name("Order Count Customer " + i)
+                        .addressLine1("1 Main St")
+                        .city("Springfield")
+                        .state("IL")
+                        .postalCode("62701")
+                        .build()))
+                .toList();
+
+        beerOrders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            BeerOrderDto beerOrder = beerOrderService.saveBeerOrder(beerOrder(
+                    line(beers.get(i).getId(), 1), line(beers.get((i + 1) % 3).getId(), 1)));
+            // Orders take no customer from their DTO, so attach one directly
+            jdbcTemplate.update("update beer_order set customer_id = ? where id = ?",
+                    customers.get(i % 2).getId(), beerOrder.getId());
+            beerOrders.add(beerOrder);
+        }
+    }
+
+    @Test
+    void getAllBeerOrdersRunsOneSelectPerTable() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerOrderService.getAllBeerOrders());
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(4, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerOrdersRunsOneSelectPerTableAfterTheKeys() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerOrderService.getBeerOrders(null, 3));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(5, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerOrderByIdRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderService.getBeerOrderById(beerOrders.get(0).getId()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerOrderVersionRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderService.getBeerOrderVersion(beerOrders.get(0).getId()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void saveBeerOrderRunsOneStockUpdatePerLine() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerOrderService.saveBeerOrder(beerOrder(
+                line(beers.get(0).getId(), 1), line(beers.get(1).getId(), 1), line(beers.get(2).getId(), 1))));
+
+        // then
+        // The beers are read in one query; each line takes its stock with a conditional update of its own, then
+        // the new stock of all three beers is read back in one query
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(2, 2, 3, 0));
+    }
+
+    @Test
+    void saveBeerOrderReadsTheStockOfAPartiallyAllocatedLine() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerOrderService.saveBeerOrder(beerOrder(
+                line(beers.get(0).getId(), 1), line(beers.get(1).getId(), 1_000))));
+
+        // then
+        // The short line's first update matches nothing; it then reads what is left and takes that. The new stock
+        // of both beers is read back in one query.
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(3, 2, 3, 0));
+    }
+
+    @Test
+    void updateBeerOrderRunsOneSelectAndOneUpdate() {
+        // given
+        BeerOrderDto beerOrder = beerOrders.get(0);
+        beerOrder.setCustomerRef("UPDATED-REF");
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderService.updateBeerOrder(beerOrder.getId(), beerOrder, beerOrder.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+    }
+
+    @Test
+    void updateBeerOrderWritesOnlyTheChangedLines() {
+        // given
+        BeerOrderDto beerOrder = beerOrders.get(0);
+        BeerOrderLineDto changedLine = beerOrder.getBeerOrderLines().get(0);
+        BeerOrderLineDto removedLine = beerOrder.getBeerOrderLines().get(1);
+        changedLine.setOrderQuantity(3);
+        Integer newLineBeerId = beers.stream()
+                .map(BeerDto::getId)
+                .filter(beerId -> !beerId.equals(changedLine.getBeerId()) && !beerId.equals(removedLine.getBeerId()))
+                .findFirst()
+                .orElseThrow();
+        beerOrder.setBeerOrderLines(List.of(changedLine, line(newLineBeerId, 2)));
+        Map<Integer, Integer> quantitiesOnHand = quantitiesOnHand();
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderService.updateBeerOrder(beerOrder.getId(), beerOrder, beerOrder.getVersion()));
+
+        // then
+        // The order and its lines are read, then the new line's beer. Each beer's stock is changed by the line's
+        // change in quantity, then the changed line is updated, the new line inserted, the missing line deleted and
+        // the order's version incremented. The new stock of both beers is read back in one query.
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(3, 1, 5, 1));
+        assertThat(quantitiesOnHand()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                changedLine.getBeerId(), quantitiesOnHand.get(changedLine.getBeerId()) - 2,
+                removedLine.getBeerId(), quantitiesOnHand.get(removedLine.getBeerId()) + 1,
+                newLineBeerId, quantitiesOnHand.get(newLineBeerId) - 2));
+    }
+
+    @Test
+    void deleteBeerOrderReturnsStockPerBeerAndRunsOneDeletePerTableWhateverItsSize() {
+        // given
+        Map<Integer, Integer> quantitiesOnHand = quantitiesOnHand();
+        BeerOrderDto beerOrder = beerOrderService.saveBeerOrder(beerOrder(Stream.concat(beers.stream(), beers.stream())
+                .map(beer -> line(beer.getId(), 1))
+                .toArray(BeerOrderLineDto[]::new)));
+        IntStream.range(0, 2).forEach(i -> beerOrderShipmentService.saveBeerOrderShipment(BeerOrderShipmentDto.builder()
+                .beerOrderId(beerOrder.getId())
+                .shipmentDate(LocalDate.now())
+                .carrier("UPS")
+                .build()));
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderService.deleteBeerOrder(beerOrder.getId(), beerOrder.getVersion()));
+
+        // then
+        // The version and the stock the lines hold per beer are read, each beer gets its stock back, then the
+        // shipments, lines and order are deleted without being loaded
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(2, 0, 3, 3));
+        assertThat(quantitiesOnHand()).containsExactlyInAnyOrderEntriesOf(quantitiesOnHand);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from beer_order_line where beer_order_id = ?",
+                Integer.class, beerOrder.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from beer_order_shipment where beer_order_id = ?",
+                Integer.class, beerOrder.getId())).isZero();
+    }
+
+    @Test
+    void transitionBeerOrderStatusRunsOneSelectAndOneUpdateWhateverTheNumberOfOrders() {
+        // given
+        List<Integer> ids = new ArrayList<>(beerOrders.stream().map(BeerOrderDto::getId).toList());
+        ids.add(Integer.MAX_VALUE);
+        BeerOrderStatusTransitionDto transition = BeerOrderStatusTransitionDto.builder()
+                .from(BeerOrderStatus.NEW)
+                .to(BeerOrderStatus.PICKED)
+                .beerOrderIds(ids)
+                .build();
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderService.transitionBeerOrderStatus(transition));
+
+        // then
+        // The orders in the from status are locked and moved without being loaded
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+        assertThat(statements.sql().get(0)).endsWith("for update");
+        assertThat(jdbcTemplate.queryForList("select status from beer_order where id in (?, ?, ?)", String.class,
+                ids.get(0), ids.get(1), ids.get(2))).containsOnly("PICKED");
+    }
+
+    private Map<Integer, Integer> quantitiesOnHand() {
+        return beers.stream().collect(Collectors.toMap(BeerDto::getId, beer -> jdbcTemplate.queryForObject(
+                "select quantity_on_hand from beer where id = ?", Integer.class, beer.getId())));
+    }
+
+    private static BeerOrderDto beerOrder(BeerOrderLineDto... lines) {
+        return BeerOrderDto.builder()
+                .customerRef("COUNT-REF")
+                .paymentAmount(new BigDecimal("29.97"))
+                .status(BeerOrderStatus.NEW)
+                .beerOrderLines(List.of(lines))
+                .build();
+    }
+
+    private static BeerOrderLineDto line(Integer beerId, int orderQuantity) {
+        return BeerOrderLineDto.builder()
+                .beerId(beerId)
+                .orderQuantity(orderQuantity)
+                .build();
+    }
+}
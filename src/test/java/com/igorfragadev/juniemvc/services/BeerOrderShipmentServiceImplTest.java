@@ -4,6 +4,7 @@ import com.igorfragadev.juniemvc.entities.BeerOrder;
 import com.igorfragadev.juniemvc.entities.BeerOrderShipment;
 import com.igorfragadev.juniemvc.mappers.BeerOrderShipmentMapper;
 import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
 import com.igorfragadev.juniemvc.repositories.BeerOrderRepository;
 import com.igorfragadev.juniemvc.repositories.BeerOrderShipmentRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -52,7 +53,7 @@ class BeerOrderShipmentServiceImplTest {
         testBeerOrder = BeerOrder.builder()
                 .id(1)
                 .customerRef("TEST-REF-001")
-                .status("NEW")
+                .status(BeerOrderStatus.NEW)
                 .build();
 
         // Create test beer order shipment
@@ -0,0 +1,127 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderShipmentDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.sql.SqlCountTest;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounter;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounts;
+import com.igorfragadev.juniemvc.sql.SqlStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SqlCountTest
+class BeerOrderShipmentServiceSqlCountTest {
+
+    @Autowired
+    BeerOrderShipmentService beerOrderShipmentService;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    List<BeerOrderDto> beerOrders;
+    List<BeerOrderShipmentDto> shipments;
+
+    @BeforeEach
+    void setUp() {
+        beerOrders = IntStream.range(0, 2)
+                .mapToObj(i -> beerOrderService.saveBeerOrder(BeerOrderDto.builder()
+                        .customerRef("SHIP-COUNT-" + i)
+                        .paymentAmount(new BigDecimal("9.99"))
+                        .status(BeerOrderStatus.NEW)
+                        .build()))
+                .toList();
+        // Several shipments per order, so a query per shipment would change the counts
+        shipments = IntStream.range(0, 4)
+                .mapToObj(i -> beerOrderShipmentService.saveBeerOrderShipment(
+                        shipment(beerOrders.get(i % 2).getId())))
+                .toList();
+    }
+
+    @Test
+    void getAllBeerOrderShipmentsRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderShipmentService.getAllBeerOrderShipments());
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getShipmentsByBeerOrderIdRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderShipmentService.getShipmentsByBeerOrderId(beerOrders.get(0).getId()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerOrderShipmentByIdRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderShipmentService.getBeerOrderShipmentById(shipments.get(0).getId()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void saveBeerOrderShipmentRunsOneSelectAndOneInsert() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderShipmentService.saveBeerOrderShipment(shipment(beerOrders.get(0).getId())));
+
+        // then
+        // Adding the shipment to the order's collection doesn't load the shipments already in it
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 1, 0, 0));
+    }
+
+    @Test
+    void updateBeerOrderShipmentRunsOneSelectAndOneUpdate() {
+        // given
+        BeerOrderShipmentDto shipment = shipments.get(0);
+        shipment.setCarrier("DHL");
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderShipmentService.updateBeerOrderShipment(shipment.getId(), shipment));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+    }
+
+    @Test
+    void deleteBeerOrderShipmentRunsTwoSelectsAndOneDelete() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerOrderShipmentService.deleteBeerOrderShipment(shipments.get(0).getId()));
+
+        // then
+        // The existence check and deleteById's own lookup each read the shipment
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(2, 0, 0, 1));
+    }
+
+    private static BeerOrderShipmentDto shipment(Integer beerOrderId) {
+        return BeerOrderShipmentDto.builder()
+                .beerOrderId(beerOrderId)
+                .shipmentDate(LocalDate.now())
+                .carrier("UPS")
+                .trackingNumber(UUID.randomUUID().toString())
+                .build();
+    }
+}
@@ -1,30 +1,57 @@
 package com.igorfragadev.juniemvc.services;
 
+import com.igorfragadev.juniemvc.cache.BeerCache;
+import com.igorfragadev.juniemvc.cache.BeerCountCache;
+import com.igorfragadev.juniemvc.config.BeerCacheProperties;
+import com.igorfragadev.juniemvc.config.BeerCountCacheProperties;
 import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.events.BeerDeletedEvent;
+import com.igorfragadev.juniemvc.events.BeerPatchedEvent;
+import com.igorfragadev.juniemvc.events.BeerSavedEvent;
+import com.igorfragadev.juniemvc.exceptions.BeerBatchSaveException;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.mappers.BeerMapper;
 import com.igorfragadev.juniemvc.models.BeerDto;
 import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CountMode;
+import com.igorfragadev.juniemvc.models.SliceDto;
 import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerView;
+import com.igorfragadev.juniemvc.search.BeerSearchHits;
+import com.igorfragadev.juniemvc.search.BeerSearchIndex;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -37,10 +64,32 @@ class BeerServiceImplTest {
     @Mock
     BeerMapper beerMapper;
 
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    ObjectProvider<BeerSearchIndex> beerSearchIndexProvider;
+
+    @Mock
+    BeerSearchIndex beerSearchIndex;
+
+    @Spy
+    BeerCache beerCache = new BeerCache(new BeerCacheProperties(100, Duration.ofMinutes(1)));
+
+    @Spy
+    BeerCountCache beerCountCache = new BeerCountCache(new BeerCountCacheProperties(100, Duration.ofMinutes(1)));
+
     @InjectMocks
     BeerServiceImpl beerService;
 
     Beer testBeer;
+    BeerView testBeerView;
     BeerDto testBeerDto;
 
     @BeforeEach
@@ -54,6 +103,9 @@ class BeerServiceImplTest {
                 .quantityOnHand(100)
                 .build();
 
+        testBeerView = new BeerView(1, 0, "Test Beer", "IPA", "123456", 100, new BigDecimal("12.99"), null,
+                null, null);
+
         testBeerDto = BeerDto.builder()
                 .id(1)
                 .beerName("Test Beer")
@@ -67,8 +119,8 @@ class BeerServiceImplTest {
     @Test
     void getAllBeers() {
         // given
-        given(beerRepository.findAll()).willReturn(Arrays.asList(testBeer));
-        given(beerMapper.beerToBeerDto(testBeer)).willReturn(testBeerDto);
+        given(beerRepository.findViewsBy()).willReturn(Arrays.asList(testBeerView));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
 
         // when
         List<BeerDto> beers = beerService.getAllBeers();
@@ -76,8 +128,22 @@ class BeerServiceImplTest {
         // then
         assertThat(beers).hasSize(1);
         assertThat(beers.get(0).getBeerName()).isEqualTo("Test Beer");
-        verify(beerRepository, times(1)).findAll();
-        verify(beerMapper, times(1)).beerToBeerDto(testBeer);
+        verify(beerRepository, times(1)).findViewsBy();
+        verify(beerMapper, times(1)).beerViewToBeerDto(testBeerView);
+    }
+
+    @Test
+    void exportBeers() {
+        // given
+        given(beerRepository.streamViewsBy()).willReturn(Stream.of(testBeerView));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
+        List<BeerDto> exported = new ArrayList<>();
+
+        // when
+        beerService.exportBeers(exported::add);
+
+        // then
+        assertThat(exported).containsExactly(testBeerDto);
     }
 
     @Test
@@ -97,6 +163,37 @@ class BeerServiceImplTest {
         verify(beerMapper, times(1)).beerToBeerDto(testBeer);
     }
 
+    @Test
+    void getBeerByIdServedFromCache() {
+        // given
+        given(beerRepository.findById(1)).willReturn(Optional.of(testBeer));
+        given(beerMapper.beerToBeerDto(testBeer)).willReturn(testBeerDto);
+
+        // when
+        beerService.getBeerById(1);
+        Optional<BeerDto> foundBeer = beerService.getBeerById(1);
+
+        // then
+        assertThat(foundBeer).contains(testBeerDto);
+        verify(beerRepository, times(1)).findById(1);
+        assertThat(beerCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getBeerVersion() {
+        // given
+        BeerDto cachedBeerDto = BeerDto.builder().id(1).version(3).build();
+        given(beerRepository.findById(1)).willReturn(Optional.of(testBeer));
+        given(beerMapper.beerToBeerDto(testBeer)).willReturn(cachedBeerDto);
+        given(beerRepository.findVersionById(2)).willReturn(Optional.of(5));
+        beerService.getBeerById(1);
+
+        // when/then
+        assertThat(beerService.getBeerVersion(1)).contains(3);
+        assertThat(beerService.getBeerVersion(2)).contains(5);
+        verify(beerRepository, never()).findVersionById(1);
+    }
+
     @Test
     void getBeerByIdNotFound() {
         // given
@@ -161,6 +258,82 @@ class BeerServiceImplTest {
         verify(beerMapper, times(1)).beerDtoToBeer(beerDtoToSave);
         verify(beerRepository, times(1)).save(any(Beer.class));
         verify(beerMapper, times(1)).beerToBeerDto(savedBeer);
+        verify(eventPublisher, times(1)).publishEvent(new BeerSavedEvent(savedBeerDto));
+    }
+
+    @Test
+    void saveBeersInChunks() {
+        // given
+        int beerCount = BeerServiceImpl.SAVE_CHUNK_SIZE + 1;
+        List<BeerDto> beerDtos = new ArrayList<>();
+        for (int i = 0; i < beerCount; i++) {
+            beerDtos.add(BeerDto.builder().id(i + 1).beerName("Beer " + i).version(3).build());
+        }
+
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(beerMapper.beerDtoToBeer(any(BeerDto.class))).willAnswer(invocation -> Beer.builder()
+                .id(invocation.<BeerDto>getArgument(0).getId())
+                .beerName(invocation.<BeerDto>getArgument(0).getBeerName())
+                .version(invocation.<BeerDto>getArgument(0).getVersion())
+                .build());
+        given(beerRepository.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(beerMapper.beerToBeerDto(any(Beer.class))).willAnswer(invocation -> BeerDto.builder()
+                .id(invocation.<Beer>getArgument(0).getId())
+                .beerName(invocation.<Beer>getArgument(0).getBeerName())
+                .version(invocation.<Beer>getArgument(0).getVersion())
+                .build());
+
+        // when
+        List<BeerDto> savedBeers = beerService.saveBeers(beerDtos);
+
+        // then
+        assertThat(savedBeers).hasSize(beerCount);
+        assertThat(savedBeers.get(0).getBeerName()).isEqualTo("Beer 0");
+        assertThat(savedBeers.get(beerCount - 1).getBeerName()).isEqualTo("Beer " + (beerCount - 1));
+        assertThat(savedBeers).allSatisfy(beer -> {
+            assertThat(beer.getId()).isNull();
+            assertThat(beer.getVersion()).isNull();
+        });
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(beerRepository, times(2)).saveAll(any());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(eventPublisher, times(beerCount)).publishEvent(any(BeerSavedEvent.class));
+    }
+
+    @Test
+    void saveBeersReportsTheBeersSavedBeforeAFailedChunk() {
+        // given
+        List<BeerDto> beerDtos = new ArrayList<>();
+        for (int i = 0; i < BeerServiceImpl.SAVE_CHUNK_SIZE * 3; i++) {
+            beerDtos.add(BeerDto.builder().beerName("Beer " + i).build());
+        }
+        RuntimeException failure = new IllegalStateException("Duplicate UPC");
+
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .willThrow(failure);
+        given(beerMapper.beerDtoToBeer(any(BeerDto.class))).willAnswer(invocation -> new Beer());
+        given(beerRepository.saveAll(any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(beerMapper.beerToBeerDto(any(Beer.class))).willAnswer(invocation -> new BeerDto());
+
+        // when / then
+        assertThatThrownBy(() -> beerService.saveBeers(beerDtos))
+                .isInstanceOfSatisfying(BeerBatchSaveException.class, e ->
+                        assertThat(e.getSavedBeers()).hasSize(BeerServiceImpl.SAVE_CHUNK_SIZE))
+                .hasCause(failure);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void saveBeersRethrowsAFailedFirstChunk() {
+        // given
+        RuntimeException failure = new IllegalStateException("Duplicate UPC");
+        given(transactionTemplate.execute(any())).willThrow(failure);
+
+        // when / then
+        assertThatThrownBy(() -> beerService.saveBeers(List.of(new BeerDto()))).isSameAs(failure);
     }
 
     @Test
@@ -211,11 +384,11 @@ class BeerServiceImplTest {
 
         given(beerMapper.beerDtoToBeer(beerDtoToUpdate)).willReturn(beerToUpdate);
         given(beerRepository.findById(1)).willReturn(Optional.of(existingBeer));
-        given(beerRepository.save(any(Beer.class))).willReturn(updatedBeer);
+        given(beerRepository.saveAndFlush(any(Beer.class))).willReturn(updatedBeer);
         given(beerMapper.beerToBeerDto(updatedBeer)).willReturn(updatedBeerDto);
 
         // when
-        Optional<BeerDto> result = beerService.updateBeer(1, beerDtoToUpdate);
+        Optional<BeerDto> result = beerService.updateBeer(1, beerDtoToUpdate, null);
 
         // then
         assertThat(result).isPresent();
@@ -224,8 +397,27 @@ class BeerServiceImplTest {
         assertThat(result.get().getBeerStyle()).isEqualTo("Stout");
         verify(beerMapper, times(1)).beerDtoToBeer(beerDtoToUpdate);
         verify(beerRepository, times(1)).findById(1);
-        verify(beerRepository, times(1)).save(any(Beer.class));
+        verify(beerRepository, times(1)).saveAndFlush(any(Beer.class));
         verify(beerMapper, times(1)).beerToBeerDto(updatedBeer);
+        verify(eventPublisher, times(1)).publishEvent(new BeerSavedEvent(updatedBeerDto));
+    }
+
+    @Test
+    void updateBeerWithStaleVersion() {
+        // given
+        Beer existingBeer = Beer.builder()
+                .id(1)
+                .version(2)
+                .beerName("Test Beer")
+                .build();
+        given(beerRepository.findById(1)).willReturn(Optional.of(existingBeer));
+
+        // when/then
+        assertThatThrownBy(() -> beerService.updateBeer(1, BeerDto.builder().beerName("Updated Beer").build(), 1))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(existingBeer.getBeerName()).isEqualTo("Test Beer");
+        verify(beerRepository, never()).saveAndFlush(any(Beer.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -242,51 +434,63 @@ class BeerServiceImplTest {
         given(beerRepository.findById(999)).willReturn(Optional.empty());
 
         // when
-        Optional<BeerDto> result = beerService.updateBeer(999, beerDtoToUpdate);
+        Optional<BeerDto> result = beerService.updateBeer(999, beerDtoToUpdate, null);
 
         // then
         assertThat(result).isEmpty();
         verify(beerRepository, times(1)).findById(999);
-        verify(beerRepository, times(0)).save(any(Beer.class));
+        verify(beerRepository, times(0)).saveAndFlush(any(Beer.class));
     }
 
     @Test
     void deleteBeer() {
         // given
-        given(beerRepository.existsById(1)).willReturn(true);
+        given(beerRepository.findById(1)).willReturn(Optional.of(testBeer));
 
         // when
-        boolean result = beerService.deleteBeer(1);
+        boolean result = beerService.deleteBeer(1, null);
 
         // then
         assertThat(result).isTrue();
-        verify(beerRepository, times(1)).existsById(1);
-        verify(beerRepository, times(1)).deleteById(1);
+        verify(beerRepository, times(1)).findById(1);
+        verify(beerRepository, times(1)).delete(testBeer);
+        verify(eventPublisher, times(1)).publishEvent(new BeerDeletedEvent(1));
+    }
+
+    @Test
+    void deleteBeerWithStaleVersion() {
+        // given
+        given(beerRepository.findById(1)).willReturn(Optional.of(Beer.builder().id(1).version(2).build()));
+
+        // when/then
+        assertThatThrownBy(() -> beerService.deleteBeer(1, 1)).isInstanceOf(PreconditionFailedException.class);
+        verify(beerRepository, never()).delete(any(Beer.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void deleteBeerNotFound() {
         // given
-        given(beerRepository.existsById(999)).willReturn(false);
+        given(beerRepository.findById(999)).willReturn(Optional.empty());
 
         // when
-        boolean result = beerService.deleteBeer(999);
+        boolean result = beerService.deleteBeer(999, null);
 
         // then
         assertThat(result).isFalse();
-        verify(beerRepository, times(1)).existsById(999);
-        verify(beerRepository, times(0)).deleteById(anyInt());
+        verify(beerRepository, times(1)).findById(999);
+        verify(beerRepository, times(0)).delete(any(Beer.class));
     }
 
     @Test
     void getAllBeersWithPagination() {
         // given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Beer> beers = Arrays.asList(testBeer);
-        Page<Beer> beerPage = new PageImpl<>(beers, pageable, beers.size());
+        List<BeerView> beers = Arrays.asList(testBeerView);
+        Page<BeerView> beerPage = new PageImpl<>(beers, pageable, beers.size());
 
-        given(beerRepository.findAll(pageable)).willReturn(beerPage);
-        given(beerMapper.beerToBeerDto(testBeer)).willReturn(testBeerDto);
+        given(beerRepository.findViewsBy(pageable)).willReturn(beerPage);
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
 
         // when
         Page<BeerDto> result = beerService.getAllBeers(null, null, pageable);
@@ -295,8 +499,8 @@ class BeerServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getBeerName()).isEqualTo("Test Beer");
-        verify(beerRepository, times(1)).findAll(pageable);
-        verify(beerMapper, times(1)).beerToBeerDto(testBeer);
+        verify(beerRepository, times(1)).findViewsBy(pageable);
+        verify(beerMapper, times(1)).beerViewToBeerDto(testBeerView);
     }
 
     @Test
@@ -304,11 +508,11 @@ class BeerServiceImplTest {
         // given
         String beerName = "Test";
         Pageable pageable = PageRequest.of(0, 10);
-        List<Beer> beers = Arrays.asList(testBeer);
-        Page<Beer> beerPage = new PageImpl<>(beers, pageable, beers.size());
+        List<BeerView> beers = Arrays.asList(testBeerView);
+        Page<BeerView> beerPage = new PageImpl<>(beers, pageable, beers.size());
 
-        given(beerRepository.findAllByBeerNameContainingIgnoreCase(beerName, pageable)).willReturn(beerPage);
-        given(beerMapper.beerToBeerDto(testBeer)).willReturn(testBeerDto);
+        given(beerRepository.findViewsByBeerNameContainingIgnoreCase(beerName, pageable)).willReturn(beerPage);
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
 
         // when
         Page<BeerDto> result = beerService.getAllBeers(beerName, null, pageable);
@@ -317,8 +521,8 @@ class BeerServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getBeerName()).isEqualTo("Test Beer");
-        verify(beerRepository, times(1)).findAllByBeerNameContainingIgnoreCase(beerName, pageable);
-        verify(beerMapper, times(1)).beerToBeerDto(testBeer);
+        verify(beerRepository, times(1)).findViewsByBeerNameContainingIgnoreCase(beerName, pageable);
+        verify(beerMapper, times(1)).beerViewToBeerDto(testBeerView);
     }
 
     @Test
@@ -326,11 +530,11 @@ class BeerServiceImplTest {
         // given
         String beerStyle = "IPA";
         Pageable pageable = PageRequest.of(0, 10);
-        List<Beer> beers = Arrays.asList(testBeer);
-        Page<Beer> beerPage = new PageImpl<>(beers, pageable, beers.size());
+        List<BeerView> beers = Arrays.asList(testBeerView);
+        Page<BeerView> beerPage = new PageImpl<>(beers, pageable, beers.size());
 
-        given(beerRepository.findAllByBeerStyleContainingIgnoreCase(beerStyle, pageable)).willReturn(beerPage);
-        given(beerMapper.beerToBeerDto(testBeer)).willReturn(testBeerDto);
+        given(beerRepository.findViewsByBeerStyleContainingIgnoreCase(beerStyle, pageable)).willReturn(beerPage);
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
 
         // when
         Page<BeerDto> result = beerService.getAllBeers(null, beerStyle, pageable);
@@ -339,8 +543,8 @@ class BeerServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getBeerStyle()).isEqualTo("IPA");
-        verify(beerRepository, times(1)).findAllByBeerStyleContainingIgnoreCase(beerStyle, pageable);
-        verify(beerMapper, times(1)).beerToBeerDto(testBeer);
+        verify(beerRepository, times(1)).findViewsByBeerStyleContainingIgnoreCase(beerStyle, pageable);
+        verify(beerMapper, times(1)).beerViewToBeerDto(testBeerView);
     }
 
     @Test
@@ -349,12 +553,12 @@ class BeerServiceImplTest {
         String beerName = "Test";
         String beerStyle = "IPA";
         Pageable pageable = PageRequest.of(0, 10);
-        List<Beer> beers = Arrays.asList(testBeer);
-        Page<Beer> beerPage = new PageImpl<>(beers, pageable, beers.size());
+        List<BeerView> beers = Arrays.asList(testBeerView);
+        Page<BeerView> beerPage = new PageImpl<>(beers, pageable, beers.size());
 
-        given(beerRepository.findAllByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+        given(beerRepository.findViewsByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
                 beerName, beerStyle, pageable)).willReturn(beerPage);
-        given(beerMapper.beerToBeerDto(testBeer)).willReturn(testBeerDto);
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
 
         // when
         Page<BeerDto> result = beerService.getAllBeers(beerName, beerStyle, pageable);
@@ -364,9 +568,9 @@ class BeerServiceImplTest {
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getBeerName()).isEqualTo("Test Beer");
         assertThat(result.getContent().get(0).getBeerStyle()).isEqualTo("IPA");
-        verify(beerRepository, times(1)).findAllByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
+        verify(beerRepository, times(1)).findViewsByBeerNameContainingIgnoreCaseAndBeerStyleContainingIgnoreCase(
                 beerName, beerStyle, pageable);
-        verify(beerMapper, times(1)).beerToBeerDto(testBeer);
+        verify(beerMapper, times(1)).beerViewToBeerDto(testBeerView);
     }
 
     @Test
@@ -406,11 +610,11 @@ class BeerServiceImplTest {
 
         given(beerRepository.findById(1)).willReturn(Optional.of(existingBeer));
         given(beerMapper.updateBeerFromBeerPathDto(beerPathDto, existingBeer)).willReturn(patchedBeer);
-        given(beerRepository.save(patchedBeer)).willReturn(patchedBeer);
+        given(beerRepository.saveAndFlush(patchedBeer)).willReturn(patchedBeer);
         given(beerMapper.beerToBeerDto(patchedBeer)).willReturn(patchedBeerDto);
 
         // when
-        Optional<BeerDto> result = beerService.patchBeer(1, beerPathDto);
+        Optional<BeerDto> result = beerService.patchBeer(1, beerPathDto, null);
 
         // then
         assertThat(result).isPresent();
@@ -420,8 +624,9 @@ class BeerServiceImplTest {
         assertThat(result.get().getPrice()).isEqualTo(new BigDecimal("16.99"));
         verify(beerRepository, times(1)).findById(1);
         verify(beerMapper, times(1)).updateBeerFromBeerPathDto(beerPathDto, existingBeer);
-        verify(beerRepository, times(1)).save(patchedBeer);
+        verify(beerRepository, times(1)).saveAndFlush(patchedBeer);
         verify(beerMapper, times(1)).beerToBeerDto(patchedBeer);
+        verify(eventPublisher, times(1)).publishEvent(new BeerSavedEvent(patchedBeerDto));
     }
 
     @Test
@@ -435,12 +640,173 @@ class BeerServiceImplTest {
         given(beerRepository.findById(999)).willReturn(Optional.empty());
 
         // when
-        Optional<BeerDto> result = beerService.patchBeer(999, beerPathDto);
+        Optional<BeerDto> result = beerService.patchBeer(999, beerPathDto, null);
 
         // then
         assertThat(result).isEmpty();
         verify(beerRepository, times(1)).findById(999);
         verify(beerMapper, times(0)).updateBeerFromBeerPathDto(any(), any());
-        verify(beerRepository, times(0)).save(any());
+        verify(beerRepository, times(0)).saveAndFlush(any());
+    }
+
+    @Test
+    void patchBeerAtVersionUpdatesWithoutReadingTheBeer() {
+        // given
+        BeerPathDto beerPathDto = BeerPathDto.builder()
+                .price(new BigDecimal("16.99"))
+                .quantityOnHand(50)
+                .build();
+        given(beerRepository.updateAtVersion(1, 2, Map.of("price", new BigDecimal("16.99"), "quantityOnHand", 50)))
+                .willReturn(1);
+
+        // when
+        Optional<Integer> result = beerService.patchBeerAtVersion(1, beerPathDto, 2);
+
+        // then
+        assertThat(result).contains(3);
+        verify(beerRepository, never()).findById(anyInt());
+        verify(eventPublisher, times(1)).publishEvent(new BeerPatchedEvent(1));
+    }
+
+    @Test
+    void patchBeerAtVersionOfAnotherVersion() {
+        // given
+        BeerPathDto beerPathDto = BeerPathDto.builder().price(new BigDecimal("16.99")).build();
+        given(beerRepository.updateAtVersion(1, 2, Map.of("price", new BigDecimal("16.99")))).willReturn(0);
+        given(beerRepository.existsById(1)).willReturn(true);
+
+        // when / then
+        assertThatThrownBy(() -> beerService.patchBeerAtVersion(1, beerPathDto, 2))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Beer 1 is not at version 2");
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void patchBeerAtVersionNotFound() {
+        // given
+        BeerPathDto beerPathDto = BeerPathDto.builder().price(new BigDecimal("16.99")).build();
+        given(beerRepository.updateAtVersion(999, 2, Map.of("price", new BigDecimal("16.99")))).willReturn(0);
+        given(beerRepository.existsById(999)).willReturn(false);
+
+        // when
+        Optional<Integer> result = beerService.patchBeerAtVersion(999, beerPathDto, 2);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void patchBeerAtVersionOfTheNameReadsTheBeerForTheSearchIndex() {
+        // given
+        BeerPathDto beerPathDto = BeerPathDto.builder().beerName("Patched Beer").build();
+        Beer existingBeer = Beer.builder().id(1).version(2).beerName("Test Beer").beerStyle("IPA").build();
+        BeerDto patchedBeerDto = BeerDto.builder().id(1).version(3).beerName("Patched Beer").beerStyle("IPA").build();
+        given(beerRepository.findById(1)).willReturn(Optional.of(existingBeer));
+        given(beerMapper.updateBeerFromBeerPathDto(beerPathDto, existingBeer)).willReturn(existingBeer);
+        given(beerRepository.saveAndFlush(existingBeer)).willReturn(existingBeer);
+        given(beerMapper.beerToBeerDto(existingBeer)).willReturn(patchedBeerDto);
+
+        // when
+        Optional<Integer> result = beerService.patchBeerAtVersion(1, beerPathDto, 2);
+
+        // then
+        assertThat(result).contains(3);
+        verify(beerRepository, never()).updateAtVersion(any(), any(), any());
+        verify(eventPublisher, times(1)).publishEvent(new BeerSavedEvent(patchedBeerDto));
+    }
+
+    @Test
+    void getAllBeersUsesSearchIndexWhenReady() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10);
+        BeerView otherBeerView = new BeerView(2, 0, "Test Stout", null, null, null, null, null, null, null);
+        BeerDto otherBeerDto = BeerDto.builder().id(2).beerName("Test Stout").build();
+
+        given(beerSearchIndexProvider.getIfAvailable()).willReturn(beerSearchIndex);
+        given(beerSearchIndex.isReady()).willReturn(true);
+        given(beerSearchIndex.search("test", null, pageable)).willReturn(new BeerSearchHits(List.of(2, 1), 12));
+        given(beerRepository.findViewsByIdIn(List.of(2, 1))).willReturn(List.of(testBeerView, otherBeerView));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
+        given(beerMapper.beerViewToBeerDto(otherBeerView)).willReturn(otherBeerDto);
+
+        // when
+        Page<BeerDto> result = beerService.getAllBeers("test", null, pageable);
+
+        // then
+        assertThat(result.getContent()).extracting(BeerDto::getId).containsExactly(2, 1);
+        assertThat(result.getTotalElements()).isEqualTo(12);
+        verify(beerRepository, never()).findViewsByBeerNameContainingIgnoreCase(any(), any());
+    }
+
+    @Test
+    void getAllBeersFallsBackToDatabaseUntilSearchIndexIsReady() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10);
+        given(beerSearchIndexProvider.getIfAvailable()).willReturn(beerSearchIndex);
+        given(beerSearchIndex.isReady()).willReturn(false);
+        given(beerRepository.findViewsByBeerNameContainingIgnoreCase("test", pageable))
+                .willReturn(new PageImpl<>(List.of(testBeerView), pageable, 1));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
+
+        // when
+        Page<BeerDto> result = beerService.getAllBeers("test", null, pageable);
+
+        // then
+        assertThat(result.getContent()).containsExactly(testBeerDto);
+        verify(beerSearchIndex, never()).search(any(), any(), any());
+    }
+
+    @Test
+    void getBeerSliceSkipsCountQuery() {
+        // given
+        Pageable pageable = PageRequest.of(0, 1);
+        given(beerRepository.findSliceByBeerNameContainingIgnoreCase("test", pageable))
+                .willReturn(new SliceImpl<>(List.of(testBeerView), pageable, true));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
+
+        // when
+        SliceDto<BeerDto> result = beerService.getBeerSlice("test", null, pageable, CountMode.NONE);
+
+        // then
+        assertThat(result.getContent()).containsExactly(testBeerDto);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getTotalElements()).isNull();
+        verify(beerRepository, never()).countByBeerNameContainingIgnoreCase(any());
+    }
+
+    @Test
+    void getBeerSliceReusesCachedCount() {
+        // given
+        Pageable pageable = PageRequest.of(0, 1);
+        given(beerRepository.findSliceByBeerStyleContainingIgnoreCase(any(), any()))
+                .willReturn(new SliceImpl<>(List.of(testBeerView), pageable, true));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
+        given(beerRepository.countByBeerStyleContainingIgnoreCase("IPA")).willReturn(42L);
+
+        // when
+        SliceDto<BeerDto> first = beerService.getBeerSlice(null, "IPA", pageable, CountMode.CACHED);
+        SliceDto<BeerDto> second = beerService.getBeerSlice(null, "ipa", pageable, CountMode.CACHED);
+
+        // then
+        assertThat(first.getTotalElements()).isEqualTo(42L);
+        assertThat(second.getTotalElements()).isEqualTo(42L);
+        verify(beerRepository, times(1)).countByBeerStyleContainingIgnoreCase(any());
+    }
+
+    @Test
+    void getBeerSliceDerivesTotalOnLastPage() {
+        // given
+        Pageable pageable = PageRequest.of(2, 10);
+        given(beerRepository.findSliceBy(pageable)).willReturn(new SliceImpl<>(List.of(testBeerView), pageable, false));
+        given(beerMapper.beerViewToBeerDto(testBeerView)).willReturn(testBeerDto);
+
+        // when
+        SliceDto<BeerDto> result = beerService.getBeerSlice(null, null, pageable, CountMode.EXACT);
+
+        // then
+        assertThat(result.getTotalElements()).isEqualTo(21L);
+        assertThat(result.getPage()).isEqualTo(2);
+        verify(beerRepository, never()).count();
     }
 }
@@ -0,0 +1,241 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.cache.BeerCache;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.models.BeerPathDto;
+import com.igorfragadev.juniemvc.models.CountMode;
+import com.igorfragadev.juniemvc.sql.SqlCountTest;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounter;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounts;
+import com.igorfragadev.juniemvc.sql.SqlStatements;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SqlCountTest
+class BeerServiceSqlCountTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerCache beerCache;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    String beerName;
+    List<BeerDto> savedBeers;
+
+    @BeforeEach
+    void setUp() {
+        // A name of its own keeps searches away from rows written by other tests and from cached totals
+        beerName = "Counted " + UUID.randomUUID().toString().substring(0, 8);
+        savedBeers = beerService.saveBeers(beers(3));
+    }
+
+    @Test
+    void getAllBeersRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.getAllBeers());
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerPageRunsOneSelectAndOneCount() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerService.getAllBeers(null, null, PageRequest.of(0, 2)));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(2, 0, 0, 0));
+    }
+
+    @Test
+    void searchBeersRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> assertThat(beerService.getAllBeers(beerName, null, PageRequest.of(0, 10))).hasSize(3));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerSliceWithoutCountRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerService.getBeerSlice(null, null, PageRequest.of(0, 2), CountMode.NONE));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerSliceWithExactCountRunsOneSelectAndOneCount() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerService.getBeerSlice(null, null, PageRequest.of(0, 2), CountMode.EXACT));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(2, 0, 0, 0));
+    }
+
+    @Test
+    void exportBeersRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.exportBeers(beer -> { }));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerByIdRunsOneSelectOnlyOnACacheMiss() {
+        // given
+        Integer beerId = savedBeers.get(0).getId();
+        beerCache.evict(beerId);
+
+        // when
+        SqlStatements miss = sqlStatementCounter.record(() -> beerService.getBeerById(beerId));
+        SqlStatements hit = sqlStatementCounter.record(() -> beerService.getBeerById(beerId));
+
+        // then
+        assertThat(miss.counts()).as(miss.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+        assertThat(hit.counts()).as(hit.toString()).isEqualTo(new SqlStatementCounts(0, 0, 0, 0));
+    }
+
+    @Test
+    void getBeerVersionRunsOneSelectOnACacheMiss() {
+        // given
+        Integer beerId = savedBeers.get(0).getId();
+        beerCache.evict(beerId);
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.getBeerVersion(beerId));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void saveBeerRunsOneInsert() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.saveBeer(beers(1).get(0)));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(0, 1, 0, 0));
+    }
+
+    @Test
+    void saveBeersRunsOneBatchedInsert() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.saveBeers(beers(10)));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(0, 1, 0, 0));
+    }
+
+    @Test
+    void saveBeersRunsOneTransactionAndOneBatchedInsertPerChunk() {
+        // given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<BeerDto> beers = beers(BeerServiceImpl.SAVE_CHUNK_SIZE + 1);
+        statistics.clear();
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.saveBeers(beers));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(0, 2, 0, 0));
+        assertThat(statistics.getTransactionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updateBeerRunsOneSelectAndOneUpdate() {
+        // given
+        BeerDto beer = savedBeers.get(0);
+        beer.setBeerName(beerName + " Updated");
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerService.updateBeer(beer.getId(), beer, beer.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+    }
+
+    @Test
+    void patchBeerRunsOneSelectAndOneUpdateOfTheChangedColumns() {
+        // given
+        BeerDto beer = savedBeers.get(0);
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.patchBeer(beer.getId(),
+                BeerPathDto.builder().beerName(beerName + " Patched").build(), beer.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+        assertThat(statements.sql().get(1)).contains("beer_name").doesNotContain("beer_style", "upc", "price");
+    }
+
+    @Test
+    void patchBeerAtVersionRunsOneUpdateOfTheChangedColumns() {
+        // given
+        BeerDto beer = savedBeers.get(0);
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> beerService.patchBeerAtVersion(beer.getId(),
+                BeerPathDto.builder().price(new BigDecimal("10.99")).build(), beer.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(0, 0, 1, 0));
+        assertThat(statements.sql().get(0)).contains("price").doesNotContain("beer_name", "upc");
+        assertThat(beerService.getBeerById(beer.getId())).hasValueSatisfying(patched -> {
+            assertThat(patched.getPrice()).isEqualByComparingTo("10.99");
+            assertThat(patched.getVersion()).isEqualTo(beer.getVersion() + 1);
+        });
+    }
+
+    @Test
+    void deleteBeerRunsOneSelectAndOneDelete() {
+        // given
+        BeerDto beer = savedBeers.get(0);
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> beerService.deleteBeer(beer.getId(), beer.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 1));
+    }
+
+    private List<BeerDto> beers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BeerDto.builder()
+                        .beerName(beerName + " " + i)
+                        .beerStyle("IPA")
+                        .upc(UUID.randomUUID().toString())
+                        .price(new BigDecimal("9.99"))
+                        .quantityOnHand(100)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
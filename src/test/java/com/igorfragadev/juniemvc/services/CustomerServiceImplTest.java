@@ -1,9 +1,12 @@
 package com.igorfragadev.juniemvc.services;
 
 import com.igorfragadev.juniemvc.entities.Customer;
+import com.igorfragadev.juniemvc.exceptions.PreconditionFailedException;
 import com.igorfragadev.juniemvc.mappers.CustomerMapper;
 import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
 import com.igorfragadev.juniemvc.repositories.CustomerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.CustomerView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,12 +16,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -67,8 +73,10 @@ class CustomerServiceImplTest {
     @Test
     void getAllCustomers() {
         // given
-        given(customerRepository.findAll()).willReturn(Arrays.asList(testCustomer));
-        given(customerMapper.customerToCustomerDto(testCustomer)).willReturn(testCustomerDto);
+        CustomerView customerView = new CustomerView(1, 0, "John Doe", "john@example.com", null, "123 Main St", null,
+                "Springfield", "IL", "62701", null, null);
+        given(customerRepository.findViewsBy()).willReturn(Arrays.asList(customerView));
+        given(customerMapper.customerViewToCustomerDto(customerView)).willReturn(testCustomerDto);
 
         // when
         List<CustomerDto> customers = customerService.getAllCustomers();
@@ -76,8 +84,8 @@ class CustomerServiceImplTest {
         // then
         assertThat(customers).hasSize(1);
         assertThat(customers.get(0).getName()).isEqualTo("John Doe");
-        verify(customerRepository, times(1)).findAll();
-        verify(customerMapper, times(1)).customerToCustomerDto(testCustomer);
+        verify(customerRepository, times(1)).findViewsBy();
+        verify(customerMapper, times(1)).customerViewToCustomerDto(customerView);
     }
 
     @Test
@@ -110,6 +118,19 @@ class CustomerServiceImplTest {
         verify(customerRepository, times(1)).findById(999);
     }
 
+    @Test
+    void getCustomerVersion() {
+        // given
+        given(customerRepository.findVersionById(1)).willReturn(Optional.of(3));
+
+        // when
+        Optional<Integer> version = customerService.getCustomerVersion(1);
+
+        // then
+        assertThat(version).contains(3);
+        verify(customerRepository, never()).findById(any());
+    }
+
     @Test
     void saveCustomer() {
         // given
@@ -222,7 +243,7 @@ class CustomerServiceImplTest {
                 .build();
 
         given(customerRepository.findById(1)).willReturn(Optional.of(existingCustomer));
-        given(customerRepository.save(any(Customer.class))).willReturn(updatedCustomer);
+        given(customerRepository.saveAndFlush(any(Customer.class))).willReturn(updatedCustomer);
         given(customerMapper.customerToCustomerDto(updatedCustomer)).willReturn(updatedCustomerDto);
 
         // when
@@ -235,7 +256,7 @@ class CustomerServiceImplTest {
         assertThat(result.get().getEmail()).isEqualTo("john.updated@example.com");
         verify(customerMapper, times(1)).updateCustomerFromDto(customerDtoToUpdate, existingCustomer);
         verify(customerRepository, times(1)).findById(1);
-        verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(customerRepository, times(1)).saveAndFlush(any(Customer.class));
         verify(customerMapper, times(1)).customerToCustomerDto(updatedCustomer);
     }
 
@@ -261,7 +282,7 @@ class CustomerServiceImplTest {
         // then
         assertThat(result).isEmpty();
         verify(customerRepository, times(1)).findById(999);
-        verify(customerRepository, times(0)).save(any(Customer.class));
+        verify(customerRepository, times(0)).saveAndFlush(any(Customer.class));
     }
 
     @Test
@@ -291,4 +312,76 @@ class CustomerServiceImplTest {
         verify(customerRepository, times(1)).existsById(999);
         verify(customerRepository, times(0)).deleteById(anyInt());
     }
+
+    @Test
+    void patchCustomer() {
+        // given
+        CustomerPatchDto customerPatchDto = CustomerPatchDto.builder().city("Shelbyville").build();
+        testCustomer.setVersion(2);
+        given(customerRepository.findById(1)).willReturn(Optional.of(testCustomer));
+        given(customerRepository.saveAndFlush(testCustomer)).willReturn(testCustomer);
+        given(customerMapper.customerToCustomerDto(testCustomer)).willReturn(testCustomerDto);
+
+        // when
+        Optional<CustomerDto> result = customerService.patchCustomer(1, customerPatchDto, 2);
+
+        // then
+        assertThat(result).contains(testCustomerDto);
+        verify(customerMapper, times(1)).updateCustomerFromCustomerPatchDto(customerPatchDto, testCustomer);
+        verify(customerRepository, times(1)).saveAndFlush(testCustomer);
+    }
+
+    @Test
+    void patchCustomerWithStaleVersion() {
+        // given
+        CustomerPatchDto customerPatchDto = CustomerPatchDto.builder().city("Shelbyville").build();
+        testCustomer.setVersion(2);
+        given(customerRepository.findById(1)).willReturn(Optional.of(testCustomer));
+
+        // when / then
+        assertThatThrownBy(() -> customerService.patchCustomer(1, customerPatchDto, 1))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Customer 1 is at version 2, not 1");
+        verify(customerRepository, never()).saveAndFlush(any(Customer.class));
+    }
+
+    @Test
+    void patchCustomerNotFound() {
+        // given
+        given(customerRepository.findById(999)).willReturn(Optional.empty());
+
+        // when
+        Optional<CustomerDto> result = customerService.patchCustomer(999, CustomerPatchDto.builder().build(), null);
+
+        // then
+        assertThat(result).isEmpty();
+        verify(customerRepository, never()).saveAndFlush(any(Customer.class));
+    }
+
+    @Test
+    void patchCustomerAtVersionUpdatesWithoutReadingTheCustomer() {
+        // given
+        CustomerPatchDto customerPatchDto = CustomerPatchDto.builder().city("Shelbyville").state("IL").build();
+        given(customerRepository.updateAtVersion(1, 2, Map.of("city", "Shelbyville", "state", "IL"))).willReturn(1);
+
+        // when
+        Optional<Integer> result = customerService.patchCustomerAtVersion(1, customerPatchDto, 2);
+
+        // then
+        assertThat(result).contains(3);
+        verify(customerRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void patchCustomerAtVersionOfAnotherVersion() {
+        // given
+        CustomerPatchDto customerPatchDto = CustomerPatchDto.builder().city("Shelbyville").build();
+        given(customerRepository.updateAtVersion(1, 2, Map.of("city", "Shelbyville"))).willReturn(0);
+        given(customerRepository.existsById(1)).willReturn(true);
+
+        // when / then
+        assertThatThrownBy(() -> customerService.patchCustomerAtVersion(1, customerPatchDto, 2))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Customer 1 is not at version 2");
+    }
 }
@@ -0,0 +1,131 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.models.CustomerDto;
+import com.igorfragadev.juniemvc.models.CustomerPatchDto;
+import com.igorfragadev.juniemvc.sql.SqlCountTest;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounter;
+import com.igorfragadev.juniemvc.sql.SqlStatementCounts;
+import com.igorfragadev.juniemvc.sql.SqlStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SqlCountTest
+class CustomerServiceSqlCountTest {
+
+    @Autowired
+    CustomerService customerService;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    List<CustomerDto> customers;
+
+    @BeforeEach
+    void setUp() {
+        customers = IntStream.range(0, 3)
+                .mapToObj(i -> customerService.saveCustomer(customer("Count Customer " + i)))
+                .toList();
+    }
+
+    @Test
+    void getAllCustomersRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> customerService.getAllCustomers());
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void getCustomerByIdRunsOneSelect() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> customerService.getCustomerById(customers.get(0).getId()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 0, 0));
+    }
+
+    @Test
+    void saveCustomerRunsOneInsert() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> customerService.saveCustomer(customer("New Count Customer")));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(0, 1, 0, 0));
+    }
+
+    @Test
+    void updateCustomerRunsOneSelectAndOneUpdate() {
+        // given
+        CustomerDto customer = customers.get(0);
+        customer.setCity("Shelbyville");
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> customerService.updateCustomer(customer.getId(), customer));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+    }
+
+    @Test
+    void patchCustomerRunsOneSelectAndOneUpdateOfTheChangedColumns() {
+        // given
+        CustomerDto customer = customers.get(0);
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> customerService.patchCustomer(customer.getId(),
+                CustomerPatchDto.builder().city("Shelbyville").build(), customer.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(1, 0, 1, 0));
+        assertThat(statements.sql().get(1)).contains("city").doesNotContain("name", "address_line1", "postal_code");
+    }
+
+    @Test
+    void patchCustomerAtVersionRunsOneUpdateOfTheChangedColumns() {
+        // given
+        CustomerDto customer = customers.get(0);
+
+        // when
+        SqlStatements statements = sqlStatementCounter.record(() -> customerService.patchCustomerAtVersion(
+                customer.getId(), CustomerPatchDto.builder().city("Shelbyville").build(), customer.getVersion()));
+
+        // then
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(0, 0, 1, 0));
+        assertThat(statements.sql().get(0)).contains("city").doesNotContain("name", "address_line1", "postal_code");
+        assertThat(customerService.getCustomerById(customer.getId())).hasValueSatisfying(patched -> {
+            assertThat(patched.getCity()).isEqualTo("Shelbyville");
+            assertThat(patched.getVersion()).isEqualTo(customer.getVersion() + 1);
+        });
+    }
+
+    @Test
+    void deleteCustomerRunsTwoSelectsAndOneDelete() {
+        // when
+        SqlStatements statements = sqlStatementCounter.record(
+                () -> customerService.deleteCustomer(customers.get(0).getId()));
+
+        // then
+        // The existence check and deleteById's own lookup each read the customer
+        assertThat(statements.counts()).as(statements.toString()).isEqualTo(new SqlStatementCounts(2, 0, 0, 1));
+    }
+
+    private static CustomerDto customer(String name) {
+        return CustomerDto.builder()
+                .name(name)
+                .addressLine1("1 Main St")
+                .city("Springfield")
+                .state("IL")
+                .postalCode("62701")
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.models.BeerOrderDto;
+import com.igorfragadev.juniemvc.models.BeerOrderLineDto;
+import com.igorfragadev.juniemvc.models.BeerOrderStatus;
+import com.igorfragadev.juniemvc.repositories.BeerOrderRepository;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Places many concurrent orders for one beer with too little stock, checking that the conditional
+ * stock updates neither oversell the beer nor fail any order.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryAllocationConcurrencyTest {
+
+    private static final int STOCK = 25;
+    private static final int ORDER_COUNT = 40;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    Beer beer;
+    List<Integer> beerOrderIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        beerOrderIds.forEach(beerOrderRepository::deleteById);
+        beerRepository.deleteById(beer.getId());
+    }
+
+    @Test
+    void testConcurrentOrdersDoNotOversell() throws Exception {
+        // Given
+        beer = beerRepository.save(Beer.builder()
+                .beerName("Popular Beer")
+                .beerStyle("IPA")
+                .upc("popular-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(STOCK)
+                .build());
+
+        Callable<BeerOrderDto> placeOrder = () -> beerOrderService.saveBeerOrder(BeerOrderDto.builder()
+                .customerRef("CONCURRENT")
+                .paymentAmount(new BigDecimal("9.99"))
+                .status(BeerOrderStatus.NEW)
+                .beerOrderLines(List.of(BeerOrderLineDto.builder()
+                        .beerId(beer.getId())
+                        .orderQuantity(1)
+                        .build()))
+                .build());
+
+        // When
+        List<BeerOrderDto> savedOrders = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<BeerOrderDto>> futures = new ArrayList<>();
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                futures.add(executor.submit(placeOrder));
+            }
+            for (Future<BeerOrderDto> future : futures) {
+                savedOrders.add(future.get());
+            }
+        }
+        savedOrders.forEach(order -> beerOrderIds.add(order.getId()));
+
+        // Then
+        List<BeerOrderLineDto> lines = savedOrders.stream()
+                .flatMap(order -> order.getBeerOrderLines().stream())
+                .toList();
+        assertThat(lines).hasSize(ORDER_COUNT);
+        assertThat(lines).filteredOn(line -> InventoryAllocationService.ALLOCATED.equals(line.getStatus()))
+                .hasSize(STOCK);
+        assertThat(lines).filteredOn(line -> InventoryAllocationService.BACKORDERED.equals(line.getStatus()))
+                .hasSize(ORDER_COUNT - STOCK);
+        assertThat(lines.stream().mapToInt(BeerOrderLineDto::getQuantityAllocated).sum()).isEqualTo(STOCK);
+        assertThat(beerRepository.findQuantityOnHandById(beer.getId())).contains(0);
+    }
+}
@@ -0,0 +1,253 @@
+package com.igorfragadev.juniemvc.services;
+
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.entities.BeerOrderLine;
+import com.igorfragadev.juniemvc.events.BeerStockChangedEvent;
+import com.igorfragadev.juniemvc.repositories.BeerOrderLineRepository;
+import com.igorfragadev.juniemvc.repositories.BeerRepository;
+import com.igorfragadev.juniemvc.repositories.projections.BeerAllocationView;
+import com.igorfragadev.juniemvc.repositories.projections.BeerStockView;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryAllocationServiceImplTest {
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @Mock
+    BeerOrderLineRepository beerOrderLineRepository;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    InventoryAllocationServiceImpl inventoryAllocationService;
+
+    @Test
+    void allocateFullQuantity() {
+        // given
+        BeerOrderLine line = line(1, 5);
+        given(beerRepository.decrementQuantityOnHand(1, 5)).willReturn(1);
+
+        // when
+        inventoryAllocationService.allocate(List.of(line));
+
+        // then
+        assertThat(line.getQuantityAllocated()).isEqualTo(5);
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.ALLOCATED);
+        verify(beerRepository, never()).findQuantityOnHandById(anyInt());
+        verify(eventPublisher, times(1)).publishEvent(new BeerStockChangedEvent(1));
+    }
+
+    @Test
+    void allocateDetachesLoadedBeersAndShowsTheirNewStock() {
+        // given
+        BeerOrderLine line = line(1, 5);
+        Beer beer = line.getBeer();
+        beer.setQuantityOnHand(20);
+        given(beerRepository.decrementQuantityOnHand(1, 5)).willReturn(1);
+        given(entityManager.contains(beer)).willReturn(true);
+        given(beerRepository.findStockByIdIn(Set.of(1))).willReturn(List.of(new BeerStockView(1, 12)));
+
+        // when
+        inventoryAllocationService.allocate(List.of(line));
+
+        // then
+        verify(entityManager).detach(beer);
+        assertThat(beer.getQuantityOnHand()).isEqualTo(12);
+    }
+
+    @Test
+    void releaseReturnsTheStockOfEachBeerInBeerIdOrder() {
+        // given
+        given(beerOrderLineRepository.findAllocationsByBeerOrderId(7)).willReturn(List.of(
+                new BeerAllocationView(1, 5L),
+                new BeerAllocationView(2, 3L)));
+
+        // when
+        inventoryAllocationService.release(7);
+
+        // then
+        InOrder inOrder = inOrder(beerRepository);
+        inOrder.verify(beerRepository).incrementQuantityOnHand(1, 5);
+        inOrder.verify(beerRepository).incrementQuantityOnHand(2, 3);
+        verify(eventPublisher).publishEvent(new BeerStockChangedEvent(1));
+        verify(eventPublisher).publishEvent(new BeerStockChangedEvent(2));
+    }
+
+    @Test
+    void allocatePartialQuantity() {
+        // given
+        BeerOrderLine line = line(1, 5);
+        given(beerRepository.decrementQuantityOnHand(1, 5)).willReturn(0);
+        given(beerRepository.findQuantityOnHandById(1)).willReturn(Optional.of(3));
+        given(beerRepository.decrementQuantityOnHand(1, 3)).willReturn(1);
+
+        // when
+        inventoryAllocationService.allocate(List.of(line));
+
+        // then
+        assertThat(line.getQuantityAllocated()).isEqualTo(3);
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.PARTIALLY_ALLOCATED);
+        verify(eventPublisher, times(1)).publishEvent(new BeerStockChangedEvent(1));
+    }
+
+    @Test
+    void allocatePartialQuantityRetriesWhenStockChanges() {
+        // given
+        BeerOrderLine line = line(1, 5);
+        given(beerRepository.decrementQuantityOnHand(1, 5)).willReturn(0);
+        given(beerRepository.findQuantityOnHandById(1)).willReturn(Optional.of(3), Optional.of(2));
+        given(beerRepository.decrementQuantityOnHand(1, 3)).willReturn(0);
+        given(beerRepository.decrementQuantityOnHand(1, 2)).willReturn(1);
+
+        // when
+        inventoryAllocationService.allocate(List.of(line));
+
+        // then
+        assertThat(line.getQuantityAllocated()).isEqualTo(2);
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.PARTIALLY_ALLOCATED);
+    }
+
+    @Test
+    void allocateNothingOnHand() {
+        // given
+        BeerOrderLine line = line(1, 5);
+        given(beerRepository.decrementQuantityOnHand(1, 5)).willReturn(0);
+        given(beerRepository.findQuantityOnHandById(1)).willReturn(Optional.of(0));
+
+        // when
+        inventoryAllocationService.allocate(List.of(line));
+
+        // then
+        assertThat(line.getQuantityAllocated()).isZero();
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.BACKORDERED);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void allocateInBeerIdOrder() {
+        // given
+        BeerOrderLine secondBeerLine = line(2, 1);
+        BeerOrderLine firstBeerLine = line(1, 1);
+        given(beerRepository.decrementQuantityOnHand(anyInt(), anyInt())).willReturn(1);
+
+        // when
+        inventoryAllocationService.allocate(List.of(secondBeerLine, firstBeerLine));
+
+        // then
+        InOrder inOrder = inOrder(beerRepository);
+        inOrder.verify(beerRepository).decrementQuantityOnHand(1, 1);
+        inOrder.verify(beerRepository).decrementQuantityOnHand(2, 1);
+    }
+
+    @Test
+    void reallocateTakesOnlyTheIncrease() {
+        // given
+        BeerOrderLine line = allocatedLine(1, 8, 5);
+        given(beerRepository.decrementQuantityOnHand(1, 3)).willReturn(1);
+
+        // when
+        inventoryAllocationService.reallocate(Map.of(line, 5), List.of());
+
+        // then
+        assertThat(line.getQuantityAllocated()).isEqualTo(8);
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.ALLOCATED);
+        verify(eventPublisher, times(1)).publishEvent(new BeerStockChangedEvent(1));
+    }
+
+    @Test
+    void reallocateReturnsWhatExceedsTheLowerQuantity() {
+        // given
+        BeerOrderLine line = allocatedLine(1, 2, 5);
+
+        // when
+        inventoryAllocationService.reallocate(Map.of(line, 5), List.of());
+
+        // then
+        assertThat(line.getQuantityAllocated()).isEqualTo(2);
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.ALLOCATED);
+        verify(beerRepository, times(1)).incrementQuantityOnHand(1, 3);
+        verify(beerRepository, never()).decrementQuantityOnHand(anyInt(), anyInt());
+    }
+
+    @Test
+    void reallocateKeepsStockWhenTheLowerQuantityIsStillShort() {
+        // given
+        BeerOrderLine line = allocatedLine(1, 4, 3);
+        line.setStatus(InventoryAllocationService.PARTIALLY_ALLOCATED);
+
+        // when
+        inventoryAllocationService.reallocate(Map.of(line, 5), List.of());
+
+        // then
+        assertThat(line.getQuantityAllocated()).isEqualTo(3);
+        assertThat(line.getStatus()).isEqualTo(InventoryAllocationService.PARTIALLY_ALLOCATED);
+        verify(beerRepository, never()).incrementQuantityOnHand(anyInt(), anyInt());
+        verify(beerRepository, never()).decrementQuantityOnHand(anyInt(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void reallocateReturnsStockOfRemovedLinesBeforeTakingMore() {
+        // given
+        BeerOrderLine removedLine = allocatedLine(1, 5, 5);
+        BeerOrderLine newLine = line(1, 4);
+        BeerOrderLine otherBeerLine = line(2, 1);
+        Map<BeerOrderLine, Integer> previousOrderQuantities = new LinkedHashMap<>();
+        previousOrderQuantities.put(otherBeerLine, 0);
+        previousOrderQuantities.put(newLine, 0);
+        given(beerRepository.decrementQuantityOnHand(anyInt(), anyInt())).willReturn(1);
+
+        // when
+        inventoryAllocationService.reallocate(previousOrderQuantities, List.of(removedLine));
+
+        // then
+        InOrder inOrder = inOrder(beerRepository);
+        inOrder.verify(beerRepository).incrementQuantityOnHand(1, 5);
+        inOrder.verify(beerRepository).decrementQuantityOnHand(1, 4);
+        inOrder.verify(beerRepository).decrementQuantityOnHand(2, 1);
+        assertThat(newLine.getQuantityAllocated()).isEqualTo(4);
+        assertThat(otherBeerLine.getQuantityAllocated()).isEqualTo(1);
+    }
+
+    private static BeerOrderLine allocatedLine(Integer beerId, Integer orderQuantity, Integer quantityAllocated) {
+        BeerOrderLine line = line(beerId, orderQuantity);
+        line.setQuantityAllocated(quantityAllocated);
+        line.setStatus(InventoryAllocationService.ALLOCATED);
+        return line;
+    }
+
+    private static BeerOrderLine line(Integer beerId, Integer orderQuantity) {
+        return BeerOrderLine.builder()
+                .beer(Beer.builder().id(beerId).build())
+                .orderQuantity(orderQuantity)
+                .build();
+    }
+}
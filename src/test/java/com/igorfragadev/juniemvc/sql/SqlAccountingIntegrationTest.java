@@ -0,0 +1,111 @@
+package com.igorfragadev.juniemvc.sql;
+
+import com.igorfragadev.juniemvc.cache.BeerCache;
+import com.igorfragadev.juniemvc.entities.Beer;
+import com.igorfragadev.juniemvc.models.BeerDto;
+import com.igorfragadev.juniemvc.services.BeerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "juniemvc.sql-accounting.log-sample-rate=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class SqlAccountingIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerCache beerCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    BeerDto beer;
+
+    @BeforeEach
+    void setUp() {
+        beer = beerService.saveBeer(BeerDto.builder()
+                .beerName("Accounted Beer")
+                .beerStyle("IPA")
+                .upc("sql-accounting-123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build());
+        // Read the beer from the database rather than either cache
+        beerCache.evict(beer.getId());
+        entityManagerFactory.getCache().evict(Beer.class, beer.getId());
+    }
+
+    @Test
+    void debugRequestGetsItsSqlTotalsAsHeaders() throws Exception {
+        // when / then
+        mockMvc.perform(get("/api/v1/beers/{beerId}", beer.getId())
+                        .header(SqlAccountingFilter.DEBUG_HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlAccountingFilter.COUNT_HEADER, "1"))
+                .andExpect(header().string(SqlAccountingFilter.ROWS_HEADER, "1"))
+                .andExpect(header().string(SqlAccountingFilter.TIME_HEADER, matchesPattern("\\d+\\.\\d{3}")));
+
+        beerService.deleteBeer(beer.getId(), null);
+    }
+
+    @Test
+    void debugResponseWithoutBodyGetsItsSqlTotalsAsHeaders() throws Exception {
+        // when / then
+        mockMvc.perform(delete("/api/v1/beers/{beerId}", beer.getId())
+                        .header(SqlAccountingFilter.DEBUG_HEADER, "true"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(SqlAccountingFilter.COUNT_HEADER, "2"))
+                .andExpect(header().string(SqlAccountingFilter.ROWS_HEADER, "1"));
+    }
+
+    @Test
+    void requestWithoutDebugHeaderGetsNoSqlHeadersButIsLogged(CapturedOutput output) throws Exception {
+        // when
+        mockMvc.perform(get("/api/v1/beers/{beerId}", beer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SqlAccountingFilter.COUNT_HEADER));
+
+        // then
+        String logLine = "\"uri\":\"/api/v1/beers/" + beer.getId() + "\"";
+        // The line is written by the asynchronous appender's own thread
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (!output.getOut().contains(logLine) && Instant.now().isBefore(deadline)) {
+            Thread.sleep(10);
+        }
+        assertThat(output.getOut().lines().filter(line -> line.contains(logLine)).findFirst())
+                .hasValueSatisfying(line -> assertThat(line)
+                        .contains("\"method\":\"GET\"")
+                        .contains("\"status\":200")
+                        .contains("\"sqlCount\":1")
+                        .contains("\"sqlRows\":1")
+                        .contains("\"sqlTimeMs\":"));
+
+        beerService.deleteBeer(beer.getId(), null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.igorfragadev.juniemvc.sql;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test against the full application with a {@link SqlStatementCounter} installed, on a database of its
+ * own so that rows written by the test don't leak into other tests. Every test class carrying this annotation
+ * shares one application context.
+ * <p>
+ * The second-level cache is off, so each count is what the operation runs against a cold cache whatever earlier
+ * tests have read.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@ActiveProfiles("test")
+@Import(SqlStatementCounterConfig.class)
+public @interface SqlCountTest {
+}
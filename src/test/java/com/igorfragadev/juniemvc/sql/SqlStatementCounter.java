@@ -0,0 +1,42 @@
+package com.igorfragadev.juniemvc.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL statements Hibernate prepares on the current thread while an action runs.
+ * <p>
+ * Hibernate passes every statement through the inspector as it prepares it, so a JDBC batch counts once however
+ * many rows it writes, and work done on other threads, e.g. by the search indexer, is never counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<List<String>> recording = new ThreadLocal<>();
+
+    /**
+     * Run an action and record the statements it prepares
+     * @param action The action, usually a single service call
+     * @return The statements prepared, in order
+     */
+    public SqlStatements record(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        recording.set(statements);
+        try {
+            action.run();
+        } finally {
+            recording.remove();
+        }
+        return new SqlStatements(statements);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = recording.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,24 @@
+package com.igorfragadev.juniemvc.sql;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers a {@link SqlStatementCounter} as Hibernate's statement inspector
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlStatementCounterConfig {
+
+    @Bean
+    SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                sqlStatementCounter);
+    }
+}
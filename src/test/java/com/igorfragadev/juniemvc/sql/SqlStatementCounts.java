@@ -0,0 +1,12 @@
+package com.igorfragadev.juniemvc.sql;
+
+/**
+ * Number of statements of each kind an operation ran.
+ *
+ * @param selects the number of SELECT statements, not counting sequence fetches
+ * @param inserts the number of INSERT statements; a JDBC batch counts once
+ * @param updates the number of UPDATE statements; a JDBC batch counts once
+ * @param deletes the number of DELETE statements; a JDBC batch counts once
+ */
+public record SqlStatementCounts(int selects, int inserts, int updates, int deletes) {
+}
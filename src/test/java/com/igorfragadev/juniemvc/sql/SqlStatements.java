@@ -0,0 +1,36 @@
+package com.igorfragadev.juniemvc.sql;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The SQL statements recorded by {@link SqlStatementCounter}.
+ * <p>
+ * Sequence fetches are left out of the counts: the pooled optimizer fetches a block of IDs at a time, so whether
+ * an insert needs one depends on what ran before it rather than on the code under test.
+ *
+ * @param sql the recorded statements, in the order they were prepared
+ */
+public record SqlStatements(List<String> sql) {
+
+    /**
+     * Count the recorded statements by kind
+     * @return The number of SELECT, INSERT, UPDATE and DELETE statements
+     */
+    public SqlStatementCounts counts() {
+        return new SqlStatementCounts(count("select"), count("insert"), count("update"), count("delete"));
+    }
+
+    private int count(String keyword) {
+        return (int) sql.stream()
+                .map(statement -> statement.stripLeading().toLowerCase(Locale.ROOT))
+                .filter(statement -> !statement.startsWith("select next value for"))
+                .filter(statement -> statement.startsWith(keyword))
+                .count();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), sql);
+    }
+}